@@ -0,0 +1,13 @@
+#!/bin/sh
+# Starts the application from the fast-startup build (./mvnw -Pfast-startup package):
+# the extracted jar, with the AOT-generated bean definitions and the CDS archive.
+# Extra JVM options can be passed in JAVA_OPTS; arguments go to the application.
+DIR="$(cd "$(dirname "$0")/.." && pwd)/target/fast-startup"
+
+if [ ! -f "$DIR/application.jsa" ]; then
+    echo "No CDS archive in $DIR, build it with: ./mvnw -Pfast-startup package" >&2
+    exit 1
+fi
+
+exec java -XX:SharedArchiveFile="$DIR/application.jsa" -Dspring.aot.enabled=true $JAVA_OPTS \
+    -jar "$DIR/GCOD-0.0.1-SNAPSHOT.jar" "$@"
@@ -0,0 +1,62 @@
+#!/bin/bash
+# Measures the time from launching the JVM to the first successful POST /parser,
+# for the plain jar and for the fast-startup build with and without the CDS archive.
+#
+# Usage: scripts/startup-benchmark.sh [RUNS]   (default 5; PORT defaults to 18080)
+# Build first with: ./mvnw -Pfast-startup package
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$ROOT/target/GCOD-0.0.1-SNAPSHOT.jar"
+FAST="$ROOT/target/fast-startup"
+
+if [ ! -f "$JAR" ] || [ ! -f "$FAST/application.jsa" ]; then
+    echo "Build first with: ./mvnw -Pfast-startup package" >&2
+    exit 1
+fi
+
+# Prints the milliseconds until the first 200 from /parser
+measure() {
+    local start pid status elapsed
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" >/dev/null 2>&1 &
+    pid=$!
+    while true; do
+        status=$(curl -s -o /dev/null -w '%{http_code}' -X POST --data-urlencode 'input=a + b' \
+            "http://localhost:$PORT/parser" || true)
+        if [ "$status" = "200" ]; then
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "The application exited before answering" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+report() {
+    local name="$1"
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(measure "$@")")
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    printf '%-10s min %6d ms   median %6d ms   (%s)\n' "$name" \
+        "$(echo "$sorted" | head -1)" "$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")" \
+        "$(echo "${times[@]}")"
+}
+
+echo "Time to first successful POST /parser, $RUNS runs each"
+report "jar" java -jar "$JAR"
+report "aot" java -Dspring.aot.enabled=true -jar "$FAST/GCOD-0.0.1-SNAPSHOT.jar"
+report "aot+cds" java -XX:SharedArchiveFile="$FAST/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$FAST/GCOD-0.0.1-SNAPSHOT.jar"
@@ -1,5 +1,7 @@
 package compiladores.GCOD.FirstFollow;
 
+import compiladores.GCOD.jfr.GrammarAnalysisEvent;
+
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -13,6 +15,7 @@ public class FirstFollow {
     private final Grammar grammar;
     private final Symbol END_MARKER = new Symbol("$", true);
     private boolean followSetsResolved = false;
+    private int followIterations = 0;
 
     /**
      * Creates a new FirstFollow instance for the given grammar.
@@ -28,8 +31,15 @@ public class FirstFollow {
      * This is the main entry point for the analysis process.
      */
     public void calculateFirstFollow() {
+        GrammarAnalysisEvent event = new GrammarAnalysisEvent();
+        event.begin();
         calculateAllFirstSets();
         calculateAllFollowSets();
+        if (event.shouldCommit()) {
+            event.step = "first-follow";
+            event.nonTerminalCount = grammar.getNonTerminals().size();
+            event.commit();
+        }
     }
 
     /**
@@ -222,13 +232,24 @@ public class FirstFollow {
             return;
         }
         
+        GrammarAnalysisEvent event = new GrammarAnalysisEvent();
+        event.begin();
+
         // Repeat until no more changes occur
         boolean changed;
         do {
             changed = resolveOneCycleOfFollowDependencies();
+            followIterations++;
         } while (changed);
         
         followSetsResolved = true;
+
+        if (event.shouldCommit()) {
+            event.step = "resolve-follow";
+            event.nonTerminalCount = grammar.getNonTerminals().size();
+            event.iterations = followIterations;
+            event.commit();
+        }
     }
 
     /**
@@ -283,6 +304,16 @@ public class FirstFollow {
         return changed;
     }
 
+    /**
+     * Returns the number of cycles {@link #resolveFollowDependencies()} needed to
+     * reach the fixpoint, the last one being the cycle in which nothing changed.
+     *
+     * @return the number of cycles
+     */
+    public int getFollowIterations() {
+        return followIterations;
+    }
+
     /**
      * Returns the grammar being analyzed.
      * 
@@ -1,7 +1,10 @@
 package compiladores.GCOD.FirstFollow;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -15,6 +18,58 @@ public class Grammar {
         nonTerminals = new HashMap<>();
     }
 
+    /**
+     * Builds a grammar from rules written as {@code E → E << T}, one or more per line.
+     *
+     * The left side is separated by {@code →} or {@code ->}, alternatives by {@code |}
+     * and symbols by whitespace; {@code ε} or an empty right side is the empty
+     * production. Every symbol that appears on a left side is a non-terminal, all
+     * others are terminals. The left side of the first rule is the start symbol.
+     *
+     * @param rules the rules, in the format of {@code GrammarService#getGrammarString()}
+     * @return the grammar
+     */
+    public static Grammar parse(List<String> rules) {
+        Map<String, List<String>> rightSides = new LinkedHashMap<>();
+        for (String rule : rules) {
+            String[] sides = rule.split("→|->", 2);
+            if (sides.length != 2 || sides[0].isBlank()) {
+                throw new IllegalArgumentException("Not a grammar rule: " + rule);
+            }
+            String leftSide = sides[0].trim();
+            for (String alternative : sides[1].split("\\|", -1)) {
+                rightSides.computeIfAbsent(leftSide, name -> new ArrayList<>()).add(alternative.trim());
+            }
+        }
+
+        Grammar grammar = new Grammar();
+        for (String name : rightSides.keySet()) {
+            grammar.addNonTerminal(new NonTerminal(name));
+        }
+        for (Map.Entry<String, List<String>> entry : rightSides.entrySet()) {
+            NonTerminal nonTerminal = grammar.getNonTerminal(entry.getKey());
+            for (String alternative : entry.getValue()) {
+                Production production = new Production();
+                for (String name : alternative.split("\\s+")) {
+                    if (name.isEmpty() || name.equals("ε")) {
+                        continue;
+                    }
+                    Symbol symbol = grammar.getNonTerminal(name);
+                    if (symbol == null) {
+                        symbol = grammar.getTerminal(name);
+                        if (symbol == null) {
+                            grammar.addTerminal(name);
+                            symbol = grammar.getTerminal(name);
+                        }
+                    }
+                    production.addSymbol(symbol);
+                }
+                nonTerminal.addProduction(production);
+            }
+        }
+        return grammar;
+    }
+
     public void addTerminal(String name) {
         terminals.add(new Symbol(name, true));
     }
@@ -0,0 +1,385 @@
+package compiladores.GCOD.FirstFollow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Derives random sentences from a grammar, for tests and load generation.
+ *
+ * A sentence is built by expanding the leftmost pending symbol with a randomly chosen
+ * production. While the sentence can still grow, any production that keeps it within
+ * {@code targetLength} terminals and {@code maxDepth} derivation levels may be chosen;
+ * once that budget is used up, only the productions with the shortest derivations
+ * are, so every pending non-terminal is closed off as quickly as the grammar allows.
+ * The shortest derivation lengths and heights are computed once, by a fixpoint over
+ * the productions like the one for the FIRST sets.
+ *
+ * Invalid sentences are made by mutating valid ones. The FIRST and LAST terminals of
+ * every symbol give the pairs of terminals that can ever appear next to each other;
+ * a mutation that creates a pair outside of that set yields a sentence that is
+ * certainly not in the language.
+ *
+ * Instances are immutable and can be shared between threads; the caller passes the
+ * {@link Random} to use.
+ */
+public class SentenceGenerator {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final NonTerminal start;
+    private final List<Symbol> terminals = new ArrayList<>();
+    private final Map<Symbol, Integer> terminalIds = new HashMap<>();
+    private final Map<NonTerminal, Integer> nonTerminalIds = new HashMap<>();
+    private final List<NonTerminal> nonTerminals = new ArrayList<>();
+
+    // Per non-terminal: fewest terminals and fewest derivation levels it can derive
+    private final int[] minLength;
+    private final int[] minHeight;
+
+    // Terminals that can start (FIRST) and end (LAST) each non-terminal, and which can be empty
+    private final BitSet[] first;
+    private final BitSet[] last;
+    private final BitSet nullable = new BitSet();
+
+    // follows[a] holds the terminals that can come right after terminal a in some sentence
+    private final BitSet[] follows;
+
+    /**
+     * Prepares a generator for the sentences of {@code grammar}.
+     *
+     * @throws IllegalArgumentException if the start symbol derives no finite sentence
+     */
+    public SentenceGenerator(Grammar grammar) {
+        this.start = grammar.getStartSymbol();
+        nonTerminals.add(start);
+        for (NonTerminal nonTerminal : grammar.getNonTerminals()) {
+            if (!nonTerminal.equals(start)) {
+                nonTerminals.add(nonTerminal);
+            }
+        }
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            nonTerminalIds.put(nonTerminals.get(i), i);
+            for (Production production : nonTerminals.get(i).getProductions()) {
+                for (Symbol symbol : production.getSymbols()) {
+                    if (symbol.isTerminal() && !terminalIds.containsKey(symbol)) {
+                        terminalIds.put(symbol, terminals.size());
+                        terminals.add(symbol);
+                    }
+                }
+            }
+        }
+
+        int count = nonTerminals.size();
+        minLength = new int[count];
+        minHeight = new int[count];
+        Arrays.fill(minLength, UNREACHABLE);
+        Arrays.fill(minHeight, UNREACHABLE);
+        first = new BitSet[count];
+        last = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            first[i] = new BitSet();
+            last[i] = new BitSet();
+        }
+        calculateMinimums();
+        if (minLength[0] == UNREACHABLE) {
+            throw new IllegalArgumentException("The start symbol " + start.getName() + " derives no sentence");
+        }
+        calculateFirstAndLast();
+        follows = calculateFollows();
+    }
+
+    private void calculateMinimums() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < nonTerminals.size(); i++) {
+                for (Production production : nonTerminals.get(i).getProductions()) {
+                    int length = minLength(production);
+                    int height = minHeight(production);
+                    if (length < minLength[i]) {
+                        minLength[i] = length;
+                        changed = true;
+                    }
+                    if (height != UNREACHABLE && height + 1 < minHeight[i]) {
+                        minHeight[i] = height + 1;
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void calculateFirstAndLast() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < nonTerminals.size(); i++) {
+                for (Production production : nonTerminals.get(i).getProductions()) {
+                    List<Symbol> symbols = production.getSymbols();
+                    List<Symbol> reversed = new ArrayList<>(symbols);
+                    Collections.reverse(reversed);
+                    changed |= addBoundary(first[i], symbols, first);
+                    changed |= addBoundary(last[i], reversed, last);
+                    if (!nullable.get(i) && isNullable(symbols, 0, symbols.size())) {
+                        nullable.set(i);
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the terminals that can come first in {@code symbols} to {@code target}, given
+     * the same sets for each non-terminal. Called with the FIRST sets, or with the LAST
+     * sets and the symbols reversed.
+     */
+    private boolean addBoundary(BitSet target, List<Symbol> symbols, BitSet[] sets) {
+        int before = target.cardinality();
+        for (Symbol symbol : symbols) {
+            if (symbol.isTerminal()) {
+                target.set(terminalIds.get(symbol));
+                break;
+            }
+            int id = nonTerminalIds.get(symbol);
+            target.or(sets[id]);
+            if (!nullable.get(id)) {
+                break;
+            }
+        }
+        return target.cardinality() != before;
+    }
+
+    private BitSet[] calculateFollows() {
+        BitSet[] follows = new BitSet[terminals.size()];
+        for (int a = 0; a < follows.length; a++) {
+            follows[a] = new BitSet();
+        }
+        for (NonTerminal nonTerminal : nonTerminals) {
+            for (Production production : nonTerminal.getProductions()) {
+                List<Symbol> symbols = production.getSymbols();
+                for (int i = 0; i < symbols.size(); i++) {
+                    BitSet ends = lastOf(symbols.get(i));
+                    // Everything that can start a symbol after i, past any nullable ones in between
+                    for (int j = i + 1; j < symbols.size(); j++) {
+                        BitSet starts = firstOf(symbols.get(j));
+                        for (int a = ends.nextSetBit(0); a >= 0; a = ends.nextSetBit(a + 1)) {
+                            follows[a].or(starts);
+                        }
+                        if (!isNullable(symbols, j, j + 1)) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return follows;
+    }
+
+    private BitSet firstOf(Symbol symbol) {
+        if (symbol.isTerminal()) {
+            BitSet set = new BitSet();
+            set.set(terminalIds.get(symbol));
+            return set;
+        }
+        return first[nonTerminalIds.get(symbol)];
+    }
+
+    private BitSet lastOf(Symbol symbol) {
+        if (symbol.isTerminal()) {
+            BitSet set = new BitSet();
+            set.set(terminalIds.get(symbol));
+            return set;
+        }
+        return last[nonTerminalIds.get(symbol)];
+    }
+
+    private boolean isNullable(List<Symbol> symbols, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Symbol symbol = symbols.get(i);
+            if (symbol.isTerminal() || !nullable.get(nonTerminalIds.get(symbol))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int minLength(Production production) {
+        long length = 0;
+        for (Symbol symbol : production.getSymbols()) {
+            length += symbol.isTerminal() ? 1 : minLength[nonTerminalIds.get(symbol)];
+        }
+        return length >= UNREACHABLE ? UNREACHABLE : (int) length;
+    }
+
+    private int minHeight(Production production) {
+        int height = 0;
+        for (Symbol symbol : production.getSymbols()) {
+            if (!symbol.isTerminal()) {
+                height = Math.max(height, minHeight[nonTerminalIds.get(symbol)]);
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Returns the length of the shortest sentence of the grammar.
+     */
+    public int getMinLength() {
+        return minLength[0];
+    }
+
+    /**
+     * Returns the smallest derivation depth of any sentence of the grammar.
+     */
+    public int getMinDepth() {
+        return minHeight[0];
+    }
+
+    /**
+     * Derives a random sentence.
+     *
+     * The sentence has at most {@code targetLength} terminals and a derivation at most
+     * {@code maxDepth} levels deep, unless the grammar has no sentence that small, in
+     * which case it is as small as the grammar allows.
+     *
+     * @param random the source of the choices
+     * @param targetLength the number of terminals to grow the sentence towards
+     * @param maxDepth the deepest derivation allowed, the start symbol being level 1
+     * @return the terminals of the sentence
+     */
+    public List<Symbol> generate(Random random, int targetLength, int maxDepth) {
+        List<Symbol> sentence = new ArrayList<>();
+        Deque<Symbol> symbols = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        symbols.push(start);
+        depths.push(1);
+        // Terminals emitted plus the shortest completion of every pending symbol
+        int committed = minLength[0];
+        List<Production> candidates = new ArrayList<>();
+
+        while (!symbols.isEmpty()) {
+            Symbol symbol = symbols.pop();
+            int depth = depths.pop();
+            if (symbol.isTerminal()) {
+                sentence.add(symbol);
+                continue;
+            }
+
+            int id = nonTerminalIds.get(symbol);
+            candidates.clear();
+            Production shortest = null;
+            for (Production production : ((NonTerminal) symbol).getProductions()) {
+                int length = minLength(production);
+                if (length == UNREACHABLE) {
+                    continue;
+                }
+                int height = minHeight(production);
+                if (committed - minLength[id] + length <= targetLength && depth + height <= maxDepth) {
+                    candidates.add(production);
+                }
+                if (shortest == null || closesSooner(production, shortest)) {
+                    shortest = production;
+                }
+            }
+            Production chosen = candidates.isEmpty() ? shortest : candidates.get(random.nextInt(candidates.size()));
+
+            committed += minLength(chosen) - minLength[id];
+            List<Symbol> right = chosen.getSymbols();
+            for (int i = right.size() - 1; i >= 0; i--) {
+                symbols.push(right.get(i));
+                depths.push(depth + 1);
+            }
+        }
+        return sentence;
+    }
+
+    private boolean closesSooner(Production production, Production other) {
+        int length = minLength(production);
+        int otherLength = minLength(other);
+        return length < otherLength || (length == otherLength && minHeight(production) < minHeight(other));
+    }
+
+    /**
+     * Returns {@code sentence} with one terminal inserted, deleted or replaced so that
+     * it is no longer in the language.
+     *
+     * Only mutations that put two terminals next to each other that never are in a
+     * valid sentence, or that start or end the sentence with a terminal no sentence
+     * starts or ends with, are made. If {@code sentence} admits none of those, the
+     * last terminal is dropped instead, which is not guaranteed to be invalid.
+     *
+     * @param random the source of the choices
+     * @param sentence a sentence of the grammar
+     * @return the mutated copy
+     */
+    public List<Symbol> mutate(Random random, List<Symbol> sentence) {
+        int size = sentence.size();
+        for (int attempt = 0; attempt < 4 * (size + 1); attempt++) {
+            List<Symbol> mutated = new ArrayList<>(sentence);
+            int position = random.nextInt(size + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Symbol inserted = terminals.get(random.nextInt(terminals.size()));
+                    mutated.add(position, inserted);
+                    if (breaks(mutated, position)) {
+                        return mutated;
+                    }
+                    break;
+                case 1:
+                    if (position < size) {
+                        mutated.remove(position);
+                        if (mutated.isEmpty() ? !nullable.get(0) : breaks(mutated, Math.min(position, mutated.size() - 1))) {
+                            return mutated;
+                        }
+                    }
+                    break;
+                default:
+                    if (position < size) {
+                        mutated.set(position, terminals.get(random.nextInt(terminals.size())));
+                        if (breaks(mutated, position)) {
+                            return mutated;
+                        }
+                    }
+                    break;
+            }
+        }
+        return size == 0 ? new ArrayList<>(sentence) : new ArrayList<>(sentence.subList(0, size - 1));
+    }
+
+    /**
+     * Tells whether the terminal at {@code position} cannot follow the one before it, or
+     * cannot precede the one after it, in any sentence.
+     */
+    private boolean breaks(List<Symbol> sentence, int position) {
+        int current = terminalIds.get(sentence.get(position));
+        if (position == 0 ? !first[0].get(current)
+                : !follows[terminalIds.get(sentence.get(position - 1))].get(current)) {
+            return true;
+        }
+        return position == sentence.size() - 1 ? !last[0].get(current)
+                : !follows[current].get(terminalIds.get(sentence.get(position + 1)));
+    }
+
+    /**
+     * Returns the terminals of a sentence separated by spaces.
+     */
+    public static String toText(List<Symbol> sentence) {
+        StringBuilder text = new StringBuilder();
+        for (Symbol symbol : sentence) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(symbol.getName());
+        }
+        return text.toString();
+    }
+}
@@ -1,26 +1,48 @@
 package compiladores.GCOD;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the grammar analysis. The documents are rendered once by {@link GrammarIndex};
+ * conditional GETs with a matching {@code If-None-Match} get 304 from Spring MVC.
+ */
 @Controller
 public class GrammarController {
 
-    private final GrammarService grammarService;
+    private static final MediaType HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private final GrammarIndex grammarIndex;
 
     @Autowired
-    public GrammarController(GrammarService grammarService) {
-        this.grammarService = grammarService;
+    public GrammarController(GrammarIndex grammarIndex) {
+        this.grammarIndex = grammarIndex;
     }
 
     @GetMapping("/")
-    public String index(Model model) {
-        model.addAttribute("grammar", grammarService.getGrammarString());
-        model.addAttribute("firstSets", grammarService.getFirstSets());
-        model.addAttribute("followSets", grammarService.getFollowSets());
-        model.addAttribute("showParserLink", true);
-        return "index";
+    public ResponseEntity<byte[]> index() {
+        return ResponseEntity.ok()
+                .eTag(grammarIndex.getHtmlETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(HTML_UTF8)
+                .body(grammarIndex.getHtml());
+    }
+
+    /**
+     * Returns the grammar and its First and Follow sets as JSON.
+     */
+    @GetMapping(value = "/api/grammar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> analysis() {
+        return ResponseEntity.ok()
+                .eTag(grammarIndex.getJsonETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(grammarIndex.getJson());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package compiladores.GCOD;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.FirstFollow.NonTerminal;
+import compiladores.GCOD.FirstFollow.Symbol;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The grammar analysis page and its JSON variant, rendered once.
+ *
+ * The analysis does not change after {@link GrammarService#init()}, so both documents
+ * are rendered when this bean is created and served as bytes. Each has a strong ETag
+ * derived from its content, so a client that already has the current version gets
+ * a 304 after nothing more than a string comparison.
+ */
+@Component
+public class GrammarIndex {
+
+    private final byte[] html;
+    private final String htmlETag;
+    private final byte[] json;
+    private final String jsonETag;
+
+    public GrammarIndex(GrammarService grammarService, ITemplateEngine templateEngine, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        Context context = new Context();
+        context.setVariable("grammar", grammarService.getGrammarString());
+        context.setVariable("firstSets", grammarService.getFirstSets());
+        context.setVariable("followSets", grammarService.getFollowSets());
+        context.setVariable("showParserLink", true);
+        this.html = templateEngine.process("index", context).getBytes(StandardCharsets.UTF_8);
+        this.htmlETag = eTag(html);
+
+        Map<String, Object> analysis = new LinkedHashMap<>();
+        analysis.put("grammar", grammarService.getGrammarString());
+        analysis.put("first", sets(grammarService.getNonTerminals(), true));
+        analysis.put("follow", sets(grammarService.getNonTerminals(), false));
+        this.json = objectMapper.writeValueAsBytes(analysis);
+        this.jsonETag = eTag(json);
+    }
+
+    private static Map<String, List<String>> sets(Set<NonTerminal> nonTerminals, boolean first) {
+        Map<String, List<String>> sets = new LinkedHashMap<>();
+        for (NonTerminal nonTerminal : nonTerminals) {
+            List<String> names = new ArrayList<>();
+            for (Symbol symbol : first ? nonTerminal.getFirst() : nonTerminal.getFollow()) {
+                names.add(symbol.getName());
+            }
+            sets.put(nonTerminal.getName(), names);
+        }
+        return sets;
+    }
+
+    private static String eTag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public byte[] getHtml() {
+        return html;
+    }
+
+    public String getHtmlETag() {
+        return htmlETag;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getJsonETag() {
+        return jsonETag;
+    }
+}
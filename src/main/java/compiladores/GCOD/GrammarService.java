@@ -1,12 +1,14 @@
 package compiladores.GCOD;
 
 import compiladores.GCOD.FirstFollow.*;
+import compiladores.GCOD.metrics.GcodMetrics;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * Service handling grammar creation and analysis.
@@ -19,6 +21,11 @@ public class GrammarService {
     private FirstFollow firstFollow;
     private List<String> grammarStrings;
     private final Map<String, NonTerminal> nonTerminals = new HashMap<>();
+    private final GcodMetrics metrics;
+
+    public GrammarService(GcodMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     /**
      * Initializes the grammar and processes first/follow sets after bean creation.
@@ -118,8 +125,18 @@ public class GrammarService {
      */
     private void processFirstAndFollow() {
         firstFollow = new FirstFollow(grammar);
+        if (!metrics.isEnabled()) {
+            firstFollow.calculateFirstFollow();
+            firstFollow.resolveFollowDependencies();
+            return;
+        }
+
+        long start = System.nanoTime();
         firstFollow.calculateFirstFollow();
+        long initialDone = System.nanoTime();
         firstFollow.resolveFollowDependencies();
+        metrics.recordInitialSets(initialDone - start);
+        metrics.recordFollowFixpoint(System.nanoTime() - initialDone, firstFollow.getFollowIterations());
     }
 
     /**
@@ -131,6 +148,24 @@ public class GrammarService {
         return grammarStrings;
     }
 
+    /**
+     * Returns the grammar, with the First and Follow sets of its non-terminals.
+     *
+     * @return the grammar
+     */
+    public Grammar getGrammar() {
+        return grammar;
+    }
+
+    /**
+     * Returns the non-terminals of the grammar, with their First and Follow sets.
+     *
+     * @return the non-terminals
+     */
+    public Set<NonTerminal> getNonTerminals() {
+        return grammar.getNonTerminals();
+    }
+
     /**
      * Returns the string representation of the First sets.
      *
@@ -0,0 +1,298 @@
+package compiladores.GCOD.batch;
+
+import compiladores.GCOD.parser.Diagnostic;
+import compiladores.GCOD.parser.Parser;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point that parses expression files offline, without starting
+ * the web application.
+ *
+ * Every line of every input file is parsed as one expression. For each input file an
+ * output file with the same relative path plus {@code .out} is written, holding the
+ * syntax tree or the errors of each line. Files, and line ranges inside large files,
+ * are split across a {@link ForkJoinPool}. A throughput summary is printed at the end.
+ * A file that cannot be read, such as one that is not valid UTF-8, is reported and
+ * counted as failed, and the run goes on with the other files.
+ *
+ * Usage: {@code BatchParser [--output DIR] [--errors-only] [--threads N] PATH...}
+ */
+public class BatchParser {
+
+    // Line ranges at or below this size are parsed by a single task
+    private static final int LINES_PER_TASK = 2048;
+
+    private static final ThreadLocal<Parser> PARSERS = ThreadLocal.withInitial(Parser::new);
+
+    private final Path outputDir;
+    private final boolean errorsOnly;
+
+    public BatchParser(Path outputDir, boolean errorsOnly) {
+        this.outputDir = outputDir;
+        this.errorsOnly = errorsOnly;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path outputDir = Paths.get("parsed");
+        boolean errorsOnly = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> inputs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output":
+                    outputDir = Paths.get(args[++i]);
+                    break;
+                case "--errors-only":
+                    errorsOnly = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    inputs.add(Paths.get(args[i]));
+                    break;
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: BatchParser [--output DIR] [--errors-only] [--threads N] PATH...");
+            System.exit(2);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Summary summary = new BatchParser(outputDir, errorsOnly).run(inputs, pool);
+            System.out.println(summary);
+            if (summary.getErrors() > 0 || summary.getFailedFiles() > 0) {
+                System.exit(1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses all files found under the given paths.
+     *
+     * @param inputs files or directories to parse
+     * @param pool the pool the work is split across
+     * @return the totals of the run
+     */
+    public Summary run(List<Path> inputs, ForkJoinPool pool) throws IOException {
+        List<Source> sources = collectSources(inputs);
+        long start = System.nanoTime();
+        Summary summary = pool.invoke(new FilesTask(sources, 0, sources.size()));
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private List<Source> collectSources(List<Path> inputs) throws IOException {
+        Path absoluteOutput = outputDir.toAbsolutePath().normalize();
+        List<Source> sources = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.walk(input)) {
+                    for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        if (!file.toAbsolutePath().normalize().startsWith(absoluteOutput)) {
+                            sources.add(new Source(file, input.relativize(file)));
+                        }
+                    }
+                }
+            } else {
+                sources.add(new Source(input, input.getFileName()));
+            }
+        }
+        return sources;
+    }
+
+    private Summary parseFile(Source source) {
+        try {
+            List<String> lines = Files.readAllLines(source.file, StandardCharsets.UTF_8);
+            String[] results = new String[lines.size()];
+            Summary summary = new LinesTask(lines, results, 0, lines.size()).invoke();
+            summary.files = 1;
+            summary.bytes = Files.size(source.file);
+
+            Path target = outputDir.resolve(source.relativePath + ".out");
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                for (String result : results) {
+                    if (result != null) {
+                        writer.write(result);
+                    }
+                }
+            }
+            return summary;
+        } catch (IOException e) {
+            System.err.println("Failed to process " + source.file + ": " + e);
+            Summary summary = new Summary();
+            summary.failedFiles = 1;
+            return summary;
+        }
+    }
+
+    private String parseLine(int lineNumber, String line, Summary summary) {
+        Parser parser = PARSERS.get();
+        parser.reset(line);
+        ExpressionNode ast = parser.parse();
+        List<Diagnostic> diagnostics = parser.getDiagnostics();
+        summary.expressions++;
+
+        StringBuilder sb = new StringBuilder();
+        if (ast != null && diagnostics.isEmpty()) {
+            if (errorsOnly) {
+                return null;
+            }
+            sb.append("line ").append(lineNumber).append(": OK\n");
+            sb.append(ast.toTreeString());
+        } else {
+            summary.errors++;
+            sb.append("line ").append(lineNumber).append(": ERROR\n");
+            for (Diagnostic diagnostic : diagnostics) {
+                // The line was parsed on its own; report positions in the file
+                sb.append(diagnostic.getMessage(lineNumber)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class Source {
+        private final Path file;
+        private final Path relativePath;
+
+        Source(Path file, Path relativePath) {
+            this.file = file;
+            this.relativePath = relativePath;
+        }
+    }
+
+    private class FilesTask extends RecursiveTask<Summary> {
+        private final List<Source> sources;
+        private final int from;
+        private final int to;
+
+        FilesTask(List<Source> sources, int from, int to) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from == 0) {
+                return new Summary();
+            }
+            if (to - from == 1) {
+                return parseFile(sources.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            FilesTask left = new FilesTask(sources, from, middle);
+            left.fork();
+            Summary right = new FilesTask(sources, middle, to).compute();
+            return left.join().add(right);
+        }
+    }
+
+    private class LinesTask extends RecursiveTask<Summary> {
+        private final List<String> lines;
+        private final String[] results;
+        private final int from;
+        private final int to;
+
+        LinesTask(List<String> lines, String[] results, int from, int to) {
+            this.lines = lines;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= LINES_PER_TASK) {
+                Summary summary = new Summary();
+                for (int i = from; i < to; i++) {
+                    String line = lines.get(i);
+                    if (!line.isBlank()) {
+                        results[i] = parseLine(i + 1, line, summary);
+                    }
+                }
+                return summary;
+            }
+            int middle = (from + to) >>> 1;
+            LinesTask left = new LinesTask(lines, results, from, middle);
+            left.fork();
+            Summary right = new LinesTask(lines, results, middle, to).compute();
+            return left.join().add(right);
+        }
+    }
+
+    /**
+     * Totals of a batch run.
+     */
+    public static class Summary {
+        private long files;
+        private long failedFiles;
+        private long expressions;
+        private long errors;
+        private long bytes;
+        private long elapsedNanos;
+
+        private Summary add(Summary other) {
+            files += other.files;
+            failedFiles += other.failedFiles;
+            expressions += other.expressions;
+            errors += other.errors;
+            bytes += other.bytes;
+            return this;
+        }
+
+        public long getFiles() {
+            return files;
+        }
+
+        /**
+         * Returns the number of files that could not be read or written.
+         */
+        public long getFailedFiles() {
+            return failedFiles;
+        }
+
+        public long getExpressions() {
+            return expressions;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(elapsedNanos, 1) / 1e9;
+            return String.format("%d files, %d failed, %d expressions, %d errors in %.3f s"
+                            + " (%.0f expressions/s, %.2f MB/s)",
+                    files, failedFiles, expressions, errors, seconds, expressions / seconds, bytes / seconds / (1024 * 1024));
+        }
+    }
+}
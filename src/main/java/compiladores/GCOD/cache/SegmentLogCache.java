@@ -0,0 +1,503 @@
+package compiladores.GCOD.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent cache of byte values keyed by 32-byte content hashes, stored in one
+ * local directory.
+ *
+ * Values are appended to segment files ({@code segment-NNNNNNNN.log}) that are never
+ * modified once written. Each record holds the key, the value and a CRC32, so a record
+ * torn by a crash is detected and dropped. Where every record lives is kept in
+ * {@code index.bin}, an open-addressing hash table that is memory-mapped: lookups
+ * read the mapping directly, and after a restart the cache is usable as soon as the
+ * file is mapped, without reading the segments. Only records appended after the last
+ * index update are scanned again. If the index is missing or damaged it is rebuilt
+ * from the segments.
+ *
+ * When a segment reaches {@code segmentBytes} a new one is started, and when all
+ * segments together exceed {@code maxBytes} the oldest segments are deleted and the
+ * index is rewritten without their entries. Entries are immutable, so dropping the
+ * oldest ones is all the compaction a cache needs.
+ *
+ * Safe for concurrent use. The directory must not be shared with another process.
+ */
+public class SegmentLogCache implements Closeable {
+    public static final int KEY_BYTES = 32;
+
+    private static final String INDEX_FILE = "index.bin";
+    private static final int INDEX_MAGIC = 0x47434958;  // "GCIX"
+    private static final int INDEX_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    // Index header: magic, version, capacity, count, active segment, first segment, active length
+    private static final int HEADER_BYTES = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_ACTIVE_SEGMENT = 16;
+    private static final int H_FIRST_SEGMENT = 20;
+    private static final int H_ACTIVE_LENGTH = 24;
+
+    // Index slot: key, segment (0 = empty), offset of the record, value length
+    private static final int SLOT_BYTES = 48;
+    private static final int S_SEGMENT = KEY_BYTES;
+    private static final int S_OFFSET = KEY_BYTES + 4;
+    private static final int S_LENGTH = KEY_BYTES + 8;
+
+    // Record: magic, key, value length, value, CRC32 of key, length and value
+    private static final int RECORD_MAGIC = 0x47435245;  // "GCRE"
+    private static final int RECORD_HEADER = 4 + KEY_BYTES + 4;
+    private static final int RECORD_OVERHEAD = RECORD_HEADER + 4;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    private long totalBytes;
+    private int activeSegment;
+    private long activeLength;
+
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int count;
+
+    private SegmentLogCache(Path directory, long maxBytes, long segmentBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the cache in {@code directory}, creating it if needed.
+     *
+     * @param directory where the segments and the index are stored
+     * @param maxBytes the total size of the segments above which the oldest are deleted
+     * @param segmentBytes the size at which a new segment is started, at most 2 GB
+     * @return the open cache
+     */
+    public static SegmentLogCache open(Path directory, long maxBytes, long segmentBytes) throws IOException {
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+        }
+        SegmentLogCache cache = new SegmentLogCache(directory, maxBytes, segmentBytes);
+        try {
+            cache.load();
+        } catch (IOException | RuntimeException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the value stored for the key, or null if there is none.
+     *
+     * @param key a 32-byte content hash
+     */
+    public byte[] get(byte[] key) throws IOException {
+        checkKey(key);
+        lock.readLock().lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                return null;
+            }
+            int base = HEADER_BYTES + slot * SLOT_BYTES;
+            FileChannel segment = segments.get(index.getInt(base + S_SEGMENT));
+            if (segment == null) {
+                return null;
+            }
+            return readRecord(segment, index.getInt(base + S_OFFSET), index.getInt(base + S_LENGTH), key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a value unless the key is already present.
+     *
+     * @param key a 32-byte content hash
+     * @param value the value
+     */
+    public void put(byte[] key, byte[] value) throws IOException {
+        checkKey(key);
+        lock.writeLock().lock();
+        try {
+            int slot = find(key);
+            if (slot >= 0 && segments.containsKey(index.getInt(HEADER_BYTES + slot * SLOT_BYTES + S_SEGMENT))) {
+                return;
+            }
+            long recordBytes = (long) RECORD_OVERHEAD + value.length;
+            if (activeLength > 0 && activeLength + recordBytes > segmentBytes) {
+                startSegment(activeSegment + 1);
+            }
+
+            long offset = activeLength;
+            ByteBuffer record = encodeRecord(key, value);
+            FileChannel channel = segments.get(activeSegment);
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            activeLength += recordBytes;
+            totalBytes += recordBytes;
+
+            if (slot >= 0) {
+                update(slot, activeSegment, (int) offset, value.length);
+            } else {
+                insert(key, activeSegment, (int) offset, value.length);
+            }
+            index.putInt(H_ACTIVE_SEGMENT, activeSegment);
+            index.putLong(H_ACTIVE_LENGTH, activeLength);
+
+            if (totalBytes > maxBytes && segments.size() > 1) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the total size of the segment files in bytes.
+     */
+    public long getTotalBytes() {
+        lock.readLock().lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index and the segments to disk and closes them.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.force();
+                index = null;
+            }
+            if (indexChannel != null) {
+                indexChannel.close();
+                indexChannel = null;
+            }
+            for (FileChannel segment : segments.values()) {
+                segment.force(false);
+                segment.close();
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void checkKey(byte[] key) {
+        if (key.length != KEY_BYTES) {
+            throw new IllegalArgumentException("Keys must be " + KEY_BYTES + " bytes, got " + key.length);
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segments.put(id, channel);
+                totalBytes += channel.size();
+            }
+        }
+
+        boolean indexed = mapIndex();
+        if (!indexed) {
+            createIndex(INITIAL_CAPACITY);
+        }
+
+        if (segments.isEmpty()) {
+            startSegment(1);
+            index.putInt(H_FIRST_SEGMENT, 1);
+            return;
+        }
+
+        // Index whatever was appended after the last index update
+        int indexedSegment = indexed ? index.getInt(H_ACTIVE_SEGMENT) : 0;
+        long indexedLength = indexed ? index.getLong(H_ACTIVE_LENGTH) : 0;
+        for (Map.Entry<Integer, FileChannel> segment : segments.entrySet()) {
+            int id = segment.getKey();
+            if (id > indexedSegment) {
+                scan(id, segment.getValue(), 0);
+            } else if (id == indexedSegment) {
+                scan(id, segment.getValue(), Math.min(indexedLength, segment.getValue().size()));
+            }
+        }
+        activeSegment = segments.lastKey();
+        activeLength = segments.lastEntry().getValue().size();
+        index.putInt(H_ACTIVE_SEGMENT, activeSegment);
+        index.putInt(H_FIRST_SEGMENT, segments.firstKey());
+        index.putLong(H_ACTIVE_LENGTH, activeLength);
+    }
+
+    /**
+     * Maps the existing index. Returns false if there is none or it is not valid.
+     */
+    private boolean mapIndex() throws IOException {
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        int storedCapacity = mapped.getInt(H_CAPACITY);
+        boolean valid = mapped.getInt(H_MAGIC) == INDEX_MAGIC
+                && mapped.getInt(H_VERSION) == INDEX_VERSION
+                && storedCapacity > 0 && Integer.bitCount(storedCapacity) == 1
+                && channel.size() == HEADER_BYTES + (long) storedCapacity * SLOT_BYTES
+                && !segments.isEmpty() && mapped.getInt(H_FIRST_SEGMENT) == segments.firstKey();
+        if (!valid) {
+            channel.close();
+            return false;
+        }
+        indexChannel = channel;
+        index = mapped;
+        capacity = storedCapacity;
+        count = mapped.getInt(H_COUNT);
+        return true;
+    }
+
+    /**
+     * Replaces the index with an empty one of the given capacity, written to a
+     * temporary file first so a crash never leaves a half-written index behind.
+     */
+    private void createIndex(int newCapacity) throws IOException {
+        Path file = directory.resolve(INDEX_FILE);
+        Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        long size = HEADER_BYTES + (long) newCapacity * SLOT_BYTES;
+        FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.putInt(H_MAGIC, INDEX_MAGIC);
+        mapped.putInt(H_VERSION, INDEX_VERSION);
+        mapped.putInt(H_CAPACITY, newCapacity);
+        mapped.putInt(H_COUNT, 0);
+        mapped.putInt(H_ACTIVE_SEGMENT, activeSegment);
+        mapped.putInt(H_FIRST_SEGMENT, segments.isEmpty() ? activeSegment : segments.firstKey());
+        mapped.putLong(H_ACTIVE_LENGTH, activeLength);
+        mapped.force();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (indexChannel != null) {
+            indexChannel.close();
+        }
+        indexChannel = channel;
+        index = mapped;
+        capacity = newCapacity;
+        count = 0;
+    }
+
+    /**
+     * Rebuilds the index with the given capacity, keeping the entries of the segments
+     * that still exist.
+     */
+    private void rehash(int newCapacity) throws IOException {
+        MappedByteBuffer old = index;
+        int oldCapacity = capacity;
+        FileChannel oldChannel = indexChannel;
+        indexChannel = null; // Kept open until the entries are copied
+        createIndex(newCapacity);
+
+        byte[] key = new byte[KEY_BYTES];
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int base = HEADER_BYTES + slot * SLOT_BYTES;
+            int segment = old.getInt(base + S_SEGMENT);
+            if (segment != 0 && segments.containsKey(segment)) {
+                old.get(base, key);
+                insert(key, segment, old.getInt(base + S_OFFSET), old.getInt(base + S_LENGTH));
+            }
+        }
+        oldChannel.close();
+    }
+
+    private void startSegment(int id) throws IOException {
+        Path file = directory.resolve(String.format("segment-%08d.log", id));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(id, channel);
+        activeSegment = id;
+        activeLength = 0;
+        index.putInt(H_ACTIVE_SEGMENT, id);
+        index.putLong(H_ACTIVE_LENGTH, 0);
+    }
+
+    /**
+     * Deletes the oldest segments until the total size is within bounds, always
+     * keeping the active one, and drops their entries from the index.
+     */
+    private void compact() throws IOException {
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Map.Entry<Integer, FileChannel> oldest = segments.pollFirstEntry();
+            totalBytes -= oldest.getValue().size();
+            oldest.getValue().close();
+            Files.deleteIfExists(directory.resolve(String.format("segment-%08d.log", oldest.getKey())));
+        }
+        rehash(capacity);
+        index.putInt(H_FIRST_SEGMENT, segments.firstKey());
+    }
+
+    /**
+     * Indexes the records of a segment from {@code offset} on. A damaged or incomplete
+     * record ends the segment: the active segment is truncated there, so new records
+     * are appended after the last good one.
+     */
+    private void scan(int id, FileChannel channel, long offset) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        byte[] key = new byte[KEY_BYTES];
+
+        while (offset + RECORD_OVERHEAD <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt(4 + KEY_BYTES);
+            if (header.getInt(0) != RECORD_MAGIC || length < 0 || offset + RECORD_OVERHEAD + length > size) {
+                break;
+            }
+            header.get(4, key);
+            if (readRecord(channel, (int) offset, length, key) == null) {
+                break;
+            }
+            int slot = find(key);
+            if (slot >= 0) {
+                update(slot, id, (int) offset, length);
+            } else {
+                insert(key, id, (int) offset, length);
+            }
+            offset += RECORD_OVERHEAD + length;
+        }
+
+        if (offset < size && id == segments.lastKey()) {
+            totalBytes -= size - offset;
+            channel.truncate(offset);
+        }
+    }
+
+    private static ByteBuffer encodeRecord(byte[] key, byte[] value) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + value.length);
+        record.putInt(RECORD_MAGIC).put(key).putInt(value.length).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, KEY_BYTES + 4 + value.length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Reads and checks a record. Returns null if it is damaged or belongs to another key.
+     */
+    private static byte[] readRecord(FileChannel channel, int offset, int length, byte[] key) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + length);
+        if (!readFully(channel, record, offset)) {
+            return null;
+        }
+        byte[] bytes = record.array();
+        if (record.getInt(0) != RECORD_MAGIC || record.getInt(4 + KEY_BYTES) != length
+                || !Arrays.equals(bytes, 4, 4 + KEY_BYTES, key, 0, KEY_BYTES)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 4, KEY_BYTES + 4 + length);
+        if (record.getInt(RECORD_HEADER + length) != (int) crc.getValue()) {
+            return null;
+        }
+        return Arrays.copyOfRange(bytes, RECORD_HEADER, RECORD_HEADER + length);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot holding the key, or {@code -(slot + 1)} for the empty slot
+     * where it would be inserted. Keys are content hashes, so their first bytes are
+     * already uniformly distributed.
+     */
+    private int find(byte[] key) {
+        ByteBuffer wrapped = ByteBuffer.wrap(key);
+        int mask = capacity - 1;
+        int slot = wrapped.getInt(0) & mask;
+        while (true) {
+            int base = HEADER_BYTES + slot * SLOT_BYTES;
+            if (index.getInt(base + S_SEGMENT) == 0) {
+                return -(slot + 1);
+            }
+            if (index.getLong(base) == wrapped.getLong(0)
+                    && index.getLong(base + 8) == wrapped.getLong(8)
+                    && index.getLong(base + 16) == wrapped.getLong(16)
+                    && index.getLong(base + 24) == wrapped.getLong(24)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(byte[] key, int segment, int offset, int length) throws IOException {
+        if ((count + 1) * 2L > capacity) {
+            rehash(capacity * 2);
+        }
+        int slot = -(find(key) + 1);
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        index.put(base, key);
+        index.putInt(base + S_OFFSET, offset);
+        index.putInt(base + S_LENGTH, length);
+        // The segment is written last: it marks the slot as used
+        index.putInt(base + S_SEGMENT, segment);
+        index.putInt(H_COUNT, ++count);
+    }
+
+    private void update(int slot, int segment, int offset, int length) {
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        index.putInt(base + S_SEGMENT, segment);
+        index.putInt(base + S_OFFSET, offset);
+        index.putInt(base + S_LENGTH, length);
+    }
+}
@@ -0,0 +1,528 @@
+package compiladores.GCOD.earley;
+
+import compiladores.GCOD.FirstFollow.Grammar;
+import compiladores.GCOD.FirstFollow.NonTerminal;
+import compiladores.GCOD.FirstFollow.Production;
+import compiladores.GCOD.FirstFollow.Symbol;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parser for any context-free grammar, including ambiguous, left- or right-recursive
+ * grammars and grammars with empty productions, based on Earley's algorithm.
+ *
+ * The grammar is compiled once into flat arrays: every production with its dot at
+ * each position is an item, numbered so that advancing the dot is adding one. The
+ * chart holds one entry per item, origin and position, in arrays shared by all
+ * positions. Predictions at a position are deduplicated with a bit set of the
+ * non-terminals already predicted there, the other entries with a hash table of
+ * (item, origin) keys that is cleared for each position. Empty productions are
+ * handled as described by Aycock and Horspool: an item waiting on a nullable
+ * non-terminal is advanced over it as soon as it is added. Right recursion is kept
+ * linear with Leo's optimization: where completing a non-terminal can only complete
+ * the single item waiting on it, and so on up a chain, only the item at the top of
+ * the chain is added, and the chain is memoized per position and non-terminal.
+ *
+ * Every entry records how it was reached, as pairs of the entry it was advanced
+ * from and the token or completed entry it was advanced over. Once the input is
+ * accepted these back pointers are turned into a binarized shared packed parse
+ * forest, in which each symbol or production prefix over a span is one node, so
+ * the forest stays polynomial in size even when the number of parse trees is not.
+ * The nodes skipped by Leo chains are restored at that point, and only for the part
+ * of the chart the forest actually uses.
+ *
+ * A parser can be shared by any number of threads.
+ */
+public class EarleyParser {
+
+    // Item that has nothing after the dot
+    private static final int COMPLETE = Integer.MIN_VALUE;
+    // Back pointer child of an entry advanced over a token
+    private static final int SCANNED = -1;
+    // Back pointer child of an entry added at the top of a Leo chain
+    private static final int LEO = Integer.MIN_VALUE;
+
+    private final NonTerminal start;
+    private final List<Symbol> terminals = new ArrayList<>();
+    private final Map<String, Integer> terminalIds = new HashMap<>();
+    private final List<NonTerminal> nonTerminals = new ArrayList<>();
+    private final Map<Symbol, Integer> nonTerminalIds = new HashMap<>();
+    private final List<Production> productions = new ArrayList<>();
+
+    // Per item: its production, the position of the dot, and the symbol after the dot,
+    // as a non-terminal id, ~terminal id, or COMPLETE
+    private final int[] itemProduction;
+    private final int[] itemDot;
+    private final int[] itemNext;
+    // Per production: its left side
+    private final int[] productionLhs;
+    // Per non-terminal: the items with the dot at the start of each of its productions
+    private final int[][] predictions;
+    private final BitSet nullable = new BitSet();
+
+    public EarleyParser(Grammar grammar) {
+        this.start = grammar.getStartSymbol();
+        nonTerminals.add(start);
+        for (NonTerminal nonTerminal : grammar.getNonTerminals()) {
+            if (!nonTerminal.equals(start)) {
+                nonTerminals.add(nonTerminal);
+            }
+        }
+        int itemCount = 0;
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            nonTerminalIds.put(nonTerminals.get(i), i);
+            for (Production production : nonTerminals.get(i).getProductions()) {
+                productions.add(production);
+                itemCount += production.getSymbols().size() + 1;
+                for (Symbol symbol : production.getSymbols()) {
+                    if (symbol.isTerminal() && !terminalIds.containsKey(symbol.getName())) {
+                        terminalIds.put(symbol.getName(), terminals.size());
+                        terminals.add(symbol);
+                    }
+                }
+            }
+        }
+
+        itemProduction = new int[itemCount];
+        itemDot = new int[itemCount];
+        itemNext = new int[itemCount];
+        productionLhs = new int[productions.size()];
+        predictions = new int[nonTerminals.size()][];
+        int item = 0;
+        int p = 0;
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            List<Production> alternatives = nonTerminals.get(i).getProductions();
+            predictions[i] = new int[alternatives.size()];
+            for (int a = 0; a < alternatives.size(); a++, p++) {
+                List<Symbol> symbols = alternatives.get(a).getSymbols();
+                productionLhs[p] = i;
+                predictions[i][a] = item;
+                for (int dot = 0; dot <= symbols.size(); dot++, item++) {
+                    itemProduction[item] = p;
+                    itemDot[item] = dot;
+                    if (dot == symbols.size()) {
+                        itemNext[item] = COMPLETE;
+                    } else {
+                        Symbol symbol = symbols.get(dot);
+                        itemNext[item] = symbol.isTerminal()
+                                ? ~terminalIds.get(symbol.getName()) : nonTerminalIds.get(symbol);
+                    }
+                }
+            }
+        }
+        calculateNullable();
+    }
+
+    private void calculateNullable() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < productions.size(); p++) {
+                if (nullable.get(productionLhs[p])) {
+                    continue;
+                }
+                boolean empty = true;
+                for (Symbol symbol : productions.get(p).getSymbols()) {
+                    if (symbol.isTerminal() || !nullable.get(nonTerminalIds.get(symbol))) {
+                        empty = false;
+                        break;
+                    }
+                }
+                if (empty) {
+                    nullable.set(productionLhs[p]);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses a sequence of terminals, given by name. A name that is not a terminal of
+     * the grammar never matches.
+     *
+     * @param input the names of the terminals, in order
+     * @return the forest of all derivations, or the position of the error
+     */
+    public ParseForest parse(List<String> input) {
+        int[] tokens = new int[input.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = terminalIds.getOrDefault(input.get(i), -1);
+        }
+        return new Chart(tokens).parse();
+    }
+
+    /**
+     * The state of one parse.
+     */
+    private final class Chart {
+        private final int[] tokens;
+        private final int n;
+
+        // Entries, grouped by position: those at position j are setStart[j] until setStart[j + 1]
+        private int[] entryItem = new int[1024];
+        private int[] entryOrigin = new int[1024];
+        private int[] entryBackPointer = new int[1024];
+        private int[] entryChain = new int[1024];
+        private int size;
+        private final int[] setStart;
+
+        // Back pointers, as singly linked lists per entry
+        private int[] pointerPredecessor = new int[1024];
+        private int[] pointerChild = new int[1024];
+        private int[] pointerNext = new int[1024];
+        private int pointers;
+
+        // (item, origin) to entry, at the current position
+        private final LongIntTable seen = new LongIntTable(64);
+        private final BitSet predicted = new BitSet();
+        // (position, non-terminal) to the last entry there waiting on it, chained by entryChain;
+        // (position, origin, non-terminal) to the last complete entry, chained the same way
+        private final LongIntTable waiting = new LongIntTable(1024);
+        private final LongIntTable completed = new LongIntTable(1024);
+
+        // (position, non-terminal) to its Leo chain, 0 if there is none. A chain is the single
+        // entry waiting on the non-terminal there, whose next symbol is also its last, and the
+        // item and origin completed at the top of the chain; -1 while the top is not known yet.
+        private final LongIntTable leo = new LongIntTable(64);
+        private int[] leoLink = new int[64];
+        private int[] leoTopItem = new int[64];
+        private int[] leoTopOrigin = new int[64];
+        private int leoCount = 1;
+        private int[] leoPath = new int[16];
+
+        private final List<ForestNode> nodes = new ArrayList<>();
+        private final Map<Long, ForestNode> symbolNodes = new HashMap<>();
+        private final Map<Integer, ForestNode> intermediateNodes = new HashMap<>();
+        private final Deque<ForestNode> pending = new ArrayDeque<>();
+        // Per node id: the entry an intermediate node stands for
+        private int[] nodeEntry = new int[256];
+        private int[] entryEnd;
+
+        Chart(int[] tokens) {
+            this.tokens = tokens;
+            this.n = tokens.length;
+            this.setStart = new int[n + 2];
+        }
+
+        ParseForest parse() {
+            predict(0, 0);
+            int[] scanned = new int[16];
+            for (int j = 0; ; j++) {
+                int scannedCount = 0;
+                for (int e = setStart[j]; e < size; e++) {
+                    int item = entryItem[e];
+                    int origin = entryOrigin[e];
+                    int next = itemNext[item];
+                    if (next == COMPLETE) {
+                        // Completions over an empty span were made when the item was predicted
+                        if (origin != j) {
+                            int lhs = productionLhs[itemProduction[item]];
+                            int chain = leoChain(origin, lhs);
+                            if (chain != 0) {
+                                addPointer(entryAt(leoTopItem[chain], leoTopOrigin[chain], j), e, LEO);
+                            } else {
+                                for (int w = waiting.get(key(origin, lhs)); w >= 0; w = entryChain[w]) {
+                                    advance(w, e, j);
+                                }
+                            }
+                        }
+                    } else if (next >= 0) {
+                        predict(next, j);
+                        if (nullable.get(next)) {
+                            advance(e, -2 - next, j);
+                        }
+                    } else if (j < n && tokens[j] == ~next) {
+                        if (scannedCount == scanned.length) {
+                            scanned = Arrays.copyOf(scanned, scannedCount * 2);
+                        }
+                        scanned[scannedCount++] = e;
+                    }
+                }
+                setStart[j + 1] = size;
+
+                if (j == n || scannedCount == 0) {
+                    return finish(j);
+                }
+                seen.clear();
+                predicted.clear();
+                for (int s = 0; s < scannedCount; s++) {
+                    int e = scanned[s];
+                    int entry = add(entryItem[e] + 1, entryOrigin[e], j + 1);
+                    addPointer(entry, e, SCANNED);
+                }
+            }
+        }
+
+        private void predict(int nonTerminal, int j) {
+            if (predicted.get(nonTerminal)) {
+                return;
+            }
+            predicted.set(nonTerminal);
+            for (int item : predictions[nonTerminal]) {
+                add(item, j, j);
+            }
+        }
+
+        /**
+         * Adds the item after entry {@code from} at position {@code j}, if it is not there
+         * yet, and records that it was reached over {@code child}.
+         */
+        private void advance(int from, int child, int j) {
+            addPointer(entryAt(entryItem[from] + 1, entryOrigin[from], j), from, child);
+        }
+
+        /**
+         * Returns the entry for {@code item} and {@code origin} at the current position
+         * {@code j}, adding it if it is not there yet.
+         */
+        private int entryAt(int item, int origin, int j) {
+            long key = ((long) item << 32) | origin;
+            int entry = seen.get(key);
+            if (entry == LongIntTable.MISSING) {
+                entry = add(item, origin, j);
+                seen.put(key, entry);
+            }
+            return entry;
+        }
+
+        /**
+         * Returns the Leo chain for completing {@code nonTerminal} from position
+         * {@code i}, or 0 if completing it can advance more than one item, or one that is
+         * not complete afterwards. The chain is followed down iteratively, and every link
+         * found on the way is memoized with the same top.
+         */
+        private int leoChain(int i, int nonTerminal) {
+            int depth = 0;
+            int found;
+            while (true) {
+                long key = key(i, nonTerminal);
+                found = leo.get(key);
+                if (found != LongIntTable.MISSING) {
+                    // A link whose top is still unknown is part of a cycle of unit productions
+                    if (found != 0 && leoTopItem[found] < 0) {
+                        found = 0;
+                    }
+                    break;
+                }
+                int w = waiting.get(key);
+                // A chain never goes past the start symbol from position 0: that completion
+                // must be in the chart, as it is what accepts the input
+                if (w < 0 || entryChain[w] >= 0 || itemNext[entryItem[w] + 1] != COMPLETE
+                        || (i == 0 && nonTerminal == 0)) {
+                    leo.put(key, 0);
+                    found = 0;
+                    break;
+                }
+                if (leoCount == leoLink.length) {
+                    leoLink = Arrays.copyOf(leoLink, leoCount * 2);
+                    leoTopItem = Arrays.copyOf(leoTopItem, leoCount * 2);
+                    leoTopOrigin = Arrays.copyOf(leoTopOrigin, leoCount * 2);
+                }
+                int chain = leoCount++;
+                leoLink[chain] = w;
+                leoTopItem[chain] = -1;
+                leo.put(key, chain);
+                if (depth == leoPath.length) {
+                    leoPath = Arrays.copyOf(leoPath, depth * 2);
+                }
+                leoPath[depth++] = chain;
+                i = entryOrigin[w];
+                nonTerminal = productionLhs[itemProduction[entryItem[w]]];
+            }
+            while (depth > 0) {
+                int chain = leoPath[--depth];
+                if (found != 0) {
+                    leoTopItem[chain] = leoTopItem[found];
+                    leoTopOrigin[chain] = leoTopOrigin[found];
+                } else {
+                    leoTopItem[chain] = entryItem[leoLink[chain]] + 1;
+                    leoTopOrigin[chain] = entryOrigin[leoLink[chain]];
+                }
+                found = chain;
+            }
+            return found;
+        }
+
+        private int add(int item, int origin, int j) {
+            if (size == entryItem.length) {
+                entryItem = Arrays.copyOf(entryItem, size * 2);
+                entryOrigin = Arrays.copyOf(entryOrigin, size * 2);
+                entryBackPointer = Arrays.copyOf(entryBackPointer, size * 2);
+                entryChain = Arrays.copyOf(entryChain, size * 2);
+            }
+            int entry = size++;
+            entryItem[entry] = item;
+            entryOrigin[entry] = origin;
+            entryBackPointer[entry] = -1;
+            entryChain[entry] = -1;
+            int next = itemNext[item];
+            if (next >= 0) {
+                int previous = waiting.put(key(j, next), entry);
+                entryChain[entry] = previous;
+            } else if (next == COMPLETE) {
+                int previous = completed.put(key(j, (long) origin * nonTerminals.size()
+                        + productionLhs[itemProduction[item]]), entry);
+                entryChain[entry] = previous;
+            }
+            return entry;
+        }
+
+        private void addPointer(int entry, int predecessor, int child) {
+            if (pointers == pointerPredecessor.length) {
+                pointerPredecessor = Arrays.copyOf(pointerPredecessor, pointers * 2);
+                pointerChild = Arrays.copyOf(pointerChild, pointers * 2);
+                pointerNext = Arrays.copyOf(pointerNext, pointers * 2);
+            }
+            pointerPredecessor[pointers] = predecessor;
+            pointerChild[pointers] = child;
+            pointerNext[pointers] = entryBackPointer[entry];
+            entryBackPointer[entry] = pointers++;
+        }
+
+        private long key(int position, long value) {
+            return (long) position * nonTerminals.size() * (n + 1) + value;
+        }
+
+        private ParseForest finish(int j) {
+            // The start symbol is non-terminal 0, so this is the first complete one over the whole input
+            boolean accepted = j == n && completed.get(key(n, 0)) >= 0;
+            if (!accepted) {
+                BitSet expected = new BitSet();
+                for (int e = setStart[j]; e < setStart[j + 1]; e++) {
+                    int next = itemNext[entryItem[e]];
+                    if (next != COMPLETE && next < 0) {
+                        expected.set(~next);
+                    }
+                }
+                List<Symbol> names = new ArrayList<>();
+                for (int t = expected.nextSetBit(0); t >= 0; t = expected.nextSetBit(t + 1)) {
+                    names.add(terminals.get(t));
+                }
+                return new ParseForest(null, 0, size, j, names);
+            }
+
+            entryEnd = new int[size];
+            for (int position = 0; position <= n; position++) {
+                Arrays.fill(entryEnd, setStart[position], setStart[position + 1], position);
+            }
+            ForestNode root = symbolNode(start, 0, n);
+            while (!pending.isEmpty()) {
+                ForestNode node = pending.pop();
+                if (node.isIntermediate()) {
+                    addPackedNodes(node, nodeEntry[node.getId()]);
+                } else {
+                    int lhs = nonTerminalIds.get(node.getSymbol());
+                    long completeKey = key(node.getEnd(), (long) node.getStart() * nonTerminals.size() + lhs);
+                    for (int e = completed.get(completeKey); e >= 0; e = entryChain[e]) {
+                        addPackedNodes(node, e);
+                    }
+                }
+            }
+            return new ParseForest(root, nodes.size(), size, -1, List.of());
+        }
+
+        private void addPackedNodes(ForestNode node, int entry) {
+            int item = entryItem[entry];
+            Production production = productions.get(itemProduction[item]);
+            int dot = itemDot[item];
+            if (dot == 0) {
+                node.addPacked(production, null, null);
+                return;
+            }
+            List<Symbol> symbols = production.getSymbols();
+            int end = entryEnd[entry];
+            for (int p = entryBackPointer[entry]; p >= 0; p = pointerNext[p]) {
+                int predecessor = pointerPredecessor[p];
+                int child = pointerChild[p];
+                if (child == LEO) {
+                    addLeoChain(predecessor, end);
+                    continue;
+                }
+                int split = child == SCANNED ? end - 1 : child < 0 ? end : entryOrigin[child];
+                addPacked(node, production, dot, entryOrigin[entry], predecessor, split,
+                        symbolNode(symbols.get(dot - 1), split, end));
+            }
+        }
+
+        /**
+         * Adds the packed nodes of every link of the Leo chain that entry {@code completed}
+         * started, from the non-terminal it completes up to the top of the chain.
+         */
+        private void addLeoChain(int completed, int end) {
+            int i = entryOrigin[completed];
+            int nonTerminal = productionLhs[itemProduction[entryItem[completed]]];
+            ForestNode child = symbolNode(nonTerminals.get(nonTerminal), i, end);
+            while (true) {
+                int chain = leo.get(key(i, nonTerminal));
+                int w = leoLink[chain];
+                int item = entryItem[w] + 1;
+                int origin = entryOrigin[w];
+                nonTerminal = productionLhs[itemProduction[item]];
+                ForestNode parent = symbolNode(nonTerminals.get(nonTerminal), origin, end);
+                addPacked(parent, productions.get(itemProduction[item]), itemDot[item], origin, w, i, child);
+                if (item == leoTopItem[chain] && origin == leoTopOrigin[chain]) {
+                    return;
+                }
+                child = parent;
+                i = origin;
+            }
+        }
+
+        /**
+         * Adds to {@code node} the packed node of the first {@code dot} symbols of
+         * {@code production} from {@code origin} to the end of {@code right}, the node of
+         * the last of them, which starts at {@code split}. The symbols before it are those
+         * of entry {@code predecessor}.
+         */
+        private void addPacked(ForestNode node, Production production, int dot, int origin, int predecessor,
+                               int split, ForestNode right) {
+            ForestNode left;
+            if (dot == 1) {
+                left = null;
+            } else if (dot == 2) {
+                left = symbolNode(production.getSymbols().get(0), origin, split);
+            } else {
+                left = intermediateNode(predecessor, production, dot - 1, split);
+            }
+            node.addPacked(production, left, right);
+        }
+
+        private ForestNode symbolNode(Symbol symbol, int from, int to) {
+            int id = symbol.isTerminal() ? nonTerminals.size() + terminalIds.get(symbol.getName())
+                    : nonTerminalIds.get(symbol);
+            long key = ((long) to * (n + 1) + from) * (nonTerminals.size() + terminals.size()) + id;
+            ForestNode node = symbolNodes.get(key);
+            if (node == null) {
+                node = new ForestNode(nodes.size(), symbol, null, 0, from, to);
+                nodes.add(node);
+                symbolNodes.put(key, node);
+                if (!symbol.isTerminal()) {
+                    pending.push(node);
+                }
+            }
+            return node;
+        }
+
+        private ForestNode intermediateNode(int entry, Production production, int dot, int to) {
+            ForestNode node = intermediateNodes.get(entry);
+            if (node == null) {
+                node = new ForestNode(nodes.size(), null, production, dot, entryOrigin[entry], to);
+                if (node.getId() >= nodeEntry.length) {
+                    nodeEntry = Arrays.copyOf(nodeEntry, Math.max(nodeEntry.length * 2, node.getId() + 1));
+                }
+                nodeEntry[node.getId()] = entry;
+                nodes.add(node);
+                intermediateNodes.put(entry, node);
+                pending.push(node);
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package compiladores.GCOD.earley;
+
+import compiladores.GCOD.FirstFollow.Production;
+import compiladores.GCOD.FirstFollow.Symbol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A node of a shared packed parse forest: a symbol, or a prefix of a production,
+ * spanning the tokens from {@code start} (inclusive) to {@code end} (exclusive).
+ *
+ * There is one node per label and span, however many derivations use it. A node
+ * with more than one {@link PackedNode} is ambiguous: each packed node is one way of
+ * deriving it. Terminal nodes have no packed nodes.
+ */
+public final class ForestNode {
+    // Packed nodes are looked up by a scan up to this many, and by a set beyond
+    private static final int SCAN_LIMIT = 8;
+
+    private final int id;
+    private final Symbol symbol;
+    private final Production production;
+    private final int dot;
+    private final int start;
+    private final int end;
+    private final List<PackedNode> packedNodes = new ArrayList<>(1);
+    private Set<PackedKey> packedKeys;
+
+    ForestNode(int id, Symbol symbol, Production production, int dot, int start, int end) {
+        this.id = id;
+        this.symbol = symbol;
+        this.production = production;
+        this.dot = dot;
+        this.start = start;
+        this.end = end;
+    }
+
+    void addPacked(Production production, ForestNode left, ForestNode right) {
+        if (packedKeys != null) {
+            if (packedKeys.add(new PackedKey(production, left, right))) {
+                packedNodes.add(new PackedNode(production, left, right));
+            }
+            return;
+        }
+        for (PackedNode packed : packedNodes) {
+            if (packed.getProduction() == production && packed.getLeft() == left && packed.getRight() == right) {
+                return;
+            }
+        }
+        packedNodes.add(new PackedNode(production, left, right));
+        if (packedNodes.size() > SCAN_LIMIT) {
+            // Highly ambiguous node: scanning every derivation would make the forest quartic
+            packedKeys = new HashSet<>();
+            for (PackedNode packed : packedNodes) {
+                packedKeys.add(new PackedKey(packed.getProduction(), packed.getLeft(), packed.getRight()));
+            }
+        }
+    }
+
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the symbol of this node, or null for an intermediate node.
+     */
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the production whose first {@link #getDot()} symbols an intermediate
+     * node derives, or null for a symbol node.
+     */
+    public Production getProduction() {
+        return production;
+    }
+
+    public int getDot() {
+        return dot;
+    }
+
+    public boolean isIntermediate() {
+        return symbol == null;
+    }
+
+    public boolean isTerminal() {
+        return symbol != null && symbol.isTerminal();
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public List<PackedNode> getPackedNodes() {
+        return Collections.unmodifiableList(packedNodes);
+    }
+
+    public boolean isAmbiguous() {
+        return packedNodes.size() > 1;
+    }
+
+    @Override
+    public String toString() {
+        String label;
+        if (symbol != null) {
+            label = symbol.getName();
+        } else {
+            List<String> names = new ArrayList<>();
+            for (Symbol s : production.getSymbols()) {
+                names.add(s.getName());
+            }
+            names.add(dot, "•");
+            label = String.join(" ", names);
+        }
+        return "(" + label + ", " + start + ", " + end + ")";
+    }
+
+    /**
+     * Key of a packed node: its production plus the ids of its children.
+     */
+    private static final class PackedKey {
+        private final Production production;
+        private final int left;
+        private final int right;
+
+        PackedKey(Production production, ForestNode left, ForestNode right) {
+            this.production = production;
+            this.left = left == null ? -1 : left.id;
+            this.right = right == null ? -1 : right.id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof PackedKey)) return false;
+            PackedKey other = (PackedKey) obj;
+            return left == other.left && right == other.right && production == other.production;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(production) * 31 + left) * 31 + right;
+        }
+    }
+}
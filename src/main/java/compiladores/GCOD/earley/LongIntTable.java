@@ -0,0 +1,92 @@
+package compiladores.GCOD.earley;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from {@code long} keys to non-negative {@code int}
+ * values, without boxing.
+ *
+ * Clearing only bumps a generation counter, so a table that is cleared once per
+ * Earley set costs nothing in proportion to its capacity.
+ */
+final class LongIntTable {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int[] generations;
+    private int generation = 1;
+    private int size;
+
+    LongIntTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        generations = new int[capacity];
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; generations[slot] == generation; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps {@code key} to {@code value} and returns the value it had, or {@link #MISSING}.
+     */
+    int put(long key, int value) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (generations[slot] == generation) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        generations[slot] = generation;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return MISSING;
+    }
+
+    void clear() {
+        size = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldGenerations = generations;
+        int oldGeneration = generation;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        generations = new int[oldKeys.length * 2];
+        generation = 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] == oldGeneration) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
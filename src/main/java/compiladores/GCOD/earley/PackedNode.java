@@ -0,0 +1,35 @@
+package compiladores.GCOD.earley;
+
+import compiladores.GCOD.FirstFollow.Production;
+
+/**
+ * One way of deriving a {@link ForestNode}: a production and the split point of its span.
+ *
+ * The forest is binarized, so a packed node has at most two children. The right one
+ * is the node of the last symbol derived so far; the left one covers the symbols
+ * before it, and is either the node of the first symbol, an intermediate node, or
+ * null when there is only one symbol. Both are null for an empty production.
+ */
+public final class PackedNode {
+    private final Production production;
+    private final ForestNode left;
+    private final ForestNode right;
+
+    PackedNode(Production production, ForestNode left, ForestNode right) {
+        this.production = production;
+        this.left = left;
+        this.right = right;
+    }
+
+    public Production getProduction() {
+        return production;
+    }
+
+    public ForestNode getLeft() {
+        return left;
+    }
+
+    public ForestNode getRight() {
+        return right;
+    }
+}
@@ -0,0 +1,131 @@
+package compiladores.GCOD.earley;
+
+import compiladores.GCOD.FirstFollow.Symbol;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The result of an {@link EarleyParser} run: the shared packed parse forest of every
+ * derivation of the input, or where the input stopped matching the grammar.
+ */
+public final class ParseForest {
+    private final ForestNode root;
+    private final int nodeCount;
+    private final int chartSize;
+    private final int errorPosition;
+    private final List<Symbol> expected;
+
+    ParseForest(ForestNode root, int nodeCount, int chartSize, int errorPosition, List<Symbol> expected) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+        this.chartSize = chartSize;
+        this.errorPosition = errorPosition;
+        this.expected = expected;
+    }
+
+    public boolean isSuccess() {
+        return root != null;
+    }
+
+    /**
+     * Returns the node of the start symbol spanning the whole input, or null if the
+     * input is not a sentence of the grammar.
+     */
+    public ForestNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the number of nodes in the forest, terminal and intermediate ones included.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of Earley items the chart held.
+     */
+    public int getChartSize() {
+        return chartSize;
+    }
+
+    /**
+     * Returns the index of the first token that could not be matched, which is the
+     * number of tokens if the input ended too early, or -1 on success.
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * Returns the terminals that could have appeared at {@link #getErrorPosition()},
+     * or an empty list on success or if only the end of input could have.
+     */
+    public List<Symbol> getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the number of distinct parse trees in the forest, or
+     * {@code Long.MAX_VALUE} if there are at least that many, or infinitely many
+     * because the grammar has cycles. Returns 0 if the parse failed.
+     */
+    public long countTrees() {
+        if (root == null) {
+            return 0;
+        }
+        // 0 = not seen, 1 = children pending, 2 = counted
+        byte[] state = new byte[nodeCount];
+        long[] counts = new long[nodeCount];
+        Deque<ForestNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ForestNode node = stack.peek();
+            int id = node.getId();
+            if (state[id] == 2) {
+                stack.pop();
+                continue;
+            }
+            if (state[id] == 0) {
+                state[id] = 1;
+                for (PackedNode packed : node.getPackedNodes()) {
+                    for (ForestNode child : new ForestNode[] {packed.getLeft(), packed.getRight()}) {
+                        if (child == null) {
+                            continue;
+                        }
+                        if (state[child.getId()] == 1) {
+                            return Long.MAX_VALUE;
+                        }
+                        if (state[child.getId()] == 0) {
+                            stack.push(child);
+                        }
+                    }
+                }
+                continue;
+            }
+            stack.pop();
+            long count = node.isTerminal() ? 1 : 0;
+            for (PackedNode packed : node.getPackedNodes()) {
+                long left = packed.getLeft() == null ? 1 : counts[packed.getLeft().getId()];
+                long right = packed.getRight() == null ? 1 : counts[packed.getRight().getId()];
+                count = saturatedAdd(count, saturatedMultiply(left, right));
+            }
+            counts[id] = count;
+            state[id] = 2;
+        }
+        return counts[root.getId()];
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+}
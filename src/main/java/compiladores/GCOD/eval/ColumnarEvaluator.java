@@ -0,0 +1,194 @@
+package compiladores.GCOD.eval;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates one expression over many rows stored column by column.
+ *
+ * Each variable is a {@code long[]} column and the result is written to an output
+ * column. Rows are processed in blocks of {@link #BLOCK_ROWS}: for every operator of
+ * the postfix program a tight loop combines two column blocks, so the work per row is
+ * a handful of array reads and one arithmetic instruction, which the JIT unrolls and
+ * vectorizes where it can. Blocks keep the intermediate columns small enough to stay
+ * in cache. Large inputs can be split into row ranges evaluated on a {@link ForkJoinPool}.
+ *
+ * Arithmetic follows Java {@code long} semantics, as in {@link CompiledFormula}.
+ */
+public class ColumnarEvaluator {
+    static final int BLOCK_ROWS = 4096;
+
+    // Row ranges at or below this size are evaluated by a single task
+    private static final int ROWS_PER_TASK = 64 * BLOCK_ROWS;
+
+    private final Postfix postfix;
+    private final int maxStack;
+
+    public ColumnarEvaluator(ExpressionNode expression) {
+        this.postfix = Postfix.of(expression);
+        this.maxStack = postfix.maxStack();
+    }
+
+    /**
+     * Returns the variables in slot order, i.e. the order columns are expected in.
+     */
+    public List<String> getVariables() {
+        return postfix.variables;
+    }
+
+    /**
+     * Evaluates the expression for every row, taking the columns by variable name.
+     *
+     * @param columns one column per variable
+     * @param out the output column; its length is the number of rows
+     */
+    public void evaluate(Map<String, long[]> columns, long[] out) {
+        evaluate(columnsBySlot(columns), out);
+    }
+
+    /**
+     * Evaluates the expression for every row on the calling thread.
+     *
+     * @param columns one column per variable, in the order of {@link #getVariables()}
+     * @param out the output column; its length is the number of rows
+     */
+    public void evaluate(long[][] columns, long[] out) {
+        checkColumns(columns, out);
+        evaluateRange(columns, out, 0, out.length, new long[maxStack][BLOCK_ROWS]);
+    }
+
+    /**
+     * Evaluates the expression for every row, splitting the rows across the pool.
+     *
+     * @param columns one column per variable, in the order of {@link #getVariables()}
+     * @param out the output column; its length is the number of rows
+     * @param pool the pool the row ranges are evaluated on
+     */
+    public void evaluateParallel(long[][] columns, long[] out, ForkJoinPool pool) {
+        checkColumns(columns, out);
+        pool.invoke(new RangeTask(columns, out, 0, out.length));
+    }
+
+    private long[][] columnsBySlot(Map<String, long[]> columns) {
+        long[][] bySlot = new long[postfix.variables.size()][];
+        for (int slot = 0; slot < bySlot.length; slot++) {
+            String variable = postfix.variables.get(slot);
+            bySlot[slot] = columns.get(variable);
+            if (bySlot[slot] == null) {
+                throw new IllegalArgumentException("No column for variable: " + variable);
+            }
+        }
+        return bySlot;
+    }
+
+    private void checkColumns(long[][] columns, long[] out) {
+        if (columns.length < postfix.variables.size()) {
+            throw new IllegalArgumentException("Expected " + postfix.variables.size()
+                    + " columns, got " + columns.length);
+        }
+        for (int slot = 0; slot < postfix.variables.size(); slot++) {
+            if (columns[slot].length < out.length) {
+                throw new IllegalArgumentException("Column " + postfix.variables.get(slot)
+                        + " has " + columns[slot].length + " rows, expected " + out.length);
+            }
+        }
+    }
+
+    /**
+     * Evaluates rows [from, to) block by block. {@code scratch} holds one block per
+     * operand stack position.
+     */
+    private void evaluateRange(long[][] columns, long[] out, int from, int to, long[][] scratch) {
+        byte[] ops = postfix.ops;
+        int[] slots = postfix.slots;
+        // Stack entry k is either an input column read at stackOffset[k], or scratch[k] read from 0
+        long[][] stack = new long[maxStack][];
+        int[] stackOffset = new int[maxStack];
+
+        for (int blockStart = from; blockStart < to; blockStart += BLOCK_ROWS) {
+            int rows = Math.min(BLOCK_ROWS, to - blockStart);
+            int top = -1;
+
+            for (int i = 0; i < ops.length; i++) {
+                if (ops[i] == Postfix.LOAD) {
+                    top++;
+                    stack[top] = columns[slots[i]];
+                    stackOffset[top] = blockStart;
+                    continue;
+                }
+                if (ops[i] == Postfix.CONST) {
+                    top++;
+                    Arrays.fill(scratch[top], 0, rows, postfix.constants[i]);
+                    stack[top] = scratch[top];
+                    stackOffset[top] = 0;
+                    continue;
+                }
+
+                long[] left = stack[top - 1];
+                int leftOffset = stackOffset[top - 1];
+                long[] right = stack[top];
+                int rightOffset = stackOffset[top];
+                long[] result = scratch[top - 1];
+
+                switch (ops[i]) {
+                    case Postfix.ADD:
+                        for (int r = 0; r < rows; r++) {
+                            result[r] = left[leftOffset + r] + right[rightOffset + r];
+                        }
+                        break;
+                    case Postfix.SUB:
+                        for (int r = 0; r < rows; r++) {
+                            result[r] = left[leftOffset + r] - right[rightOffset + r];
+                        }
+                        break;
+                    case Postfix.SHL:
+                        for (int r = 0; r < rows; r++) {
+                            result[r] = left[leftOffset + r] << right[rightOffset + r];
+                        }
+                        break;
+                    default:
+                        for (int r = 0; r < rows; r++) {
+                            result[r] = left[leftOffset + r] >> right[rightOffset + r];
+                        }
+                        break;
+                }
+
+                top--;
+                stack[top] = result;
+                stackOffset[top] = 0;
+            }
+
+            System.arraycopy(stack[0], stackOffset[0], out, blockStart, rows);
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final long[][] columns;
+        private final long[] out;
+        private final int from;
+        private final int to;
+
+        RangeTask(long[][] columns, long[] out, int from, int to) {
+            this.columns = columns;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                evaluateRange(columns, out, from, to, new long[maxStack][BLOCK_ROWS]);
+                return;
+            }
+            // Split on a block boundary
+            int middle = from + ((to - from) / 2 / BLOCK_ROWS) * BLOCK_ROWS;
+            invokeAll(new RangeTask(columns, out, from, middle), new RangeTask(columns, out, middle, to));
+        }
+    }
+}
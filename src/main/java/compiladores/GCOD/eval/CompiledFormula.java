@@ -0,0 +1,80 @@
+package compiladores.GCOD.eval;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled expression together with its variable slots.
+ *
+ * Variables are numbered in order of first appearance in the expression. Arithmetic
+ * follows Java {@code long} semantics: {@code +} and {@code -} wrap around, and the
+ * shift distance of {@code <<} and {@code >>} is taken modulo 64.
+ */
+public final class CompiledFormula {
+    private final String key;
+    private final List<String> variables;
+    private final Formula formula;
+
+    CompiledFormula(String key, List<String> variables, Formula formula) {
+        this.key = key;
+        this.variables = variables;
+        this.formula = formula;
+    }
+
+    /**
+     * Returns the canonical text the formula is cached under.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the slot of a variable, or -1 if it does not occur in the expression.
+     */
+    public int getSlot(String variable) {
+        return variables.indexOf(variable);
+    }
+
+    /**
+     * Returns true if the formula runs as generated bytecode, false if it is interpreted.
+     */
+    public boolean isCompiled() {
+        return !(formula instanceof PostfixFormula);
+    }
+
+    public Formula getFormula() {
+        return formula;
+    }
+
+    /**
+     * Evaluates the formula.
+     *
+     * @param slots the value of each variable, in the order of {@link #getVariables()}
+     * @return the value of the expression
+     */
+    public long evaluate(long... slots) {
+        if (slots.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " values, got " + slots.length);
+        }
+        return formula.evaluate(slots);
+    }
+
+    /**
+     * Evaluates the formula with values looked up by variable name.
+     */
+    public long evaluate(Map<String, Long> bindings) {
+        long[] slots = new long[variables.size()];
+        for (int i = 0; i < slots.length; i++) {
+            Long value = bindings.get(variables.get(i));
+            if (value == null) {
+                throw new IllegalArgumentException("No value for variable: " + variables.get(i));
+            }
+            slots[i] = value;
+        }
+        return formula.evaluate(slots);
+    }
+}
@@ -0,0 +1,14 @@
+package compiladores.GCOD.eval;
+
+/**
+ * An expression that has been compiled for evaluation.
+ */
+public interface Formula {
+    /**
+     * Evaluates the expression.
+     *
+     * @param slots the value of each variable, indexed by slot
+     * @return the value of the expression
+     */
+    long evaluate(long[] slots);
+}
@@ -0,0 +1,159 @@
+package compiladores.GCOD.eval;
+
+import compiladores.GCOD.parser.Parser;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodTooLargeException;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles expressions into JVM classes.
+ *
+ * Each expression becomes a hidden class implementing {@link Formula} whose
+ * {@code evaluate} method loads the variables from the {@code long[]} argument and
+ * applies {@code ladd}, {@code lsub}, {@code lshl} and {@code lshr} in postfix order.
+ * Formulas are cached by their canonical postfix text, so equivalent inputs share one
+ * class. Expressions too large for a method the JIT will compile are interpreted instead.
+ */
+@Component
+public class FormulaCompiler {
+    // HotSpot does not JIT-compile methods above 8000 bytes of bytecode; a LOAD takes up to 5
+    static final int MAX_COMPILED_NODES = 1500;
+
+    private static final int MAX_CACHED = 10_000;
+    private static final String CLASS_NAME = "compiladores/GCOD/eval/GeneratedFormula";
+    private static final String FORMULA = "compiladores/GCOD/eval/Formula";
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final ConcurrentHashMap<String, CompiledFormula> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles an expression, or returns the cached formula for an equivalent one.
+     *
+     * @param expression the syntax tree to compile
+     * @return the compiled formula
+     */
+    public CompiledFormula compile(ExpressionNode expression) {
+        Postfix postfix = Postfix.of(expression);
+        String key = postfix.key();
+        CompiledFormula cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        return cache.computeIfAbsent(key, k -> new CompiledFormula(k, postfix.variables, define(postfix)));
+    }
+
+    /**
+     * Parses and compiles an expression.
+     *
+     * @param expression the expression text
+     * @return the compiled formula
+     * @throws IllegalArgumentException if the expression does not parse
+     */
+    public CompiledFormula compile(String expression) {
+        Parser parser = new Parser(expression);
+        ExpressionNode ast = parser.parse();
+        if (ast == null) {
+            throw new IllegalArgumentException(parser.getErrors().trim());
+        }
+        return compile(ast);
+    }
+
+    /**
+     * Returns the number of formulas currently cached.
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    private Formula define(Postfix postfix) {
+        if (postfix.ops.length > MAX_COMPILED_NODES) {
+            return new PostfixFormula(postfix);
+        }
+        try {
+            Class<?> type = lookup.defineHiddenClass(generate(postfix), true).lookupClass();
+            return (Formula) type.getDeclaredConstructor().newInstance();
+        } catch (MethodTooLargeException e) {
+            return new PostfixFormula(postfix);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to define formula class", e);
+        }
+    }
+
+    private static byte[] generate(Postfix postfix) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                CLASS_NAME, null, "java/lang/Object", new String[] {FORMULA});
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor evaluate = writer.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "([J)J", null, null);
+        evaluate.visitCode();
+        for (int i = 0; i < postfix.ops.length; i++) {
+            switch (postfix.ops[i]) {
+                case Postfix.LOAD:
+                    evaluate.visitVarInsn(Opcodes.ALOAD, 1);
+                    pushInt(evaluate, postfix.slots[i]);
+                    evaluate.visitInsn(Opcodes.LALOAD);
+                    break;
+                case Postfix.CONST:
+                    pushLong(evaluate, postfix.constants[i]);
+                    break;
+                case Postfix.ADD:
+                    evaluate.visitInsn(Opcodes.LADD);
+                    break;
+                case Postfix.SUB:
+                    evaluate.visitInsn(Opcodes.LSUB);
+                    break;
+                case Postfix.SHL:
+                    evaluate.visitInsn(Opcodes.L2I);
+                    evaluate.visitInsn(Opcodes.LSHL);
+                    break;
+                default:
+                    evaluate.visitInsn(Opcodes.L2I);
+                    evaluate.visitInsn(Opcodes.LSHR);
+                    break;
+            }
+        }
+        evaluate.visitInsn(Opcodes.LRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void pushLong(MethodVisitor method, long value) {
+        if (value == 0 || value == 1) {
+            method.visitInsn(Opcodes.LCONST_0 + (int) value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package compiladores.GCOD.eval;
+
+import compiladores.GCOD.parser.ast.ASTVisitor;
+import compiladores.GCOD.parser.ast.ASTWalker;
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ConstantNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.IdentifierNode;
+import compiladores.GCOD.parser.ast.ParenthesizedExpressionNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An expression flattened into postfix order, with parentheses dropped and each
+ * distinct identifier assigned a slot in order of first appearance.
+ *
+ * The flattening uses an {@link ASTWalker}, so deep trees do not overflow the thread stack.
+ */
+final class Postfix {
+    static final byte LOAD = 0;
+    static final byte ADD = 1;
+    static final byte SUB = 2;
+    static final byte SHL = 3;
+    static final byte SHR = 4;
+    static final byte CONST = 5;
+
+    final byte[] ops;
+    final int[] slots;       // Slot of each LOAD, unused for other ops
+    final long[] constants;  // Value of each CONST, unused for other ops
+    final List<String> variables;
+
+    private Postfix(byte[] ops, int[] slots, long[] constants, List<String> variables) {
+        this.ops = ops;
+        this.slots = slots;
+        this.constants = constants;
+        this.variables = variables;
+    }
+
+    static Postfix of(ExpressionNode root) {
+        List<ExpressionNode> postOrder = new ArrayList<>();
+        new ASTWalker().walk(root, new ASTVisitor() {
+            @Override
+            public Action leave(ExpressionNode node, int depth) {
+                if (!(node instanceof ParenthesizedExpressionNode)) {
+                    postOrder.add(node);
+                }
+                return Action.CONTINUE;
+            }
+        });
+
+        int size = postOrder.size();
+        byte[] ops = new byte[size];
+        int[] slots = new int[size];
+        long[] constants = new long[size];
+        List<String> variables = new ArrayList<>();
+        Map<String, Integer> slotByName = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            ExpressionNode node = postOrder.get(i);
+            if (node instanceof IdentifierNode) {
+                String name = ((IdentifierNode) node).getName();
+                Integer slot = slotByName.get(name);
+                if (slot == null) {
+                    slot = variables.size();
+                    slotByName.put(name, slot);
+                    variables.add(name);
+                }
+                ops[i] = LOAD;
+                slots[i] = slot;
+            } else if (node instanceof ConstantNode) {
+                ops[i] = CONST;
+                constants[i] = ((ConstantNode) node).getValue();
+            } else if (node instanceof BinaryOperationNode) {
+                ops[i] = opcode(((BinaryOperationNode) node).getOperator());
+            } else {
+                throw new IllegalArgumentException("Unsupported node: " + node.getClass().getSimpleName());
+            }
+        }
+        return new Postfix(ops, slots, constants, List.copyOf(variables));
+    }
+
+    private static byte opcode(String operator) {
+        switch (operator) {
+            case "+":
+                return ADD;
+            case "-":
+                return SUB;
+            case "<<":
+                return SHL;
+            case ">>":
+                return SHR;
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + operator);
+        }
+    }
+
+    /**
+     * Returns the canonical text of the expression: the postfix form, with operands
+     * and operators separated by spaces. Expressions that differ only in spacing or
+     * redundant parentheses have the same key.
+     */
+    String key() {
+        StringBuilder sb = new StringBuilder(ops.length * 3);
+        for (int i = 0; i < ops.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            switch (ops[i]) {
+                case LOAD:
+                    sb.append(variables.get(slots[i]));
+                    break;
+                case CONST:
+                    sb.append(constants[i]);
+                    break;
+                case ADD:
+                    sb.append('+');
+                    break;
+                case SUB:
+                    sb.append('-');
+                    break;
+                case SHL:
+                    sb.append("<<");
+                    break;
+                default:
+                    sb.append(">>");
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the number of operand stack entries needed to evaluate the expression.
+     */
+    int maxStack() {
+        int depth = 0;
+        int max = 0;
+        for (byte op : ops) {
+            depth += op == LOAD || op == CONST ? 1 : -1;
+            max = Math.max(max, depth);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,52 @@
+package compiladores.GCOD.eval;
+
+/**
+ * Evaluates a {@link Postfix} program with an operand stack. Used for expressions
+ * that are too large to be compiled into a single JVM method.
+ */
+final class PostfixFormula implements Formula {
+    private final byte[] ops;
+    private final int[] slots;
+    private final long[] constants;
+    private final int maxStack;
+
+    PostfixFormula(Postfix postfix) {
+        this.ops = postfix.ops;
+        this.slots = postfix.slots;
+        this.constants = postfix.constants;
+        this.maxStack = postfix.maxStack();
+    }
+
+    @Override
+    public long evaluate(long[] values) {
+        long[] stack = new long[maxStack];
+        int top = -1;
+        for (int i = 0; i < ops.length; i++) {
+            switch (ops[i]) {
+                case Postfix.LOAD:
+                    stack[++top] = values[slots[i]];
+                    break;
+                case Postfix.CONST:
+                    stack[++top] = constants[i];
+                    break;
+                case Postfix.ADD:
+                    stack[top - 1] = stack[top - 1] + stack[top];
+                    top--;
+                    break;
+                case Postfix.SUB:
+                    stack[top - 1] = stack[top - 1] - stack[top];
+                    top--;
+                    break;
+                case Postfix.SHL:
+                    stack[top - 1] = stack[top - 1] << stack[top];
+                    top--;
+                    break;
+                default:
+                    stack[top - 1] = stack[top - 1] >> stack[top];
+                    top--;
+                    break;
+            }
+        }
+        return stack[0];
+    }
+}
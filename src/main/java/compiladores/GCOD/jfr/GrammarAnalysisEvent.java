@@ -0,0 +1,31 @@
+package compiladores.GCOD.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for one step of the FIRST/FOLLOW analysis. Only steps slower
+ * than the threshold are recorded.
+ */
+@Name("compiladores.GCOD.GrammarAnalysis")
+@Label("Grammar Analysis")
+@Description("Computation of FIRST and FOLLOW sets")
+@Category({"GCOD", "Grammar"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class GrammarAnalysisEvent extends jdk.jfr.Event {
+    @Label("Step")
+    @Description("first-follow for the initial sets, resolve-follow for the FOLLOW fixpoint")
+    public String step;
+
+    @Label("Nonterminals")
+    public int nonTerminalCount;
+
+    @Label("Iterations")
+    @Description("Fixpoint iterations, for resolve-follow")
+    public int iterations;
+}
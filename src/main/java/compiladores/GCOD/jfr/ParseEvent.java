@@ -0,0 +1,38 @@
+package compiladores.GCOD.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for one call of {@code Parser.parse}. Only parses slower than
+ * the threshold are recorded.
+ */
+@Name("compiladores.GCOD.Parse")
+@Label("Parse")
+@Description("Parsing of one expression")
+@Category({"GCOD", "Parser"})
+@Threshold("5 ms")
+@StackTrace(false)
+public class ParseEvent extends jdk.jfr.Event {
+    @Label("Input Length")
+    @Description("Characters up to the last token read")
+    public int inputLength;
+
+    @Label("Tokens")
+    public int tokenCount;
+
+    @Label("Nodes")
+    @Description("Syntax tree nodes created")
+    public int nodeCount;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    @Description("Code of the first diagnostic, if the parse failed")
+    public String error;
+}
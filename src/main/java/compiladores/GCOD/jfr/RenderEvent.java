@@ -0,0 +1,27 @@
+package compiladores.GCOD.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for rendering a syntax tree as indented text. Only renders
+ * slower than the threshold are recorded.
+ */
+@Name("compiladores.GCOD.Render")
+@Label("Render Tree")
+@Description("Rendering of a syntax tree as text")
+@Category({"GCOD", "Parser"})
+@Threshold("5 ms")
+@StackTrace(false)
+public class RenderEvent extends jdk.jfr.Event {
+    @Label("Nodes")
+    public int nodeCount;
+
+    @Label("Output Length")
+    @Description("Characters of rendered text")
+    public int outputLength;
+}
@@ -0,0 +1,86 @@
+package compiladores.GCOD.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in microseconds, with about 3% precision.
+ *
+ * Values below 64 get a bucket each; above that, every power of two is split into
+ * 32 buckets. Recording is a single atomic increment, so any number of threads can
+ * record into the same histogram while another one reads it.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int BUCKETS = 2048;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    static int bucketOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 5;
+        return shift * SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    /**
+     * Returns the largest value that falls in {@code bucket}.
+     */
+    static long highestIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    void record(long micros) {
+        counts.incrementAndGet(bucketOf(micros));
+    }
+
+    /**
+     * Adds the counts of this histogram to {@code target} and clears them.
+     */
+    void drainInto(long[] target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.getAndSet(i, 0);
+            if (count != 0) {
+                target[i] += count;
+            }
+        }
+    }
+
+    static long[] newCounts() {
+        return new long[BUCKETS];
+    }
+
+    static long total(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the value at or below which {@code percentile} percent of the recorded
+     * values fall, rounded up to the top of its bucket, or 0 if there are none.
+     */
+    static long percentile(long[] counts, double percentile) {
+        long total = total(counts);
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestIn(i);
+            }
+        }
+        return highestIn(counts.length - 1);
+    }
+}
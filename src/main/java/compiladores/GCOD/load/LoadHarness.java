@@ -0,0 +1,534 @@
+package compiladores.GCOD.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.FirstFollow.Grammar;
+import compiladores.GCOD.FirstFollow.SentenceGenerator;
+import compiladores.GCOD.FirstFollow.Symbol;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Command line load generator that drives a running server with random expressions.
+ *
+ * The expressions are derived from the grammar the server serves at
+ * {@code /api/grammar} (or from a file of rules) by a {@link SentenceGenerator}, with
+ * a configurable share of mutated, invalid ones. Terminals named {@code id} are sent
+ * as varying identifiers, so the result cache does not answer every request.
+ *
+ * Requests are sent by {@code --concurrency} threads, either as fast as the server
+ * answers or, with {@code --rate}, on a fixed schedule. On a schedule, latency is
+ * measured from the time a request was due rather than from the time it was sent, so
+ * a server that falls behind shows up in the percentiles instead of just lowering
+ * the request rate. Every interval a line is printed with the throughput, the
+ * latency percentiles and the GC activity of the server (taken from
+ * {@code /actuator/prometheus}) and of the harness itself; a summary of the whole
+ * run follows at the end.
+ *
+ * Usage: {@code LoadHarness [--url URL] [--endpoint form|api|bulk] [--batch N]
+ * [--concurrency N] [--rate R] [--duration S] [--warmup S] [--interval S]
+ * [--max-length N] [--max-depth N] [--invalid RATIO] [--grammar FILE] [--seed N]}
+ */
+public class LoadHarness {
+
+    /**
+     * The endpoints that can be driven.
+     */
+    public enum Endpoint {
+        /** The HTML form, {@code POST /parser}. */
+        FORM("/parser"),
+        /** The JSON API, {@code POST /api/parser}. */
+        API("/api/parser"),
+        /** The bulk API, {@code POST /api/parser/bulk}, with several expressions per request. */
+        BULK("/api/parser/bulk");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final Endpoint endpoint;
+    private final SentenceGenerator generator;
+    private final int batchSize;
+    private final int maxLength;
+    private final int maxDepth;
+    private final double invalidRatio;
+    private final long seed;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong expressions = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+
+    public LoadHarness(String baseUrl, Endpoint endpoint, Grammar grammar, int batchSize,
+                       int maxLength, int maxDepth, double invalidRatio, long seed) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.endpoint = endpoint;
+        this.generator = new SentenceGenerator(grammar);
+        this.batchSize = endpoint == Endpoint.BULK ? batchSize : 1;
+        this.maxLength = Math.max(maxLength, generator.getMinLength());
+        this.maxDepth = maxDepth;
+        this.invalidRatio = invalidRatio;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        Endpoint endpoint = Endpoint.FORM;
+        String grammarFile = null;
+        int batchSize = 100;
+        int concurrency = 8;
+        double rate = 0;
+        long durationSeconds = 60;
+        long warmupSeconds = 5;
+        long intervalSeconds = 10;
+        int maxLength = 50;
+        int maxDepth = 20;
+        double invalidRatio = 0.1;
+        long seed = System.nanoTime();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "--endpoint":
+                    endpoint = Endpoint.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "--batch":
+                    batchSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[++i]);
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[++i]);
+                    break;
+                case "--duration":
+                    durationSeconds = Long.parseLong(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupSeconds = Long.parseLong(args[++i]);
+                    break;
+                case "--interval":
+                    intervalSeconds = Long.parseLong(args[++i]);
+                    break;
+                case "--max-length":
+                    maxLength = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-depth":
+                    maxDepth = Integer.parseInt(args[++i]);
+                    break;
+                case "--invalid":
+                    invalidRatio = Double.parseDouble(args[++i]);
+                    break;
+                case "--grammar":
+                    grammarFile = args[++i];
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Usage: LoadHarness [--url URL] [--endpoint form|api|bulk] [--batch N]"
+                            + " [--concurrency N] [--rate R] [--duration S] [--warmup S] [--interval S]"
+                            + " [--max-length N] [--max-depth N] [--invalid RATIO] [--grammar FILE] [--seed N]");
+                    System.exit(2);
+            }
+        }
+
+        LoadHarness harness = new LoadHarness(url, endpoint,
+                grammarFile != null ? Grammar.parse(Files.readAllLines(Paths.get(grammarFile), StandardCharsets.UTF_8))
+                        : fetchGrammar(url),
+                batchSize, maxLength, maxDepth, invalidRatio, seed);
+        Summary summary = harness.run(concurrency, rate, Duration.ofSeconds(warmupSeconds),
+                Duration.ofSeconds(durationSeconds), Duration.ofSeconds(intervalSeconds), System.out);
+        System.out.println(summary);
+    }
+
+    /**
+     * Reads the grammar the server at {@code baseUrl} analyses.
+     */
+    public static Grammar fetchGrammar(String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl.replaceAll("/$", "") + "/api/grammar")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /api/grammar returned " + response.statusCode());
+        }
+        List<String> rules = new ArrayList<>();
+        for (JsonNode rule : new ObjectMapper().readTree(response.body()).get("grammar")) {
+            rules.add(rule.asText());
+        }
+        return Grammar.parse(rules);
+    }
+
+    /**
+     * Drives the server for {@code warmup} plus {@code duration}, printing a report line
+     * to {@code out} every {@code interval}. Nothing sent during the warm-up is counted.
+     *
+     * @param concurrency the number of requests in flight at most
+     * @param rate requests per second to send, or 0 to send as fast as the server answers
+     * @return the totals of the measured part of the run
+     */
+    public Summary run(int concurrency, double rate, Duration warmup, Duration duration, Duration interval,
+                       PrintStream out) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+        long period = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        AtomicLong tickets = new AtomicLong();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Random random = new Random(seed + i);
+            Thread worker = new Thread(() -> work(random, start, measureStart, end, period, tickets),
+                    "load-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        sleepUntil(measureStart);
+        drain(LatencyHistogram.newCounts());
+        GcSample serverGc = serverGc();
+        GcSample localGc = localGc();
+        Summary summary = new Summary();
+        long intervalStart = measureStart;
+
+        while (intervalStart < end) {
+            long intervalEnd = Math.min(intervalStart + interval.toNanos(), end);
+            sleepUntil(intervalEnd);
+            if (intervalEnd == end) {
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+            }
+            long[] counts = LatencyHistogram.newCounts();
+            Summary current = drain(counts);
+            current.elapsedNanos = System.nanoTime() - intervalStart;
+            GcSample server = serverGc();
+            GcSample local = localGc();
+            current.serverGc = server.minus(serverGc);
+            current.localGc = local.minus(localGc);
+            serverGc = server;
+            localGc = local;
+
+            out.printf(Locale.ROOT, "%6ds  %s%n",
+                    TimeUnit.NANOSECONDS.toSeconds(intervalEnd - measureStart), current);
+            summary.add(current, counts);
+            intervalStart = intervalEnd;
+        }
+        return summary;
+    }
+
+    private void work(Random random, long start, long measureStart, long end, long period, AtomicLong tickets) {
+        while (true) {
+            long due;
+            if (period > 0) {
+                due = start + tickets.getAndIncrement() * period;
+                if (due >= end) {
+                    return;
+                }
+                sleepUntil(due);
+            } else {
+                due = System.nanoTime();
+                if (due >= end) {
+                    return;
+                }
+            }
+
+            int valid = 0;
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < batchSize; i++) {
+                List<Symbol> sentence = generator.generate(random,
+                        generator.getMinLength() + random.nextInt(maxLength - generator.getMinLength() + 1), maxDepth);
+                if (random.nextDouble() < invalidRatio) {
+                    sentence = generator.mutate(random, sentence);
+                } else {
+                    valid++;
+                }
+                if (i > 0) {
+                    body.append('\n');
+                }
+                body.append(render(sentence, random));
+            }
+
+            int status;
+            String response;
+            try {
+                HttpResponse<String> reply = client.send(request(body.toString()), HttpResponse.BodyHandlers.ofString());
+                status = reply.statusCode();
+                response = reply.body();
+            } catch (IOException e) {
+                status = 0;
+                response = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long done = System.nanoTime();
+            if (due < measureStart) {
+                continue;
+            }
+            requests.incrementAndGet();
+            expressions.addAndGet(batchSize);
+            if (status == 429 || status == 503) {
+                shed.incrementAndGet();
+            } else if (status != 200) {
+                errors.incrementAndGet();
+            } else {
+                latencies.record(TimeUnit.NANOSECONDS.toMicros(done - due));
+                if (endpoint != Endpoint.FORM && count(response, "\"success\":true") != valid) {
+                    mismatches.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private HttpRequest request(String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+                .timeout(Duration.ofSeconds(30));
+        if (endpoint == Endpoint.BULK) {
+            return builder.header("Content-Type", "text/plain; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+        }
+        if (endpoint == Endpoint.API) {
+            builder.header("Accept", "application/json");
+        }
+        return builder.header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("input=" + URLEncoder.encode(body, StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static String render(List<Symbol> sentence, Random random) {
+        StringBuilder text = new StringBuilder();
+        for (Symbol symbol : sentence) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            if (symbol.getName().equals("id")) {
+                text.append('x').append(random.nextInt(1000));
+            } else {
+                text.append(symbol.getName());
+            }
+        }
+        return text.toString();
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + fragment.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private Summary drain(long[] counts) {
+        latencies.drainInto(counts);
+        Summary summary = new Summary();
+        summary.requests = requests.getAndSet(0);
+        summary.expressions = expressions.getAndSet(0);
+        summary.errors = errors.getAndSet(0);
+        summary.shed = shed.getAndSet(0);
+        summary.mismatches = mismatches.getAndSet(0);
+        summary.latencies = counts;
+        return summary;
+    }
+
+    private static void sleepUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Reads the GC pause totals the server exports, or returns an empty sample if it
+     * exports none.
+     */
+    private GcSample serverGc() {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return new GcSample(0, 0);
+            }
+            long count = 0;
+            double seconds = 0;
+            for (String line : response.body().split("\n")) {
+                if (line.startsWith("jvm_gc_pause_seconds_count")) {
+                    count += (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                } else if (line.startsWith("jvm_gc_pause_seconds_sum")) {
+                    seconds += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                }
+            }
+            return new GcSample(count, (long) (seconds * 1000));
+        } catch (IOException e) {
+            return new GcSample(0, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new GcSample(0, 0);
+        }
+    }
+
+    private static GcSample localGc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return new GcSample(count, millis);
+    }
+
+    /**
+     * A number of collections and the time they took, in milliseconds.
+     */
+    public static final class GcSample {
+        private final long count;
+        private final long millis;
+
+        GcSample(long count, long millis) {
+            this.count = count;
+            this.millis = millis;
+        }
+
+        GcSample minus(GcSample earlier) {
+            return new GcSample(count - earlier.count, millis - earlier.millis);
+        }
+
+        GcSample plus(GcSample other) {
+            return new GcSample(count + other.count, millis + other.millis);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return count + " (" + millis + " ms)";
+        }
+    }
+
+    /**
+     * The totals of one interval or of a whole run. Latencies are those of the
+     * requests answered with 200; shed requests are those answered with 429 or 503.
+     */
+    public static final class Summary {
+        private long requests;
+        private long expressions;
+        private long errors;
+        private long shed;
+        private long mismatches;
+        private long elapsedNanos;
+        private long[] latencies = LatencyHistogram.newCounts();
+        private GcSample serverGc = new GcSample(0, 0);
+        private GcSample localGc = new GcSample(0, 0);
+
+        void add(Summary interval, long[] counts) {
+            requests += interval.requests;
+            expressions += interval.expressions;
+            errors += interval.errors;
+            shed += interval.shed;
+            mismatches += interval.mismatches;
+            elapsedNanos += interval.elapsedNanos;
+            for (int i = 0; i < counts.length; i++) {
+                latencies[i] += counts[i];
+            }
+            serverGc = serverGc.plus(interval.serverGc);
+            localGc = localGc.plus(interval.localGc);
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getExpressions() {
+            return expressions;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getShed() {
+            return shed;
+        }
+
+        /**
+         * Returns the number of requests whose parse results did not match whether the
+         * expressions sent were valid. Always 0 for the HTML form.
+         */
+        public long getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         * Returns the latency at {@code percentile}, in microseconds.
+         */
+        public long getLatencyMicros(double percentile) {
+            return LatencyHistogram.percentile(latencies, percentile);
+        }
+
+        public GcSample getServerGc() {
+            return serverGc;
+        }
+
+        public GcSample getLocalGc() {
+            return localGc;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                    "%d requests, %.1f req/s, %.1f expr/s, errors=%d, shed=%d, mismatches=%d, latency ms:",
+                    requests, requests / seconds, expressions / seconds, errors, shed, mismatches));
+            for (double percentile : PERCENTILES) {
+                text.append(String.format(Locale.ROOT, " p%s=%.2f",
+                        percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile),
+                        getLatencyMicros(percentile) / 1000.0));
+            }
+            text.append(String.format(Locale.ROOT, " max=%.2f", getLatencyMicros(100) / 1000.0));
+            text.append(", server GC pauses=").append(serverGc).append(", harness GC=").append(localGc);
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package compiladores.GCOD.metrics;
+
+import compiladores.GCOD.parser.Diagnostic;
+import compiladores.GCOD.parser.DiagnosticCode;
+import compiladores.GCOD.parser.ast.ASTVisitor;
+import compiladores.GCOD.parser.ast.ASTWalker;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for parsing, rendering and grammar analysis.
+ *
+ * All meters are registered once, up front, so recording is a lookup-free update of
+ * an existing timer or summary. Latencies are published as histograms, which the
+ * Prometheus endpoint exposes as buckets. Callers check {@link #isEnabled()} before
+ * taking any timestamps; when {@code gcod.metrics.enabled} is false, or there is no
+ * meter registry, nothing is measured at all.
+ *
+ * Lexing is driven by the parser one token at a time, so it is measured together
+ * with parsing rather than as a phase of its own.
+ */
+@Component
+public class GcodMetrics {
+    private static final GcodMetrics DISABLED = new GcodMetrics(null);
+
+    private final boolean enabled;
+    private final MeterRegistry registry;
+
+    /**
+     * How an input was parsed.
+     */
+    public enum ParsePath {
+        SEQUENTIAL, PARALLEL, CACHE, STREAM
+    }
+
+    /**
+     * Why a request was turned away before parsing.
+     */
+    public enum Rejection {
+        INPUT_TOO_LARGE, QUEUE_FULL, QUEUE_TIMEOUT
+    }
+
+    private final Map<ParsePath, Timer> parseTimers = new EnumMap<>(ParsePath.class);
+    private final Map<DiagnosticCode, Counter> diagnostics = new EnumMap<>(DiagnosticCode.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private Counter successes;
+    private Counter failures;
+    private DistributionSummary inputChars;
+    private DistributionSummary tokens;
+    private DistributionSummary astNodes;
+    private DistributionSummary astDepth;
+    private Timer render;
+    private Timer grammarInitial;
+    private Timer grammarFixpoint;
+    private DistributionSummary followIterations;
+
+    @Autowired
+    public GcodMetrics(ObjectProvider<MeterRegistry> registry,
+                       @Value("${gcod.metrics.enabled:true}") boolean enabled) {
+        this(enabled ? registry.getIfAvailable() : null);
+    }
+
+    private GcodMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.enabled = registry != null;
+        if (!enabled) {
+            return;
+        }
+
+        for (ParsePath path : ParsePath.values()) {
+            parseTimers.put(path, Timer.builder("gcod.parser.parse").tag("path", path.name().toLowerCase())
+                    .description("Time to lex and parse an input").publishPercentileHistogram().register(registry));
+        }
+        successes = Counter.builder("gcod.parser.results").tag("outcome", "success")
+                .description("Parsed inputs by outcome").register(registry);
+        failures = Counter.builder("gcod.parser.results").tag("outcome", "error")
+                .description("Parsed inputs by outcome").register(registry);
+        for (DiagnosticCode code : DiagnosticCode.values()) {
+            diagnostics.put(code, Counter.builder("gcod.parser.diagnostics").tag("code", code.name())
+                    .description("Syntax errors by kind").register(registry));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("gcod.parser.rejected")
+                    .tag("reason", rejection.name().toLowerCase().replace('_', '-'))
+                    .description("Requests turned away by the parse limits or admission control")
+                    .register(registry));
+        }
+        inputChars = summary("gcod.parser.input.chars", "Characters per parsed input", "chars");
+        tokens = summary("gcod.parser.tokens", "Tokens per parsed input", "tokens");
+        astNodes = summary("gcod.parser.ast.nodes", "Nodes per syntax tree", "nodes");
+        astDepth = summary("gcod.parser.ast.depth", "Depth of each syntax tree", null);
+        render = timer("gcod.parser.render", "Time to render a syntax tree as text", null);
+        grammarInitial = timer("gcod.grammar.analysis", "Time to compute FIRST and FOLLOW sets", "initial");
+        grammarFixpoint = timer("gcod.grammar.analysis", "Time to compute FIRST and FOLLOW sets", "follow-fixpoint");
+        followIterations = summary("gcod.grammar.follow.iterations",
+                "Fixpoint iterations to resolve the FOLLOW sets", "iterations");
+    }
+
+    /**
+     * Returns an instance that records nothing.
+     */
+    public static GcodMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private DistributionSummary summary(String name, String description, String unit) {
+        return DistributionSummary.builder(name).description(description).baseUnit(unit)
+                .publishPercentileHistogram().register(registry);
+    }
+
+    private Timer timer(String name, String description, String phase) {
+        Timer.Builder builder = Timer.builder(name).description(description).publishPercentileHistogram();
+        if (phase != null) {
+            builder.tag("phase", phase);
+        }
+        return builder.register(registry);
+    }
+
+    /**
+     * Records one parse.
+     *
+     * @param path how the input was parsed
+     * @param nanos the time spent lexing and parsing, or reading the cache
+     * @param chars the length of the input
+     * @param tokenCount the number of tokens, or a negative value if not known
+     * @param ast the syntax tree, or null
+     * @param errors the diagnostics of the parse
+     */
+    public void recordParse(ParsePath path, long nanos, int chars, int tokenCount,
+                            ExpressionNode ast, List<Diagnostic> errors) {
+        parseTimers.get(path).record(nanos, TimeUnit.NANOSECONDS);
+        inputChars.record(chars);
+        if (tokenCount >= 0) {
+            tokens.record(tokenCount);
+        }
+        if (ast != null && errors.isEmpty()) {
+            successes.increment();
+            recordTree(ast);
+        } else {
+            failures.increment();
+        }
+        for (Diagnostic diagnostic : errors) {
+            diagnostics.get(diagnostic.getCode()).increment();
+        }
+    }
+
+    private void recordTree(ExpressionNode ast) {
+        int[] nodesAndDepth = new int[2];
+        new ASTWalker().walk(ast, new ASTVisitor() {
+            @Override
+            public Action enter(ExpressionNode node, int depth) {
+                nodesAndDepth[0]++;
+                nodesAndDepth[1] = Math.max(nodesAndDepth[1], depth + 1);
+                return Action.CONTINUE;
+            }
+        });
+        astNodes.record(nodesAndDepth[0]);
+        astDepth.record(nodesAndDepth[1]);
+    }
+
+    public void recordRender(long nanos) {
+        render.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a request that was turned away before parsing.
+     */
+    public void recordRejected(Rejection reason) {
+        rejections.get(reason).increment();
+    }
+
+    /**
+     * Records the computation of the FIRST sets and the initial FOLLOW sets.
+     */
+    public void recordInitialSets(long nanos) {
+        grammarInitial.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the fixpoint that completes the FOLLOW sets.
+     */
+    public void recordFollowFixpoint(long nanos, int iterations) {
+        grammarFixpoint.record(nanos, TimeUnit.NANOSECONDS);
+        followIterations.record(iterations);
+    }
+}
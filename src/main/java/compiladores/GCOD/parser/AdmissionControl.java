@@ -0,0 +1,116 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.metrics.GcodMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of parses that run at the same time.
+ *
+ * At most {@code maxConcurrent} requests are admitted; up to {@code maxQueued} more
+ * wait for a permit, in arrival order, for at most {@code queueTimeoutMillis}.
+ * Anything beyond that is turned away at once, so that under overload requests fail
+ * fast instead of all of them queueing on the server threads and getting slow.
+ */
+@Component
+public class AdmissionControl {
+
+    /**
+     * The outcome of {@link #enter()}.
+     */
+    public enum Admission {
+        ADMITTED, QUEUE_FULL, QUEUE_TIMEOUT
+    }
+
+    private final boolean enabled;
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final GcodMetrics metrics;
+
+    public AdmissionControl(@Value("${gcod.admission.enabled:true}") boolean enabled,
+                            @Value("${gcod.admission.max-concurrent:0}") int maxConcurrent,
+                            @Value("${gcod.admission.max-queued:64}") int maxQueued,
+                            @Value("${gcod.admission.queue-timeout-ms:1000}") long queueTimeoutMillis,
+                            GcodMetrics metrics) {
+        this.enabled = enabled;
+        int concurrency = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(concurrency, true);
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Waits for a permit. Every {@link Admission#ADMITTED} result must be followed by
+     * a call to {@link #exit()}.
+     *
+     * @return whether the caller may go ahead, or why not
+     */
+    public Admission enter() {
+        // A free permit goes to the requests already queued for one first
+        if (tryEnter()) {
+            return Admission.ADMITTED;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return reject(Admission.QUEUE_FULL);
+        }
+        try {
+            if (permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return Admission.ADMITTED;
+            }
+            return reject(Admission.QUEUE_TIMEOUT);
+        } catch (InterruptedException e) {
+            // Cancelled by the caller, not turned away
+            Thread.currentThread().interrupt();
+            return Admission.QUEUE_TIMEOUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a permit only if one is free now, without queueing or counting a
+     * rejection. For a request that is already admitted and could run more parses
+     * at once; a true result must be followed by a call to {@link #exit()}.
+     */
+    public boolean tryEnter() {
+        // Unlike tryAcquire(), a zero timeout respects the requests queued for a permit
+        try {
+            return !enabled || permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the permit taken by {@link #enter()} or {@link #tryEnter()}.
+     */
+    public void exit() {
+        if (enabled) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for a permit.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private Admission reject(Admission admission) {
+        if (metrics.isEnabled()) {
+            metrics.recordRejected(admission == Admission.QUEUE_FULL
+                    ? GcodMetrics.Rejection.QUEUE_FULL : GcodMetrics.Rejection.QUEUE_TIMEOUT);
+        }
+        return admission;
+    }
+}
@@ -0,0 +1,54 @@
+package compiladores.GCOD.parser;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs the parser endpoints through {@link AdmissionControl}. A request that is not
+ * admitted gets 429 if the queue was full and 503 if it waited too long, both with
+ * a {@code Retry-After} header.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        switch (admissionControl.enter()) {
+            case ADMITTED:
+                request.setAttribute(ADMITTED, Boolean.TRUE);
+                return true;
+            case QUEUE_FULL:
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                break;
+            default:
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                break;
+        }
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            admissionControl.exit();
+        }
+    }
+}
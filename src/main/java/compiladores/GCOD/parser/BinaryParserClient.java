@@ -0,0 +1,158 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.parser.ast.CompactTreeReader;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A blocking client for the {@link BinaryProtocol}.
+ *
+ * Requests are sent with {@link #send} and responses read with {@link #receive}, so
+ * a caller can pipeline: send many requests, then collect the responses and match
+ * them to the requests by id. Not thread-safe; use one client per thread, or one
+ * thread for sending and another for receiving.
+ */
+public class BinaryParserClient implements Closeable {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final DiagnosticCode[] CODES = DiagnosticCode.values();
+
+    private final SocketChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(4);
+
+    public BinaryParserClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * Sends one request without waiting for its response.
+     *
+     * @param id the id the response will carry
+     * @param input the expression to parse
+     * @param wantTree whether to get the syntax tree back
+     */
+    public void send(int id, String input, boolean wantTree) throws IOException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + BinaryProtocol.REQUEST_HEADER + bytes.length);
+        frame.putInt(BinaryProtocol.REQUEST_HEADER + bytes.length)
+                .putInt(id)
+                .put((byte) (wantTree ? BinaryProtocol.WANT_TREE : 0))
+                .put(bytes)
+                .flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    /**
+     * Waits for the next response, whichever request it is for.
+     *
+     * @throws EOFException if the server closed the connection
+     */
+    public Response receive() throws IOException {
+        header.clear();
+        readFully(header);
+        ByteBuffer frame = ByteBuffer.allocate(header.flip().getInt());
+        readFully(frame);
+        frame.flip();
+
+        int id = frame.getInt();
+        int status = frame.get();
+        int count = frame.getShort();
+        List<Diagnostic> diagnostics = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DiagnosticCode code = CODES[frame.get()];
+            int start = frame.getInt();
+            int end = frame.getInt();
+            int expected = frame.getInt();
+            int found = frame.get() & 0xFF;
+            int line = frame.getInt();
+            int column = frame.getInt();
+            diagnostics.add(new Diagnostic(code, start, end, expected,
+                    found == BinaryProtocol.NO_TOKEN ? null : TOKEN_TYPES[found], null, line, column));
+        }
+        byte[] tree = frame.hasRemaining()
+                ? Arrays.copyOfRange(frame.array(), frame.position(), frame.limit()) : null;
+        return new Response(id, status, diagnostics, tree);
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+    }
+
+    /**
+     * Tells the server that no more requests will be sent. Responses to the requests
+     * already sent still arrive, after which the server closes the connection.
+     */
+    public void shutdownOutput() throws IOException {
+        channel.shutdownOutput();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * One response. Diagnostics carry no found text; it is the input between their
+     * start and end offsets.
+     */
+    public static final class Response {
+        private final int id;
+        private final int status;
+        private final List<Diagnostic> diagnostics;
+        private final byte[] tree;
+
+        Response(int id, int status, List<Diagnostic> diagnostics, byte[] tree) {
+            this.id = id;
+            this.status = status;
+            this.diagnostics = diagnostics;
+            this.tree = tree;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Returns one of the status constants of {@link BinaryProtocol}.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        public List<Diagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * Returns the encoded syntax tree, or null if none was sent.
+         */
+        public byte[] getTree() {
+            return tree;
+        }
+
+        /**
+         * Decodes the syntax tree, or returns null if none was sent.
+         */
+        public ExpressionNode readTree() throws IOException {
+            return tree == null ? null : new CompactTreeReader(new ByteArrayInputStream(tree)).readTree();
+        }
+    }
+}
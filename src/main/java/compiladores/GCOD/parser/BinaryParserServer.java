@@ -0,0 +1,351 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.parser.ast.CompactTreeWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves parse requests over the {@link BinaryProtocol}, for internal clients that
+ * do not need HTTP. Only started when {@code gcod.binary.port} is set; port 0 picks
+ * any free port.
+ *
+ * One thread runs a selector loop that does all the socket I/O: it reads frames,
+ * hands each request to a pool of parser threads, and writes the responses back as
+ * they are ready, in whatever order they finish. A connection may have up to
+ * {@code maxInFlight} requests being parsed; beyond that the server stops reading
+ * from it until responses have gone out, so a client that sends faster than it
+ * reads is slowed down instead of filling the server's memory. Parses go through
+ * {@link AdmissionControl} like those of the other endpoints.
+ */
+@Component
+public class BinaryParserServer {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryParserServer.class);
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ParserService parserService;
+    private final AdmissionControl admissionControl;
+    private final int configuredPort;
+    private final int maxFrameBytes;
+    private final int maxInFlight;
+    private final int threads;
+
+    private ExecutorService workers;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread loop;
+    private volatile boolean running;
+    // Connections with responses to write or reads to resume, handed over to the selector thread
+    private final Queue<Connection> ready = new ConcurrentLinkedQueue<>();
+
+    public BinaryParserServer(ParserService parserService, AdmissionControl admissionControl,
+                              @Value("${gcod.binary.port:-1}") int port,
+                              @Value("${gcod.binary.max-frame-bytes:2097152}") int maxFrameBytes,
+                              @Value("${gcod.binary.max-in-flight:64}") int maxInFlight,
+                              @Value("${gcod.binary.threads:0}") int threads) {
+        this.parserService = parserService;
+        this.admissionControl = admissionControl;
+        this.configuredPort = port;
+        this.maxFrameBytes = maxFrameBytes;
+        this.maxInFlight = maxInFlight;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (configuredPort < 0) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(configuredPort));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "binary-parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        loop = new Thread(this::run, "binary-parser-selector");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("Binary parser protocol listening on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        loop.join(5000);
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the port the server listens on, or -1 if it is not enabled.
+     */
+    public int getPort() {
+        return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (Connection connection; (connection = ready.poll()) != null; ) {
+                    connection.updateInterest();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    } catch (IOException e) {
+                        if (key.attachment() instanceof Connection) {
+                            ((Connection) key.attachment()).close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Binary parser protocol stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Parses one request on a worker thread and encodes the response.
+     */
+    private ByteBuffer handle(int id, int flags, byte[] input) {
+        if (admissionControl.enter() != AdmissionControl.Admission.ADMITTED) {
+            return response(id, BinaryProtocol.OVERLOADED, List.of(), null);
+        }
+        ParserService.ParserResult result;
+        try {
+            result = parserService.parse(new String(input, StandardCharsets.UTF_8));
+        } finally {
+            admissionControl.exit();
+        }
+        int status = result.isSuccess() ? BinaryProtocol.OK
+                : result.isLimited() ? BinaryProtocol.LIMIT_EXCEEDED : BinaryProtocol.SYNTAX_ERROR;
+        byte[] tree = result.isSuccess() && (flags & BinaryProtocol.WANT_TREE) != 0
+                ? CompactTreeWriter.toByteArray(result.getAst()) : null;
+        return response(id, status, result.getDiagnostics(), tree);
+    }
+
+    /**
+     * Like {@link #handle}, but answers with {@link BinaryProtocol#INTERNAL_ERROR} if
+     * that fails, so that every request read gets its response.
+     */
+    private ByteBuffer handleOrFail(int id, int flags, byte[] input) {
+        try {
+            return handle(id, flags, input);
+        } catch (RuntimeException | Error e) {
+            log.error("Binary parser request {} failed", id, e);
+            return response(id, BinaryProtocol.INTERNAL_ERROR, List.of(), null);
+        }
+    }
+
+    static ByteBuffer response(int id, int status, List<Diagnostic> diagnostics, byte[] tree) {
+        int length = BinaryProtocol.RESPONSE_HEADER + diagnostics.size() * BinaryProtocol.DIAGNOSTIC_SIZE
+                + (tree == null ? 0 : tree.length);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length).putInt(id).put((byte) status).putShort((short) diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            buffer.put((byte) diagnostic.getCode().ordinal())
+                    .putInt(diagnostic.getStart())
+                    .putInt(diagnostic.getEnd())
+                    .putInt(diagnostic.getExpectedMask())
+                    .put((byte) (diagnostic.getFound() == null ? BinaryProtocol.NO_TOKEN : diagnostic.getFound().ordinal()))
+                    .putInt(diagnostic.getLine())
+                    .putInt(diagnostic.getColumn());
+        }
+        if (tree != null) {
+            buffer.put(tree);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * The state of one client connection. Apart from {@link #complete}, everything
+     * runs on the selector thread.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+        // Requests read whose responses have not been written yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private boolean inputClosed;
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                // Finish the requests already read, then close
+                inputClosed = true;
+            }
+            startRequests();
+        }
+
+        /**
+         * Hands the requests read in full to the workers, as long as fewer than
+         * {@code maxInFlight} are in flight. The rest stay in the buffer until
+         * responses have gone out.
+         */
+        private void startRequests() {
+            in.flip();
+            while (inFlight.get() < maxInFlight && in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length < BinaryProtocol.REQUEST_HEADER || length > maxFrameBytes) {
+                    close();
+                    return;
+                }
+                if (in.remaining() < 4 + length) {
+                    if (in.capacity() < 4 + length) {
+                        ByteBuffer larger = ByteBuffer.allocate(4 + length);
+                        larger.put(in);
+                        in = larger;
+                        updateInterest();
+                        return;
+                    }
+                    break;
+                }
+                in.getInt();
+                int id = in.getInt();
+                int flags = in.get();
+                byte[] input = new byte[length - BinaryProtocol.REQUEST_HEADER];
+                in.get(input);
+                inFlight.incrementAndGet();
+                workers.execute(() -> complete(handleOrFail(id, flags, input)));
+            }
+            in.compact();
+            if (in.position() == 0 && in.capacity() > READ_BUFFER_SIZE) {
+                in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            }
+            updateInterest();
+        }
+
+        /**
+         * Queues a response; called on a worker thread.
+         */
+        void complete(ByteBuffer response) {
+            out.add(response);
+            ready.add(this);
+            selector.wakeup();
+        }
+
+        void write() throws IOException {
+            boolean written = false;
+            for (ByteBuffer buffer; (buffer = out.peek()) != null; ) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                out.poll();
+                inFlight.decrementAndGet();
+                written = true;
+            }
+            if (written && in.position() > 0) {
+                // Requests may be waiting in the buffer for room
+                startRequests();
+            } else {
+                updateInterest();
+            }
+        }
+
+        void updateInterest() {
+            if (closed) {
+                return;
+            }
+            if (inputClosed && inFlight.get() == 0) {
+                close();
+                return;
+            }
+            int ops = out.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+            if (!inputClosed && inFlight.get() < maxInFlight) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to do with it
+            }
+        }
+    }
+}
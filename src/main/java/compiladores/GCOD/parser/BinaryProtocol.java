@@ -0,0 +1,49 @@
+package compiladores.GCOD.parser;
+
+/**
+ * Constants of the binary protocol spoken by {@link BinaryParserServer} and
+ * {@link BinaryParserClient}.
+ *
+ * Every frame starts with its length as a 4 byte big-endian integer, not counting
+ * those 4 bytes, followed by the request id the client chose. A client may send any
+ * number of requests without waiting for their responses; responses carry the id of
+ * their request and can arrive in any order.
+ *
+ * <pre>
+ *   request:  length, id (int), flags (byte), input (UTF-8, the rest of the frame)
+ *   response: length, id (int), status (byte), diagnostic count (short),
+ *             diagnostics, tree (the rest of the frame, possibly empty)
+ *   diagnostic: code (byte), start (int), end (int), expected (int),
+ *               found (byte, 255 if none), line (int), column (int)
+ * </pre>
+ *
+ * Codes and found tokens are ordinals of {@link DiagnosticCode} and
+ * {@link TokenType}; expected is the bit mask of {@link Diagnostic#getExpectedMask()}.
+ * The tree is only sent for a successful parse whose request had {@link #WANT_TREE}
+ * set, as a stream in the {@link compiladores.GCOD.parser.ast.CompactTreeFormat}.
+ * A frame that is too short or longer than the server accepts ends the connection.
+ */
+public final class BinaryProtocol {
+
+    /** Request flag: send the syntax tree with the response. */
+    public static final int WANT_TREE = 1;
+
+    /** The input was parsed without errors. */
+    public static final int OK = 0;
+    /** The input has syntax errors, given by the diagnostics. */
+    public static final int SYNTAX_ERROR = 1;
+    /** The parse was stopped by a limit; the diagnostics say which. */
+    public static final int LIMIT_EXCEEDED = 2;
+    /** The server is too busy; the request was not parsed and may be retried. */
+    public static final int OVERLOADED = 3;
+    /** The server failed while handling the request; there are no diagnostics. */
+    public static final int INTERNAL_ERROR = 4;
+
+    static final int REQUEST_HEADER = 4 + 1;
+    static final int RESPONSE_HEADER = 4 + 1 + 2;
+    static final int DIAGNOSTIC_SIZE = 1 + 4 + 4 + 4 + 1 + 4 + 4;
+    static final int NO_TOKEN = 255;
+
+    private BinaryProtocol() {
+    }
+}
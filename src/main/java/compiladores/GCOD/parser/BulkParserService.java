@@ -0,0 +1,305 @@
+package compiladores.GCOD.parser;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses newline-delimited streams of expressions.
+ *
+ * Lines are read one at a time and parsed concurrently, with at most
+ * {@code windowSize} parses in flight. Results are written back in input order as
+ * one JSON object per line. Neither the request nor the response is buffered as a
+ * whole: when the window is full the reader waits for the oldest result to be
+ * written, so a slow client also slows down reading.
+ *
+ * The parses of a request count against {@link AdmissionControl} like any other:
+ * the permit the request was admitted with covers one parse at a time, and more
+ * run at once only while further permits are free.
+ */
+@Service
+public class BulkParserService {
+
+    // How long shutdown waits for the parses already started or queued
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ParserService parserService;
+    private final AdmissionControl admissionControl;
+    private final ParseLimits limits;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final int windowSize;
+    private final int poolSize;
+
+    public BulkParserService(ParserService parserService, AdmissionControl admissionControl,
+                             ParseLimits limits, ObjectMapper objectMapper,
+                             @Value("${gcod.bulk.window:256}") int windowSize,
+                             @Value("${gcod.bulk.threads:0}") int threads) {
+        this.parserService = parserService;
+        this.admissionControl = admissionControl;
+        this.limits = limits;
+        this.objectMapper = objectMapper;
+        this.windowSize = windowSize;
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-parser-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Parses every line of {@code in} and writes one result line per input line to {@code out}.
+     * Each line is either a JSON string, a JSON object with an {@code input} field, or the
+     * raw expression text. Blank lines are skipped. A line with more characters than the input
+     * size limit is never held in memory whole; it gets an {@link DiagnosticCode#INPUT_TOO_LARGE}
+     * result. The caller must hold one {@link AdmissionControl} permit, as requests let in by the
+     * {@link AdmissionInterceptor} do.
+     *
+     * @param in the newline-delimited request body
+     * @param out where the NDJSON results are written
+     */
+    public void parse(InputStream in, OutputStream out) throws IOException {
+        LineReader reader = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8),
+                limits.getMaxInputBytes());
+        ArrayDeque<Future<byte[]>> window = new ArrayDeque<>(windowSize);
+        // One slot per permit held; a parse takes a slot until it is done
+        Semaphore slots = new Semaphore(1);
+        int permits = 1;
+        long lineNumber = 0;
+        String line;
+
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!reader.isTooLong() && line.isBlank()) {
+                    continue;
+                }
+                if (window.size() == windowSize) {
+                    write(window.removeFirst(), out);
+                }
+                if (reader.isTooLong()) {
+                    window.addLast(CompletableFuture.completedFuture(
+                            encode(lineNumber, parserService.inputTooLarge())));
+                    continue;
+                }
+                if (!slots.tryAcquire()) {
+                    if (permits < poolSize && admissionControl.tryEnter()) {
+                        permits++;
+                    } else {
+                        slots.acquireUninterruptibly();
+                    }
+                }
+                String text = line;
+                long number = lineNumber;
+                // The slot is given back however the task ends, even if it is cancelled unrun
+                Callable<byte[]> parse = () -> encode(number, parserService.parse(decode(text)));
+                FutureTask<byte[]> task = new FutureTask<>(parse) {
+                    @Override
+                    protected void done() {
+                        slots.release();
+                    }
+                };
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    slots.release();
+                    throw new IOException("Bulk parsing is shutting down", e);
+                }
+                window.addLast(task);
+            }
+
+            while (!window.isEmpty()) {
+                write(window.removeFirst(), out);
+            }
+            out.flush();
+        } finally {
+            // Wait for the parses still running, then give back the permits taken here
+            slots.acquireUninterruptibly(permits);
+            for (int i = 1; i < permits; i++) {
+                admissionControl.exit();
+            }
+        }
+    }
+
+    private String decode(String line) {
+        char first = line.charAt(0);
+        if (first != '"' && first != '{') {
+            return line;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.isTextual()) {
+                return node.asText();
+            }
+            if (node.hasNonNull("input")) {
+                return node.get("input").asText();
+            }
+        } catch (JsonProcessingException e) {
+            // Not JSON after all, parse the line as it is
+        }
+        return line;
+    }
+
+    private byte[] encode(long line, ParserService.ParserResult result) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new BulkParserResult(line, result));
+    }
+
+    private void write(Future<byte[]> pending, OutputStream out) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a parse result", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Parse failed", e.getCause());
+        } catch (CancellationException e) {
+            throw new IOException("Bulk parsing was shut down", e);
+        }
+        out.write(bytes);
+        out.write('\n');
+    }
+
+    /**
+     * Lets the parses already started or queued finish, so the requests waiting for
+     * them can complete. Whatever is still queued after the timeout is cancelled,
+     * which ends those requests with an error. Running parses are not interrupted.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            List<Runnable> queued = new ArrayList<>();
+            executor.getQueue().drainTo(queued);
+            for (Runnable task : queued) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Reads lines like {@link java.io.BufferedReader#readLine()}, but keeps at most
+     * {@code maxChars} characters of a line. The rest of a longer line is read and
+     * dropped, and {@link #isTooLong()} tells that the line was cut.
+     */
+    static final class LineReader {
+        private final Reader reader;
+        private final int maxChars;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean tooLong;
+
+        LineReader(Reader reader, int maxChars) {
+            this.reader = reader;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * Returns the next line without its terminator, or null at the end of input.
+         * Only the first {@code maxChars} characters are returned of a longer line.
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return read ? line.toString() : null;
+                    }
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    skipLineFeed = buffer[position] == '\r';
+                    position++;
+                    return line.toString();
+                }
+            }
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int start, int end) {
+            int room = maxChars - line.length();
+            if (end - start > room) {
+                tooLong = true;
+                end = start + Math.max(room, 0);
+            }
+            line.append(buffer, start, end - start);
+        }
+    }
+
+    /**
+     * One NDJSON result line: the input line number plus the usual parse result fields.
+     */
+    public static class BulkParserResult {
+        private final long line;
+        private final ParserService.ParserResult result;
+
+        public BulkParserResult(long line, ParserService.ParserResult result) {
+            this.line = line;
+            this.result = result;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        @JsonUnwrapped
+        public ParserService.ParserResult getResult() {
+            return result;
+        }
+    }
+}
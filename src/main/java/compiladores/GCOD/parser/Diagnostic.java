@@ -0,0 +1,177 @@
+package compiladores.GCOD.parser;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A syntax error reported by the parser.
+ *
+ * Only the raw facts are stored (code, offset span, expected tokens as a bit mask
+ * over {@link TokenType} ordinals and the token that was found). The human-readable
+ * text is formatted on demand by {@link #getMessage()}.
+ */
+public final class Diagnostic {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final DiagnosticCode code;
+    private final int start;
+    private final int end;
+    private final int expected;
+    private final TokenType found;
+    private final String foundText;
+    private final int line;
+    private final int column;
+
+    public Diagnostic(DiagnosticCode code, int start, int end, int expected,
+                      TokenType found, String foundText, int line, int column) {
+        this.code = code;
+        this.start = start;
+        this.end = end;
+        this.expected = expected;
+        this.found = found;
+        this.foundText = foundText;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Creates a diagnostic located at the given token.
+     */
+    static Diagnostic at(Token token, DiagnosticCode code, int expected) {
+        return new Diagnostic(code, token.getOffset(), token.getEndOffset(), expected,
+                token.getType(), token.getValue(), token.getLine(), token.getColumn());
+    }
+
+    /**
+     * Builds a bit mask with one bit per token type.
+     */
+    public static int mask(TokenType... types) {
+        int mask = 0;
+        for (TokenType type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    public DiagnosticCode getCode() {
+        return code;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public Set<TokenType> getExpected() {
+        Set<TokenType> types = EnumSet.noneOf(TokenType.class);
+        for (TokenType type : TOKEN_TYPES) {
+            if ((expected & (1 << type.ordinal())) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    @JsonIgnore
+    public int getExpectedMask() {
+        return expected;
+    }
+
+    public TokenType getFound() {
+        return found;
+    }
+
+    public String getFoundText() {
+        return foundText;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Formats the human-readable error line. Nothing is formatted until this is called.
+     *
+     * @return the message, without a trailing line break
+     */
+    @JsonIgnore
+    public String getMessage() {
+        return getMessage(1);
+    }
+
+    /**
+     * Formats the error line for an input that starts at line {@code firstLine} of a
+     * larger text, such as one line of a file.
+     *
+     * @return the message, without a trailing line break
+     */
+    public String getMessage(int firstLine) {
+        return String.format("Error at line %d, column %d: %s", firstLine + line - 1, column, describe());
+    }
+
+    private String describe() {
+        switch (code) {
+            case EXPECTED_TOKEN:
+                return String.format("Expected '%s', found '%s'", firstExpected(), foundText);
+            case EXPECTED_OPERAND:
+                return "Expected '(' or identifier, found: " + foundText;
+            case INVALID_TOKEN:
+                return "Invalid token: " + foundText;
+            case UNCLOSED_PARENTHESIS:
+                return "Expected ')', found: " + foundText;
+            case TRAILING_INPUT:
+                return "Expected end of input, but found: " + foundText;
+            case INPUT_TOO_LARGE:
+                return "Input is too large";
+            case TOO_MANY_TOKENS:
+                return "Too many tokens, stopped at: " + foundText;
+            case TOO_DEEP:
+                return "Parentheses nested too deeply";
+            case TOO_MANY_NODES:
+                return "Syntax tree is too large";
+            case DEADLINE_EXCEEDED:
+                return "Parse took too long, stopped at: " + foundText;
+            case CANCELLED:
+                return "Parse was cancelled";
+            default:
+                return code.name();
+        }
+    }
+
+    private TokenType firstExpected() {
+        return expected == 0 ? null : TOKEN_TYPES[Integer.numberOfTrailingZeros(expected)];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Diagnostic other = (Diagnostic) obj;
+        return code == other.code && start == other.start && end == other.end
+                && expected == other.expected && found == other.found
+                && line == other.line && column == other.column
+                && foundText.equals(other.foundText);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = code.hashCode();
+        result = 31 * result + start;
+        result = 31 * result + expected;
+        return 31 * result + line * 31 + column;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,27 @@
+package compiladores.GCOD.parser;
+
+/**
+ * Kinds of syntax errors reported by the parser.
+ */
+public enum DiagnosticCode {
+    EXPECTED_TOKEN,       // A specific token was required by consume()
+    EXPECTED_OPERAND,     // Expected '(' or identifier
+    INVALID_TOKEN,        // The lexer produced an ERROR token
+    UNCLOSED_PARENTHESIS, // Expected ')'
+    TRAILING_INPUT,       // Expected end of input
+    INPUT_TOO_LARGE,      // The input is longer than ParseLimits allows
+    TOO_MANY_TOKENS,      // More tokens than ParseLimits allows
+    TOO_DEEP,             // Parentheses nested deeper than ParseLimits allows
+    TOO_MANY_NODES,       // More syntax tree nodes than ParseLimits allows
+    DEADLINE_EXCEEDED,    // The parse took longer than ParseLimits allows
+    CANCELLED;            // The parse was cancelled, or its thread interrupted
+
+    /**
+     * Returns true if this code reports a parse that was stopped, by an exceeded
+     * resource limit or by cancellation, rather than a syntax error; the input itself
+     * may be well formed.
+     */
+    public boolean isLimit() {
+        return ordinal() >= INPUT_TOO_LARGE.ordinal();
+    }
+}
@@ -0,0 +1,484 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A parser for the same grammar as {@link Parser} that is fed its input in chunks as
+ * they arrive, instead of needing the whole input up front:
+ *
+ * <pre>
+ *   IncrementalParser parser = new IncrementalParser();
+ *   parser.feed(chunk);            // any number of times
+ *   ExpressionNode ast = parser.endOfInput();
+ * </pre>
+ *
+ * Each chunk is lexed and parsed right away, and nothing of it is kept afterwards: a
+ * token cut by the end of a chunk, such as the first {@code <} of {@code <<} or the
+ * start of an identifier, is carried over to the next one, and the parser keeps its
+ * position in the grammar as an explicit stack with one frame per open parenthesis.
+ * Memory is therefore bounded by the syntax tree being built, not by the input.
+ *
+ * The tree, the diagnostics and the limits behave exactly as with {@link Parser} on
+ * the concatenated input. The deadline of the limits starts with the first chunk, so
+ * it includes the time spent waiting for the input. Once an error is found the rest
+ * of the input is ignored; {@link #isFinished()} tells the caller it can stop reading.
+ * Not thread-safe, and not reusable: create one per input.
+ */
+public class IncrementalParser {
+    private static final int OPERATORS = Diagnostic.mask(
+            TokenType.PLUS, TokenType.MINUS, TokenType.LEFT_SHIFT, TokenType.RIGHT_SHIFT);
+    private static final int OPERAND = Diagnostic.mask(TokenType.LPAREN, TokenType.ID);
+
+    private static final int READ_CHUNK = 8192;
+
+    // Lexer states between characters
+    private static final int LEX_START = 0;
+    private static final int LEX_IDENTIFIER = 1;
+    private static final int LEX_LESS = 2;
+    private static final int LEX_GREATER = 3;
+
+    // Parser states between tokens, named after what was just read
+    private static final int EXPECT_OPERAND = 0;
+    private static final int AFTER_IDENTIFIER = 1;
+    private static final int AFTER_PARENTHESIS = 2;
+    private static final int AFTER_FACTOR = 3;
+    private static final int AFTER_TERM = 4;
+    private static final int DONE = 5;
+    private static final int FAILED = 6;
+
+    private NodeFactory nodeFactory = NodeFactory.DEFAULT;
+    private ParseLimits limits = ParseLimits.NONE;
+    private long deadline;
+
+    // Lexer: position of the next character, and the start of a token cut by a chunk end
+    private int lexState = LEX_START;
+    private int offset;
+    private int line = 1;
+    private int column = 1;
+    private int tokenOffset;
+    private int tokenLine;
+    private int tokenColumn;
+    private final StringBuilder identifier = new StringBuilder();
+
+    // Parser: one frame per nesting level, holding the left operand and the pending
+    // operator of E' and of T'
+    private int state = EXPECT_OPERAND;
+    private int depth;
+    private ExpressionNode[] expressions = new ExpressionNode[8];
+    private String[] expressionOperators = new String[8];
+    private ExpressionNode[] terms = new ExpressionNode[8];
+    private String[] termOperators = new String[8];
+    // The factor read last, completed when the token after it arrives
+    private String pendingIdentifier;
+    private ExpressionNode pendingExpression;
+    private ExpressionNode result;
+    private boolean ended;
+
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private int tokenCount;
+    private int nodeCount;
+
+    /**
+     * Sets the factory used to create the nodes of the syntax tree.
+     *
+     * @param nodeFactory the node factory
+     */
+    public void setNodeFactory(NodeFactory nodeFactory) {
+        this.nodeFactory = nodeFactory;
+    }
+
+    /**
+     * Sets the limits enforced while parsing. Must be called before the first chunk.
+     *
+     * @param limits the limits
+     */
+    public void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Lexes and parses a chunk of the input. All of the buffer's remaining characters
+     * are consumed, and the buffer may be reused as soon as this returns.
+     *
+     * @param chunk the next characters of the input
+     * @throws IllegalStateException if {@link #endOfInput()} was already called
+     */
+    public void feed(CharBuffer chunk) {
+        if (ended) {
+            throw new IllegalStateException("The end of the input was already reached");
+        }
+        if (deadline == 0) {
+            deadline = limits.deadline();
+        }
+        int end = chunk.limit();
+        for (int i = chunk.position(); i < end && state != FAILED; i++) {
+            lex(chunk.get(i));
+        }
+        chunk.position(end);
+    }
+
+    /**
+     * Marks the end of the input and finishes the parse.
+     *
+     * @return the syntax tree, or null if the input has errors
+     */
+    public ExpressionNode endOfInput() {
+        ended = true;
+        if (state == DONE || state == FAILED) {
+            return result;
+        }
+        if (deadline == 0) {
+            deadline = limits.deadline();
+        }
+        finishToken();
+        if (state != FAILED) {
+            push(new Token(TokenType.EOF, "", line, column, offset));
+        }
+        return result;
+    }
+
+    /**
+     * Feeds the whole content of a reader, then finishes the parse. Stops reading at
+     * the first error.
+     *
+     * @return the syntax tree, or null if the input has errors
+     */
+    public ExpressionNode parse(Reader reader) throws IOException {
+        CharBuffer buffer = CharBuffer.allocate(READ_CHUNK);
+        while (!isFinished() && reader.read(buffer) >= 0) {
+            buffer.flip();
+            feed(buffer);
+            buffer.clear();
+        }
+        return endOfInput();
+    }
+
+    /**
+     * Returns true once the parse has an outcome: it failed, or the end of the input
+     * was reached. Further input would not change it.
+     */
+    public boolean isFinished() {
+        return state == DONE || state == FAILED;
+    }
+
+    /**
+     * Returns the diagnostics found so far. They are final once an error is found.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Returns the number of tokens consumed so far, not counting the end of input.
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Returns the number of syntax tree nodes created so far.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of characters fed so far.
+     */
+    public int getCharCount() {
+        return offset;
+    }
+
+    // Same tokens as the Lexer, one character at a time
+
+    private void lex(char c) {
+        switch (lexState) {
+            case LEX_IDENTIFIER:
+                if (Character.isLetterOrDigit(c) || c == '_') {
+                    identifier.append(c);
+                    advance();
+                    return;
+                }
+                finishToken();
+                break;
+            case LEX_LESS:
+            case LEX_GREATER:
+                if (c == (lexState == LEX_LESS ? '<' : '>')) {
+                    push(lexState == LEX_LESS
+                            ? new Token(TokenType.LEFT_SHIFT, "<<", tokenLine, tokenColumn, tokenOffset)
+                            : new Token(TokenType.RIGHT_SHIFT, ">>", tokenLine, tokenColumn, tokenOffset));
+                    lexState = LEX_START;
+                    advance();
+                    return;
+                }
+                finishToken();
+                break;
+            default:
+                break;
+        }
+        if (state == FAILED) {
+            return;
+        }
+
+        switch (c) {
+            case ' ':
+            case '\t':
+                advance();
+                break;
+            case '\n':
+                offset++;
+                line++;
+                column = 1;
+                break;
+            case '(':
+                push(new Token(TokenType.LPAREN, "(", line, column, offset));
+                advance();
+                break;
+            case ')':
+                push(new Token(TokenType.RPAREN, ")", line, column, offset));
+                advance();
+                break;
+            case '+':
+                push(new Token(TokenType.PLUS, "+", line, column, offset));
+                advance();
+                break;
+            case '-':
+                push(new Token(TokenType.MINUS, "-", line, column, offset));
+                advance();
+                break;
+            case '<':
+            case '>':
+                markToken();
+                lexState = c == '<' ? LEX_LESS : LEX_GREATER;
+                advance();
+                break;
+            default:
+                if (Character.isLetter(c)) {
+                    markToken();
+                    identifier.append(c);
+                    lexState = LEX_IDENTIFIER;
+                } else {
+                    push(new Token(TokenType.ERROR, String.valueOf(c), line, column, offset));
+                }
+                advance();
+                break;
+        }
+    }
+
+    private void markToken() {
+        tokenOffset = offset;
+        tokenLine = line;
+        tokenColumn = column;
+    }
+
+    private void advance() {
+        offset++;
+        column++;
+    }
+
+    // Emits the token under way, if any; a lone '<' or '>' is an error token
+    private void finishToken() {
+        switch (lexState) {
+            case LEX_IDENTIFIER:
+                push(new Token(TokenType.ID, identifier.toString(), tokenLine, tokenColumn, tokenOffset));
+                identifier.setLength(0);
+                break;
+            case LEX_LESS:
+                push(new Token(TokenType.ERROR, "<", tokenLine, tokenColumn, tokenOffset));
+                break;
+            case LEX_GREATER:
+                push(new Token(TokenType.ERROR, ">", tokenLine, tokenColumn, tokenOffset));
+                break;
+            default:
+                return;
+        }
+        lexState = LEX_START;
+    }
+
+    // The Parser's steps, taken while the given token is the current one. A factor is
+    // only completed when the token after it arrives, since that is the token the
+    // Parser's node limit check would report.
+
+    private void push(Token token) {
+        TokenType type = token.getType();
+        try {
+            while (true) {
+                switch (state) {
+                    // F → ( E ) | id
+                    case EXPECT_OPERAND:
+                        switch (type) {
+                            case LPAREN:
+                                if (depth == limits.getMaxDepth()) {
+                                    throw new SyntaxError(DiagnosticCode.TOO_DEEP, 0);
+                                }
+                                consume();
+                                enterParenthesis();
+                                return;
+                            case ID:
+                                consume();
+                                pendingIdentifier = token.getValue();
+                                state = AFTER_IDENTIFIER;
+                                return;
+                            case ERROR:
+                                throw new SyntaxError(DiagnosticCode.INVALID_TOKEN, OPERAND);
+                            default:
+                                throw new SyntaxError(DiagnosticCode.EXPECTED_OPERAND, OPERAND);
+                        }
+
+                    case AFTER_IDENTIFIER:
+                        countNode();
+                        addFactor(nodeFactory.identifier(pendingIdentifier));
+                        pendingIdentifier = null;
+                        break;
+
+                    case AFTER_PARENTHESIS:
+                        countNode();
+                        addFactor(nodeFactory.parenthesized(pendingExpression));
+                        pendingExpression = null;
+                        break;
+
+                    // T' → + F T' | - F T' | ε
+                    case AFTER_FACTOR:
+                        if (type == TokenType.PLUS || type == TokenType.MINUS) {
+                            consume();
+                            termOperators[depth] = token.getValue();
+                            state = EXPECT_OPERAND;
+                            return;
+                        }
+                        addTerm();
+                        break;
+
+                    // E' → << T E' | >> T E' | ε
+                    case AFTER_TERM:
+                        if (type == TokenType.LEFT_SHIFT || type == TokenType.RIGHT_SHIFT) {
+                            consume();
+                            expressionOperators[depth] = token.getValue();
+                            state = EXPECT_OPERAND;
+                            return;
+                        }
+                        ExpressionNode expression = expressions[depth];
+                        expressions[depth] = null;
+                        if (depth == 0) {
+                            if (type != TokenType.EOF) {
+                                throw new SyntaxError(DiagnosticCode.TRAILING_INPUT,
+                                        OPERATORS | Diagnostic.mask(TokenType.EOF));
+                            }
+                            result = expression;
+                            state = DONE;
+                            return;
+                        }
+                        depth--;
+                        if (type != TokenType.RPAREN) {
+                            throw new SyntaxError(DiagnosticCode.UNCLOSED_PARENTHESIS,
+                                    OPERATORS | Diagnostic.mask(TokenType.RPAREN));
+                        }
+                        consume();
+                        pendingExpression = expression;
+                        state = AFTER_PARENTHESIS;
+                        return;
+
+                    default:
+                        return;
+                }
+            }
+        } catch (SyntaxError e) {
+            diagnostics.add(Diagnostic.at(token, e.code, e.expected));
+            fail();
+        }
+    }
+
+    private void enterParenthesis() {
+        depth++;
+        if (depth == expressions.length) {
+            int length = depth * 2;
+            expressions = Arrays.copyOf(expressions, length);
+            expressionOperators = Arrays.copyOf(expressionOperators, length);
+            terms = Arrays.copyOf(terms, length);
+            termOperators = Arrays.copyOf(termOperators, length);
+        }
+        state = EXPECT_OPERAND;
+    }
+
+    private void addFactor(ExpressionNode factor) throws SyntaxError {
+        String operator = termOperators[depth];
+        if (operator == null) {
+            terms[depth] = factor;
+        } else {
+            countNode();
+            terms[depth] = nodeFactory.binary(terms[depth], operator, factor);
+            termOperators[depth] = null;
+        }
+        state = AFTER_FACTOR;
+    }
+
+    private void addTerm() throws SyntaxError {
+        ExpressionNode term = terms[depth];
+        terms[depth] = null;
+        String operator = expressionOperators[depth];
+        if (operator == null) {
+            expressions[depth] = term;
+        } else {
+            countNode();
+            expressions[depth] = nodeFactory.binary(expressions[depth], operator, term);
+            expressionOperators[depth] = null;
+        }
+        state = AFTER_TERM;
+    }
+
+    // Drops the partial tree; only the diagnostics are kept
+    private void fail() {
+        state = FAILED;
+        result = null;
+        pendingIdentifier = null;
+        pendingExpression = null;
+        Arrays.fill(expressions, null);
+        Arrays.fill(terms, null);
+        identifier.setLength(0);
+        lexState = LEX_START;
+    }
+
+    private void consume() throws SyntaxError {
+        if (tokenCount == limits.getMaxTokens()) {
+            throw new SyntaxError(DiagnosticCode.TOO_MANY_TOKENS, 0);
+        }
+        tokenCount++;
+        if (tokenCount % ParseLimits.DEADLINE_CHECK_INTERVAL == 0) {
+            checkDeadline();
+        }
+    }
+
+    private void checkDeadline() throws SyntaxError {
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new SyntaxError(DiagnosticCode.DEADLINE_EXCEEDED, 0);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new SyntaxError(DiagnosticCode.CANCELLED, 0);
+        }
+    }
+
+    private void countNode() throws SyntaxError {
+        if (nodeCount == limits.getMaxNodes()) {
+            throw new SyntaxError(DiagnosticCode.TOO_MANY_NODES, 0);
+        }
+        nodeCount++;
+    }
+
+    private static class SyntaxError extends Exception {
+        private final DiagnosticCode code;
+        private final int expected;
+
+        SyntaxError(DiagnosticCode code, int expected) {
+            super(null, null, false, false);
+            this.code = code;
+            this.expected = expected;
+        }
+    }
+}
@@ -3,14 +3,24 @@ package compiladores.GCOD.parser;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Lexer {
-    private final String input;
+public class Lexer implements TokenStream {
+    private CharSequence input;
     private int position;
     private int line;
     private int column;
     private Token currentToken;
 
-    public Lexer(String input) {
+    public Lexer(CharSequence input) {
+        reset(input);
+    }
+
+    /**
+     * Points this lexer at a new input and reads its first token, so the same
+     * instance can be reused across inputs.
+     *
+     * @param input the text to tokenize
+     */
+    public void reset(CharSequence input) {
         this.input = input;
         this.position = 0;
         this.line = 1;
@@ -18,15 +28,17 @@ public class Lexer {
         nextToken(); // Initialize with the first token
     }
 
+    @Override
     public Token getCurrentToken() {
         return currentToken;
     }
 
+    @Override
     public void nextToken() {
         skipWhitespace();
 
         if (position >= input.length()) {
-            currentToken = new Token(TokenType.EOF, "", line, column);
+            currentToken = new Token(TokenType.EOF, "", line, column, position);
             return;
         }
 
@@ -34,38 +46,38 @@ public class Lexer {
 
         switch (c) {
             case '(':
-                currentToken = new Token(TokenType.LPAREN, "(", line, column);
+                currentToken = new Token(TokenType.LPAREN, "(", line, column, position);
                 advance();
                 break;
             case ')':
-                currentToken = new Token(TokenType.RPAREN, ")", line, column);
+                currentToken = new Token(TokenType.RPAREN, ")", line, column, position);
                 advance();
                 break;
             case '+':
-                currentToken = new Token(TokenType.PLUS, "+", line, column);
+                currentToken = new Token(TokenType.PLUS, "+", line, column, position);
                 advance();
                 break;
             case '-':
-                currentToken = new Token(TokenType.MINUS, "-", line, column);
+                currentToken = new Token(TokenType.MINUS, "-", line, column, position);
                 advance();
                 break;
             case '<':
                 if (peek(1) == '<') {
-                    currentToken = new Token(TokenType.LEFT_SHIFT, "<<", line, column);
+                    currentToken = new Token(TokenType.LEFT_SHIFT, "<<", line, column, position);
                     advance();
                     advance();
                 } else {
-                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column);
+                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column, position);
                     advance();
                 }
                 break;
             case '>':
                 if (peek(1) == '>') {
-                    currentToken = new Token(TokenType.RIGHT_SHIFT, ">>", line, column);
+                    currentToken = new Token(TokenType.RIGHT_SHIFT, ">>", line, column, position);
                     advance();
                     advance();
                 } else {
-                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column);
+                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column, position);
                     advance();
                 }
                 break;
@@ -80,10 +92,10 @@ public class Lexer {
                         advance();
                     }
                     
-                    String identifier = input.substring(startPos, position);
-                    currentToken = new Token(TokenType.ID, identifier, line, startCol);
+                    String identifier = input.subSequence(startPos, position).toString();
+                    currentToken = new Token(TokenType.ID, identifier, line, startCol, startPos);
                 } else {
-                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column);
+                    currentToken = new Token(TokenType.ERROR, String.valueOf(c), line, column, position);
                     advance();
                 }
                 break;
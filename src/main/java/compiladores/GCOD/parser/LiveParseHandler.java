@@ -0,0 +1,202 @@
+package compiladores.GCOD.parser;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket endpoint for parsing as the user types.
+ *
+ * Clients send {@code {"revision": n, "input": "..."}} with increasing revisions and
+ * get back the usual parse result fields plus the revision. The updates of a session
+ * are coalesced: a parse only starts once no newer update has arrived for
+ * {@code debounceMillis}, a newer update cancels the parse in flight (the
+ * {@link Parser} polls the session's revision as it goes), and a result is only sent
+ * if it is still for the latest revision. Older revisions are dropped without a reply.
+ *
+ * Parses are never interrupted: an interrupt during the disk cache's file I/O would
+ * close its channel for every other request.
+ */
+@Component
+public class LiveParseHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveParseHandler.class);
+    private static final String STATE = LiveParseHandler.class.getName() + ".state";
+
+    private static final int SEND_TIME_LIMIT_MILLIS = 5000;
+    private static final int SEND_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    private final ParserService parserService;
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+    private final long debounceMillis;
+    private final ScheduledThreadPoolExecutor executor;
+
+    public LiveParseHandler(ParserService parserService, AdmissionControl admissionControl,
+                            ObjectMapper objectMapper,
+                            @Value("${gcod.live.debounce-ms:150}") long debounceMillis,
+                            @Value("${gcod.live.threads:0}") int threads) {
+        this.parserService = parserService;
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+        this.debounceMillis = debounceMillis;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "live-parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Superseded updates are cancelled all the time; do not keep them queued until their delay
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession concurrent =
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_BYTES);
+        session.getAttributes().put(STATE, new LiveSession(concurrent));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        JsonNode update;
+        try {
+            update = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            session.close(CloseStatus.BAD_DATA.withReason("Expected a JSON object"));
+            return;
+        }
+        long revision = update.path("revision").asLong(-1);
+        JsonNode input = update.get("input");
+        if (revision < 0 || input == null || !input.isTextual()) {
+            session.close(CloseStatus.BAD_DATA.withReason("Expected revision and input"));
+            return;
+        }
+        ((LiveSession) session.getAttributes().get(STATE)).update(revision, input.asText());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        LiveSession state = (LiveSession) session.getAttributes().remove(STATE);
+        if (state != null) {
+            state.close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The latest revision of one session and the task that parses it.
+     */
+    private final class LiveSession {
+        private final WebSocketSession session;
+        private long revision = -1;
+        private Future<?> task;
+        private boolean closed;
+
+        LiveSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        synchronized void update(long newRevision, String input) {
+            if (closed || newRevision <= revision) {
+                return;
+            }
+            revision = newRevision;
+            if (task != null) {
+                task.cancel(false);
+            }
+            schedule(newRevision, input);
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        private void schedule(long scheduledRevision, String input) {
+            task = executor.schedule(() -> parse(scheduledRevision, input), debounceMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized boolean isLatest(long parsedRevision) {
+            return !closed && parsedRevision == revision;
+        }
+
+        private void parse(long parsedRevision, String input) {
+            if (!isLatest(parsedRevision)) {
+                return;
+            }
+            if (admissionControl.enter() != AdmissionControl.Admission.ADMITTED) {
+                // Try again later, unless a newer revision has come in meanwhile
+                synchronized (this) {
+                    if (isLatest(parsedRevision)) {
+                        schedule(parsedRevision, input);
+                    }
+                }
+                return;
+            }
+            ParserService.ParserResult result;
+            try {
+                result = parserService.parse(input, () -> !isLatest(parsedRevision));
+            } finally {
+                admissionControl.exit();
+            }
+
+            // A newer revision may have arrived during the parse
+            if (!isLatest(parsedRevision)) {
+                return;
+            }
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(new LiveParseResult(parsedRevision, result));
+                session.sendMessage(new TextMessage(json));
+            } catch (IOException e) {
+                log.debug("Could not send live parse result to session {}", session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * One live result: the revision plus the usual parse result fields.
+     */
+    public static class LiveParseResult {
+        private final long revision;
+        private final ParserService.ParserResult result;
+
+        public LiveParseResult(long revision, ParserService.ParserResult result) {
+            this.revision = revision;
+            this.result = result;
+        }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        @JsonUnwrapped
+        public ParserService.ParserResult getResult() {
+            return result;
+        }
+    }
+}
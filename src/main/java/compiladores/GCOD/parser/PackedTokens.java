@@ -0,0 +1,90 @@
+package compiladores.GCOD.parser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The tokens of an input kept in parallel arrays instead of one {@link Token} object
+ * each: the type, offset, line and column of every token, about 13 bytes per token.
+ * The text of a token is read back from the input when a {@link Token} is asked for,
+ * so the input must not change while this list is in use.
+ *
+ * The list holds the same tokens as {@link Lexer#tokenize()}, ending with the EOF
+ * token, and can be given to a {@link TokenListStream} for the {@link Parser}. Code
+ * that only looks at token types can use {@link #getType(int)} and avoid creating
+ * Token objects. Built by {@link ParallelLexer}.
+ */
+public final class PackedTokens extends AbstractList<Token> implements RandomAccess {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final CharSequence input;
+    private final byte[] types;
+    private final int[] offsets;
+    private final int[] lines;
+    private final int[] columns;
+
+    PackedTokens(CharSequence input, byte[] types, int[] offsets, int[] lines, int[] columns) {
+        this.input = input;
+        this.types = types;
+        this.offsets = offsets;
+        this.lines = lines;
+        this.columns = columns;
+    }
+
+    @Override
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Creates the token at the given index.
+     */
+    @Override
+    public Token get(int index) {
+        int offset = offsets[index];
+        return new Token(getType(index), text(index, offset), lines[index], columns[index], offset);
+    }
+
+    public TokenType getType(int index) {
+        return TOKEN_TYPES[types[index]];
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    private String text(int index, int offset) {
+        switch (getType(index)) {
+            case ID:
+                int end = offset + 1;
+                while (end < input.length() && ParallelLexer.isIdentifierPart(input.charAt(end))) {
+                    end++;
+                }
+                return input.subSequence(offset, end).toString();
+            case PLUS:
+                return "+";
+            case MINUS:
+                return "-";
+            case LEFT_SHIFT:
+                return "<<";
+            case RIGHT_SHIFT:
+                return ">>";
+            case LPAREN:
+                return "(";
+            case RPAREN:
+                return ")";
+            case ERROR:
+                return String.valueOf(input.charAt(offset));
+            default:
+                return "";
+        }
+    }
+}
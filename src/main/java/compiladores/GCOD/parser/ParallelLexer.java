@@ -0,0 +1,265 @@
+package compiladores.GCOD.parser;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tokenizes one very large input on several cores, producing exactly the tokens of
+ * {@link Lexer#tokenize()} as {@link PackedTokens}.
+ *
+ * The input is cut into chunks of about {@code chunkChars} characters, each ending
+ * just before a space, tab or line break. No token contains one, and the lexer
+ * never looks past one to finish a token, so every chunk can be tokenized on its
+ * own. The chunks are tokenized concurrently into packed arrays with lines counted
+ * from the start of the chunk. A prefix sum over the newline counts of the chunks,
+ * and a prefix maximum over the offset of their last line break, then give the line
+ * and column each chunk starts at, and a second concurrent pass fixes up the
+ * positions while copying every chunk to its place in the result. An input without
+ * whitespace is a single chunk.
+ */
+public class ParallelLexer {
+    // Chunks are at least this many characters long
+    public static final int DEFAULT_CHUNK_CHARS = 1 << 16;
+
+    private static final byte ID = (byte) TokenType.ID.ordinal();
+    private static final byte PLUS = (byte) TokenType.PLUS.ordinal();
+    private static final byte MINUS = (byte) TokenType.MINUS.ordinal();
+    private static final byte LEFT_SHIFT = (byte) TokenType.LEFT_SHIFT.ordinal();
+    private static final byte RIGHT_SHIFT = (byte) TokenType.RIGHT_SHIFT.ordinal();
+    private static final byte LPAREN = (byte) TokenType.LPAREN.ordinal();
+    private static final byte RPAREN = (byte) TokenType.RPAREN.ordinal();
+    private static final byte EOF = (byte) TokenType.EOF.ordinal();
+    private static final byte ERROR = (byte) TokenType.ERROR.ordinal();
+
+    private final CharSequence input;
+    private final ForkJoinPool pool;
+    private final int chunkChars;
+
+    public ParallelLexer(CharSequence input, ForkJoinPool pool) {
+        this(input, pool, DEFAULT_CHUNK_CHARS);
+    }
+
+    public ParallelLexer(CharSequence input, ForkJoinPool pool, int chunkChars) {
+        this.input = input;
+        this.pool = pool;
+        this.chunkChars = Math.max(1, chunkChars);
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n';
+    }
+
+    public PackedTokens tokenize() {
+        Chunk[] chunks = split();
+        int count = chunks.length;
+        pool.invoke(new ChunksTask(chunks, 0, count, false));
+
+        // Inclusive prefixes over the chunks: tokens, line breaks and the offset of
+        // the last line break, which is -1 before the first one
+        int[] tokenEnds = new int[count];
+        int[] newlines = new int[count];
+        int[] lastNewlines = new int[count];
+        for (int i = 0; i < count; i++) {
+            tokenEnds[i] = chunks[i].count;
+            newlines[i] = chunks[i].newlines;
+            lastNewlines[i] = chunks[i].lastNewline;
+        }
+        Arrays.parallelPrefix(tokenEnds, Integer::sum);
+        Arrays.parallelPrefix(newlines, Integer::sum);
+        Arrays.parallelPrefix(lastNewlines, Math::max);
+
+        int total = count == 0 ? 0 : tokenEnds[count - 1];
+        byte[] types = new byte[total + 1];
+        int[] offsets = new int[total + 1];
+        int[] lines = new int[total + 1];
+        int[] columns = new int[total + 1];
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = chunks[i];
+            chunk.firstToken = i == 0 ? 0 : tokenEnds[i - 1];
+            chunk.firstLine = 1 + (i == 0 ? 0 : newlines[i - 1]);
+            chunk.lineStart = (i == 0 ? -1 : lastNewlines[i - 1]) + 1;
+            chunk.types = types;
+            chunk.offsets = offsets;
+            chunk.lines = lines;
+            chunk.columns = columns;
+        }
+        pool.invoke(new ChunksTask(chunks, 0, count, true));
+
+        // The end of input, after any trailing whitespace
+        types[total] = EOF;
+        offsets[total] = input.length();
+        lines[total] = 1 + (count == 0 ? 0 : newlines[count - 1]);
+        columns[total] = input.length() - (count == 0 ? -1 : lastNewlines[count - 1]);
+        return new PackedTokens(input, types, offsets, lines, columns);
+    }
+
+    private Chunk[] split() {
+        int length = input.length();
+        Chunk[] chunks = new Chunk[(int) Math.min((long) length / chunkChars + 1, Integer.MAX_VALUE)];
+        int count = 0;
+        int start = 0;
+        while (start < length) {
+            int end = (int) Math.min((long) start + chunkChars, length);
+            while (end < length && !isWhitespace(input.charAt(end))) {
+                end++;
+            }
+            chunks[count++] = new Chunk(start, end);
+            start = end;
+        }
+        return Arrays.copyOf(chunks, count);
+    }
+
+    /**
+     * One range of the input, with its tokens packed as the {@link Lexer} would
+     * produce them from a fresh start: lines count from 0, and columns of the tokens
+     * on that first line are left as offsets until the chunk's position is known.
+     */
+    private final class Chunk {
+        private final int start;
+        private final int end;
+        private byte[] chunkTypes;
+        private int[] chunkOffsets;
+        private int[] chunkLines;
+        private int[] chunkColumns;
+        private int count;
+        private int newlines;
+        private int lastNewline = -1;
+
+        // Set before the second pass
+        private int firstToken;
+        private int firstLine;
+        private int lineStart;
+        private byte[] types;
+        private int[] offsets;
+        private int[] lines;
+        private int[] columns;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        // Same rules as Lexer.nextToken
+        void tokenize() {
+            int capacity = Math.max(16, (end - start) / 4);
+            chunkTypes = new byte[capacity];
+            chunkOffsets = new int[capacity];
+            chunkLines = new int[capacity];
+            chunkColumns = new int[capacity];
+
+            int position = start;
+            while (position < end) {
+                char c = input.charAt(position);
+                switch (c) {
+                    case ' ':
+                    case '\t':
+                        position++;
+                        break;
+                    case '\n':
+                        newlines++;
+                        lastNewline = position;
+                        position++;
+                        break;
+                    case '(':
+                        add(LPAREN, position++);
+                        break;
+                    case ')':
+                        add(RPAREN, position++);
+                        break;
+                    case '+':
+                        add(PLUS, position++);
+                        break;
+                    case '-':
+                        add(MINUS, position++);
+                        break;
+                    case '<':
+                    case '>':
+                        if (position + 1 < end && input.charAt(position + 1) == c) {
+                            add(c == '<' ? LEFT_SHIFT : RIGHT_SHIFT, position);
+                            position += 2;
+                        } else {
+                            add(ERROR, position++);
+                        }
+                        break;
+                    default:
+                        if (Character.isLetter(c)) {
+                            add(ID, position++);
+                            while (position < end && isIdentifierPart(input.charAt(position))) {
+                                position++;
+                            }
+                        } else {
+                            add(ERROR, position++);
+                        }
+                        break;
+                }
+            }
+        }
+
+        private void add(byte type, int offset) {
+            if (count == chunkTypes.length) {
+                int capacity = count * 2;
+                chunkTypes = Arrays.copyOf(chunkTypes, capacity);
+                chunkOffsets = Arrays.copyOf(chunkOffsets, capacity);
+                chunkLines = Arrays.copyOf(chunkLines, capacity);
+                chunkColumns = Arrays.copyOf(chunkColumns, capacity);
+            }
+            chunkTypes[count] = type;
+            chunkOffsets[count] = offset;
+            chunkLines[count] = newlines;
+            chunkColumns[count] = newlines == 0 ? offset : offset - lastNewline;
+            count++;
+        }
+
+        void copyInto() {
+            System.arraycopy(chunkTypes, 0, types, firstToken, count);
+            System.arraycopy(chunkOffsets, 0, offsets, firstToken, count);
+            for (int i = 0; i < count; i++) {
+                int line = chunkLines[i];
+                lines[firstToken + i] = firstLine + line;
+                columns[firstToken + i] = line == 0 ? chunkColumns[i] - lineStart + 1 : chunkColumns[i];
+            }
+            chunkTypes = null;
+            chunkOffsets = null;
+            chunkLines = null;
+            chunkColumns = null;
+        }
+    }
+
+    /**
+     * Tokenizes chunks [from, to), or copies them into the result if {@code copy} is set.
+     */
+    private static class ChunksTask extends RecursiveAction {
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final boolean copy;
+
+        ChunksTask(Chunk[] chunks, int from, int to, boolean copy) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.copy = copy;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    if (copy) {
+                        chunks[i].copyInto();
+                    } else {
+                        chunks[i].tokenize();
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunksTask(chunks, from, middle, copy), new ChunksTask(chunks, middle, to, copy));
+        }
+    }
+}
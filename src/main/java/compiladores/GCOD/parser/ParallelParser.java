@@ -0,0 +1,337 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Parses one very large expression on several cores.
+ *
+ * The input is tokenized with the {@link ParallelLexer}, and the tokens are
+ * pre-scanned once to match parentheses. Each range is then split at its
+ * top-level operators: the {@code <<}/{@code >>} operators separate
+ * the E segments and the {@code +}/{@code -} operators separate the F operands
+ * inside them. The operands are parsed independently with fork-join (large
+ * parenthesized operands are split again the same way) and the results are folded
+ * back into the left-associative shape that {@code parseEPrime}/{@code parseTPrime}
+ * build, so the tree is identical to the one the sequential {@link Parser} returns.
+ *
+ * Inputs that are small or not well formed are handed to the sequential parser,
+ * which also produces the diagnostics. So are inputs that exceed the depth or node
+ * {@link ParseLimits}; the token limit is checked once the input is tokenized and the
+ * deadline is shared by all the tasks.
+ */
+public class ParallelParser {
+    // Ranges with fewer tokens than this are parsed sequentially
+    public static final int DEFAULT_CHUNK_TOKENS = 8192;
+
+    private final CharSequence input;
+    private final ForkJoinPool pool;
+    private final int chunkTokens;
+    private List<Diagnostic> diagnostics = List.of();
+    private NodeFactory nodeFactory = NodeFactory.DEFAULT;
+    private ParseLimits limits = ParseLimits.NONE;
+    private long deadline;
+    private BooleanSupplier cancelled;
+
+    private PackedTokens tokens;
+    private int[] matchingParen;
+
+    public ParallelParser(CharSequence input, ForkJoinPool pool) {
+        this(input, pool, DEFAULT_CHUNK_TOKENS);
+    }
+
+    public ParallelParser(CharSequence input, ForkJoinPool pool, int chunkTokens) {
+        this.input = input;
+        this.pool = pool;
+        this.chunkTokens = Math.max(1, chunkTokens);
+    }
+
+    /**
+     * Sets the factory used to create the nodes of the syntax tree.
+     *
+     * @param nodeFactory the node factory
+     */
+    public void setNodeFactory(NodeFactory nodeFactory) {
+        this.nodeFactory = nodeFactory;
+    }
+
+    /**
+     * Sets the limits enforced while parsing.
+     *
+     * @param limits the limits
+     */
+    public void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Sets a check for cancellation that every sequential parse polls, or null for none.
+     */
+    void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public ExpressionNode parse() {
+        deadline = limits.deadline();
+        tokens = new ParallelLexer(input, pool).tokenize();
+        int end = tokens.size() - 1; // Exclude EOF
+
+        if (end > limits.getMaxTokens()) {
+            diagnostics = List.of(Diagnostic.at(tokens.get(limits.getMaxTokens()), DiagnosticCode.TOO_MANY_TOKENS, 0));
+            return null;
+        }
+
+        if (end >= chunkTokens && prescan(end)) {
+            try {
+                RangeTask task = new RangeTask(0, end);
+                pool.invoke(task);
+                return task.result;
+            } catch (DeadlineExceededException e) {
+                diagnostics = List.of(Diagnostic.at(tokens.get(e.position), DiagnosticCode.DEADLINE_EXCEEDED, 0));
+                return null;
+            } catch (MalformedRangeException e) {
+                // Fall through, the sequential parser reports the error
+            }
+        }
+
+        Parser parser = new Parser(new TokenListStream(tokens));
+        parser.setNodeFactory(nodeFactory);
+        parser.setLimits(limits);
+        parser.setDeadline(deadline);
+        parser.setCancellation(cancelled);
+        ExpressionNode result = parser.parse();
+        diagnostics = parser.getDiagnostics();
+        return result;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Matches every parenthesis. Returns false if the input contains an invalid
+     * token or unbalanced parentheses, or would exceed the depth or node limits.
+     */
+    private boolean prescan(int end) {
+        matchingParen = new int[end];
+        int[] open = new int[16];
+        int depth = 0;
+        // Every identifier, operator and pair of parentheses becomes one node
+        long nodes = 0;
+
+        for (int i = 0; i < end; i++) {
+            switch (tokens.getType(i)) {
+                case LPAREN:
+                    if (depth == limits.getMaxDepth()) {
+                        return false;
+                    }
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = i;
+                    break;
+                case RPAREN:
+                    if (depth == 0) {
+                        return false;
+                    }
+                    matchingParen[open[--depth]] = i;
+                    nodes++;
+                    break;
+                case ERROR:
+                    return false;
+                default:
+                    nodes++;
+                    break;
+            }
+        }
+        return depth == 0 && nodes <= limits.getMaxNodes();
+    }
+
+    private static boolean isShift(TokenType type) {
+        return type == TokenType.LEFT_SHIFT || type == TokenType.RIGHT_SHIFT;
+    }
+
+    private static boolean isAdditive(TokenType type) {
+        return type == TokenType.PLUS || type == TokenType.MINUS;
+    }
+
+    /**
+     * Thrown when a range does not have the shape operand (operator operand)*.
+     */
+    private static class MalformedRangeException extends RuntimeException {
+        MalformedRangeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Thrown when the deadline passes; carries the index of the first token of the
+     * range that was about to be parsed.
+     */
+    private static class DeadlineExceededException extends RuntimeException {
+        private final int position;
+
+        DeadlineExceededException(int position) {
+            super(null, null, false, false);
+            this.position = position;
+        }
+    }
+
+    private void checkDeadline(int position) {
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new DeadlineExceededException(position);
+        }
+    }
+
+    /**
+     * Returns the index just past the operand that starts at {@code start}.
+     */
+    private int operandEnd(int start) {
+        return tokens.getType(start) == TokenType.ID ? start + 1 : matchingParen[start] + 1;
+    }
+
+    /**
+     * Parses the tokens in [from, to) as an E.
+     */
+    private class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private ExpressionNode result;
+
+        RangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            checkDeadline(from);
+            if (to - from < chunkTokens) {
+                result = parseSequentially(from, to);
+                return;
+            }
+
+            // Split at the top-level operators; the operator after operand k is at operandEnd(starts[k])
+            int[] starts = new int[16];
+            int count = 0;
+            int i = from;
+            while (true) {
+                if (i >= to) {
+                    throw new MalformedRangeException();
+                }
+                TokenType type = tokens.getType(i);
+                if (type != TokenType.ID && type != TokenType.LPAREN) {
+                    throw new MalformedRangeException();
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i;
+                i = operandEnd(i);
+                if (i == to) {
+                    break;
+                }
+                TokenType operator = tokens.getType(i);
+                if (!isShift(operator) && !isAdditive(operator)) {
+                    throw new MalformedRangeException();
+                }
+                i++;
+            }
+
+            ExpressionNode[] parsed = new ExpressionNode[count];
+            new OperandsTask(starts, parsed, 0, count).invoke();
+            result = fold(starts, parsed);
+        }
+    }
+
+    /**
+     * Parses operands [from, to) of a range into {@code parsed}.
+     */
+    private class OperandsTask extends RecursiveAction {
+        private final int[] starts;
+        private final ExpressionNode[] parsed;
+        private final int from;
+        private final int to;
+
+        OperandsTask(int[] starts, ExpressionNode[] parsed, int from, int to) {
+            this.starts = starts;
+            this.parsed = parsed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int tokenCount = operandEnd(starts[to - 1]) - starts[from];
+            if (to - from == 1 || tokenCount < chunkTokens) {
+                for (int k = from; k < to; k++) {
+                    parsed[k] = parseOperand(starts[k], operandEnd(starts[k]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new OperandsTask(starts, parsed, from, middle),
+                    new OperandsTask(starts, parsed, middle, to));
+        }
+    }
+
+    private ExpressionNode parseOperand(int from, int to) {
+        Token first = tokens.get(from);
+        if (first.getType() == TokenType.ID) {
+            return nodeFactory.identifier(first.getValue());
+        }
+        if (to - from < chunkTokens) {
+            return parseSequentially(from, to);
+        }
+        // A large parenthesized operand is split again
+        RangeTask inner = new RangeTask(from + 1, to - 1);
+        inner.invoke();
+        return nodeFactory.parenthesized(inner.result);
+    }
+
+    private ExpressionNode parseSequentially(int from, int to) {
+        checkDeadline(from);
+        Parser parser = new Parser(new TokenListStream(tokens, from, to));
+        parser.setNodeFactory(nodeFactory);
+        parser.setLimits(limits);
+        parser.setDeadline(deadline);
+        parser.setCancellation(cancelled);
+        ExpressionNode result = parser.parse();
+        if (result == null) {
+            if (!parser.getDiagnostics().isEmpty()
+                    && parser.getDiagnostics().get(0).getCode() == DiagnosticCode.DEADLINE_EXCEEDED) {
+                throw new DeadlineExceededException(from);
+            }
+            throw new MalformedRangeException();
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the left-associative tree: operands joined by + and - form a T,
+     * and the Ts joined by << and >> form the E.
+     */
+    private ExpressionNode fold(int[] starts, ExpressionNode[] operands) {
+        ExpressionNode expression = null;
+        String shift = null;
+        ExpressionNode term = operands[0];
+
+        for (int k = 1; k < operands.length; k++) {
+            Token operator = tokens.get(operandEnd(starts[k - 1]));
+            if (isAdditive(operator.getType())) {
+                term = nodeFactory.binary(term, operator.getValue(), operands[k]);
+            } else {
+                expression = expression == null ? term : nodeFactory.binary(expression, shift, term);
+                shift = operator.getValue();
+                term = operands[k];
+            }
+        }
+        return expression == null ? term : nodeFactory.binary(expression, shift, term);
+    }
+}
@@ -0,0 +1,131 @@
+package compiladores.GCOD.parser;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resource limits for a single parse.
+ *
+ * The input size is checked before anything is lexed. The other limits are checked
+ * by the {@link Parser} as it goes, so an input that exceeds one is abandoned at the
+ * token where it happens instead of being parsed to the end:
+ * <ul>
+ *   <li>{@code maxTokens}: tokens consumed</li>
+ *   <li>{@code maxDepth}: nesting of parentheses, which is what the parser recurses on</li>
+ *   <li>{@code maxNodes}: syntax tree nodes created</li>
+ *   <li>{@code timeoutMillis}: wall-clock time for the parse, checked every
+ *       {@link #DEADLINE_CHECK_INTERVAL} tokens; zero means no deadline. An interrupt
+ *       of the parsing thread is noticed at the same points.</li>
+ * </ul>
+ * Exceeding a limit is reported as a diagnostic, like a syntax error.
+ *
+ * {@code maxTreeChars} caps the rendered text of the syntax tree instead, which
+ * grows with the square of the tree's depth; longer text is truncated.
+ */
+@Component
+public class ParseLimits {
+    public static final ParseLimits NONE =
+            new ParseLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 0,
+                    Integer.MAX_VALUE);
+
+    // The deadline is checked when the token count is a multiple of this
+    static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final int maxInputBytes;
+    private final int maxTokens;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final long timeoutMillis;
+    private final int maxTreeChars;
+
+    public ParseLimits(@Value("${gcod.limits.max-input-bytes:2097152}") int maxInputBytes,
+                       @Value("${gcod.limits.max-tokens:1000000}") int maxTokens,
+                       @Value("${gcod.limits.max-depth:1000}") int maxDepth,
+                       @Value("${gcod.limits.max-nodes:1000000}") int maxNodes,
+                       @Value("${gcod.limits.timeout-ms:2000}") long timeoutMillis,
+                       @Value("${gcod.limits.max-tree-chars:4194304}") int maxTreeChars) {
+        this.maxInputBytes = maxInputBytes;
+        this.maxTokens = maxTokens;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.timeoutMillis = timeoutMillis;
+        this.maxTreeChars = maxTreeChars;
+    }
+
+    public int getMaxInputBytes() {
+        return maxInputBytes;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int getMaxTreeChars() {
+        return maxTreeChars;
+    }
+
+    /**
+     * Returns the deadline for a parse that starts now, as a {@link System#nanoTime()}
+     * value, or 0 if there is none.
+     */
+    long deadline() {
+        if (timeoutMillis <= 0) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        return deadline == 0 ? 1 : deadline;
+    }
+
+    /**
+     * Returns true if the UTF-8 encoding of the input is within {@code maxInputBytes}.
+     * The bytes are only counted when the length alone does not decide it.
+     */
+    public boolean acceptsInput(CharSequence input) {
+        int length = input.length();
+        if (length > maxInputBytes) {
+            return false;
+        }
+        if ((long) length * 3 <= maxInputBytes) {
+            return true;
+        }
+        return utf8Length(input) <= maxInputBytes;
+    }
+
+    private static long utf8Length(CharSequence input) {
+        long bytes = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < input.length()
+                    && Character.isLowSurrogate(input.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Creates the diagnostic for an input that {@link #acceptsInput} rejected.
+     */
+    Diagnostic inputTooLarge() {
+        return new Diagnostic(DiagnosticCode.INPUT_TOO_LARGE, 0, 0, 0, null, "", 1, 1);
+    }
+}
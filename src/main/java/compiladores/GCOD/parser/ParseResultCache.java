@@ -0,0 +1,174 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.cache.SegmentLogCache;
+import compiladores.GCOD.parser.ast.CompactTreeReader;
+import compiladores.GCOD.parser.ast.CompactTreeWriter;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk cache of parse results, keyed by the SHA-256 of the input text and of the
+ * limits it was parsed under.
+ *
+ * Results are stored in a {@link SegmentLogCache} as the success flag, the diagnostics
+ * and the syntax tree in the compact binary format, so a hit only has to decode the
+ * tree instead of lexing and parsing the input again. The cache lives in a local
+ * directory and is kept across restarts. Only inputs of at least
+ * {@code gcod.cache.disk.min-input-length} characters are cached; smaller ones are
+ * cheaper to parse than to look up. Disabled unless {@code gcod.cache.disk.enabled}
+ * is set. Errors of the disk are logged and treated as misses.
+ *
+ * The token, depth and node limits decide whether a parse succeeds, and the cache
+ * outlives a change of them, so they are part of the key.
+ */
+@Component
+public class ParseResultCache {
+    private static final Logger log = LoggerFactory.getLogger(ParseResultCache.class);
+
+    // Part of every key, so results written by an older encoding are never read
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final DiagnosticCode[] CODES = DiagnosticCode.values();
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final SegmentLogCache store;
+    private final int minInputLength;
+
+    public ParseResultCache(@Value("${gcod.cache.disk.enabled:false}") boolean enabled,
+                            @Value("${gcod.cache.disk.directory:parse-cache}") String directory,
+                            @Value("${gcod.cache.disk.max-bytes:268435456}") long maxBytes,
+                            @Value("${gcod.cache.disk.segment-bytes:16777216}") long segmentBytes,
+                            @Value("${gcod.cache.disk.min-input-length:4096}") int minInputLength) throws IOException {
+        this.store = enabled ? SegmentLogCache.open(Paths.get(directory), maxBytes, segmentBytes) : null;
+        this.minInputLength = minInputLength;
+    }
+
+    /**
+     * Returns true if results for this input are cached.
+     */
+    public boolean accepts(String input) {
+        return store != null && input.length() >= minInputLength;
+    }
+
+    /**
+     * Returns the cached result for the input, or null if there is none.
+     *
+     * @param input the parsed text
+     * @param limits the limits the input is parsed under
+     * @param nodes the factory used to rebuild the syntax tree
+     */
+    public ParserService.ParserResult get(String input, ParseLimits limits, NodeFactory nodes) {
+        try {
+            byte[] value = store.get(key(input, limits));
+            return value == null ? null : decode(value, nodes);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read a cached parse result", e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the result of parsing the input under the limits.
+     */
+    public void put(String input, ParseLimits limits, ParserService.ParserResult result) {
+        try {
+            store.put(key(input, limits), encode(result));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not cache a parse result", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private static byte[] key(String input, ParseLimits limits) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(FORMAT_VERSION);
+            digest.update(ByteBuffer.allocate(3 * Integer.BYTES)
+                    .putInt(limits.getMaxTokens())
+                    .putInt(limits.getMaxDepth())
+                    .putInt(limits.getMaxNodes())
+                    .array());
+            return digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static byte[] encode(ParserService.ParserResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(result.isSuccess());
+        out.writeInt(result.getDiagnostics().size());
+        for (Diagnostic diagnostic : result.getDiagnostics()) {
+            out.writeByte(diagnostic.getCode().ordinal());
+            out.writeInt(diagnostic.getStart());
+            out.writeInt(diagnostic.getEnd());
+            out.writeInt(diagnostic.getExpectedMask());
+            out.writeByte(diagnostic.getFound().ordinal());
+            byte[] text = diagnostic.getFoundText().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(text.length);
+            out.write(text);
+            out.writeInt(diagnostic.getLine());
+            out.writeInt(diagnostic.getColumn());
+        }
+        out.writeBoolean(result.getAst() != null);
+        if (result.getAst() != null) {
+            CompactTreeWriter writer = new CompactTreeWriter(out);
+            writer.write(result.getAst());
+            writer.flush();
+        }
+        return bytes.toByteArray();
+    }
+
+    static ParserService.ParserResult decode(byte[] value, NodeFactory nodes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        boolean success = in.readBoolean();
+        int count = in.readInt();
+        List<Diagnostic> diagnostics = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DiagnosticCode code = CODES[in.readByte()];
+            int start = in.readInt();
+            int end = in.readInt();
+            int expected = in.readInt();
+            TokenType found = TOKEN_TYPES[in.readByte()];
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            int line = in.readInt();
+            int column = in.readInt();
+            diagnostics.add(new Diagnostic(code, start, end, expected, found,
+                    new String(text, StandardCharsets.UTF_8), line, column));
+        }
+        ExpressionNode ast = null;
+        if (in.readBoolean()) {
+            ast = new CompactTreeReader(in).readTree(nodes);
+            if (ast == null) {
+                throw new IOException("Cached result has no tree");
+            }
+        }
+        return new ParserService.ParserResult(success, ast, List.copyOf(diagnostics));
+    }
+}
@@ -1,7 +1,12 @@
 package compiladores.GCOD.parser;
 
+import compiladores.GCOD.jfr.ParseEvent;
 import compiladores.GCOD.parser.ast.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
 /**
  * Recursive descent parser for the grammar:
  * E → E << T | E >> T | T
@@ -16,46 +21,202 @@ import compiladores.GCOD.parser.ast.*;
  * F → ( E ) | id
  */
 public class Parser {
-    private final Lexer lexer;
+    private static final int OPERATORS = Diagnostic.mask(
+            TokenType.PLUS, TokenType.MINUS, TokenType.LEFT_SHIFT, TokenType.RIGHT_SHIFT);
+    private static final int OPERAND = Diagnostic.mask(TokenType.LPAREN, TokenType.ID);
+
+    // Diagnostic lists that grew beyond this are dropped on reset instead of cleared
+    private static final int RETAINED_DIAGNOSTICS = 16;
+
+    private Lexer lexer;
+    private TokenStream tokens;
     private Token currentToken;
-    private StringBuilder parseErrors;
+    private List<Diagnostic> diagnostics;
+    private NodeFactory nodeFactory = NodeFactory.DEFAULT;
+    private ParseLimits limits = ParseLimits.NONE;
+    private long deadline;
+    private BooleanSupplier cancelled;
+    private int tokenCount;
+    private int nodeCount;
+    private int depth;
 
-    public Parser(String input) {
+    public Parser() {
+        this("");
+    }
+
+    public Parser(CharSequence input) {
         this.lexer = new Lexer(input);
+        this.tokens = lexer;
         this.currentToken = lexer.getCurrentToken();
-        this.parseErrors = new StringBuilder();
+        this.diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * Creates a parser over tokens that were produced elsewhere.
+     *
+     * @param tokens the token stream to parse
+     */
+    public Parser(TokenStream tokens) {
+        this.tokens = tokens;
+        this.currentToken = tokens.getCurrentToken();
+        this.diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * Prepares this parser for a new input, keeping the lexer and the diagnostic
+     * list so that pooled instances do not reallocate them.
+     *
+     * @param input the text to parse
+     */
+    public void reset(CharSequence input) {
+        if (lexer == null) {
+            lexer = new Lexer(input);
+        } else {
+            lexer.reset(input);
+        }
+        reset(lexer);
+    }
+
+    /**
+     * Prepares this parser for a new token stream.
+     *
+     * @param tokens the token stream to parse
+     */
+    public void reset(TokenStream tokens) {
+        this.tokens = tokens;
+        currentToken = tokens.getCurrentToken();
+        tokenCount = 0;
+        nodeCount = 0;
+        depth = 0;
+        if (diagnostics.size() > RETAINED_DIAGNOSTICS) {
+            diagnostics = new ArrayList<>();
+        } else {
+            diagnostics.clear();
+        }
+    }
+
+    /**
+     * Sets the factory used to create the nodes of the syntax tree.
+     *
+     * @param nodeFactory the node factory
+     */
+    public void setNodeFactory(NodeFactory nodeFactory) {
+        this.nodeFactory = nodeFactory;
+    }
+
+    /**
+     * Sets the limits enforced while parsing. The deadline, if any, starts when
+     * {@link #parse()} is called.
+     *
+     * @param limits the limits
+     */
+    public void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Sets an absolute deadline, as a {@link System#nanoTime()} value, that replaces
+     * the one derived from the limits. Used when several parsers share one budget.
+     */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Sets a check for cancellation, polled at the same points as the deadline, or
+     * null for none. Lets a parse be cancelled without interrupting its thread, which
+     * would also break any channel I/O the thread does afterwards.
+     */
+    void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
     }
 
     public ExpressionNode parse() {
+        if (deadline == 0) {
+            deadline = limits.deadline();
+        }
+        // Free unless a flight recording has the event enabled
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        ExpressionNode result = parseInput();
+        deadline = 0;
+        if (event.shouldCommit()) {
+            event.inputLength = currentToken.getEndOffset();
+            event.tokenCount = tokenCount;
+            event.nodeCount = nodeCount;
+            event.success = result != null;
+            event.error = diagnostics.isEmpty() ? null : diagnostics.get(0).getCode().name();
+            event.commit();
+        }
+        return result;
+    }
+
+    private ExpressionNode parseInput() {
         try {
             ExpressionNode result = parseE();
             if (currentToken.getType() != TokenType.EOF) {
-                addError("Expected end of input, but found: " + currentToken.getValue());
+                addError(DiagnosticCode.TRAILING_INPUT, OPERATORS | Diagnostic.mask(TokenType.EOF));
                 return null;
             }
             return result;
         } catch (SyntaxError e) {
-            addError(e.getMessage());
+            addError(e.code, e.expected);
             return null;
         }
     }
 
+    /**
+     * Returns the errors as formatted text, one per line.
+     * The text is built on each call; prefer {@link #getDiagnostics()} when the
+     * message is not going to be displayed.
+     */
     public String getErrors() {
-        return parseErrors.toString();
+        StringBuilder sb = new StringBuilder();
+        for (Diagnostic diagnostic : diagnostics) {
+            sb.append(diagnostic.getMessage()).append('\n');
+        }
+        return sb.toString();
     }
 
-    private void addError(String message) {
-        parseErrors.append(String.format("Error at line %d, column %d: %s\n", 
-                currentToken.getLine(), currentToken.getColumn(), message));
+    /**
+     * Returns the diagnostics of the last parse. The list is reused by {@link #reset},
+     * so callers that keep it must take a copy.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Returns the number of tokens consumed by the last parse, not counting the end of input.
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Returns the number of syntax tree nodes created by the last parse.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void addError(DiagnosticCode code, int expected) {
+        diagnostics.add(Diagnostic.at(currentToken, code, expected));
     }
 
     private void consume(TokenType type) throws SyntaxError {
         if (currentToken.getType() == type) {
-            lexer.nextToken();
-            currentToken = lexer.getCurrentToken();
+            if (tokenCount == limits.getMaxTokens()) {
+                throw new SyntaxError(DiagnosticCode.TOO_MANY_TOKENS, 0);
+            }
+            tokenCount++;
+            if (tokenCount % ParseLimits.DEADLINE_CHECK_INTERVAL == 0) {
+                checkDeadline();
+            }
+            tokens.nextToken();
+            currentToken = tokens.getCurrentToken();
         } else {
-            throw new SyntaxError(String.format("Expected '%s', found '%s'", 
-                    type, currentToken.getValue()));
+            throw new SyntaxError(DiagnosticCode.EXPECTED_TOKEN, Diagnostic.mask(type));
         }
     }
 
@@ -67,22 +228,25 @@ public class Parser {
     }
 
     // E' → << T E' | >> T E' | ε
+    // The tail recursion is a loop, so long operator chains do not use stack
     private ExpressionNode parseEPrime(ExpressionNode left) throws SyntaxError {
-        if (left == null) return null;
-
-        switch (currentToken.getType()) {
-            case LEFT_SHIFT:
-            case RIGHT_SHIFT:
-                String operator = currentToken.getValue();
-                TokenType type = currentToken.getType();
-                consume(type);
-                ExpressionNode right = parseT();
-                if (right == null) return null;
-                ExpressionNode newLeft = new BinaryOperationNode(left, operator, right);
-                return parseEPrime(newLeft);
-            default:
-                return left;
+        while (left != null) {
+            switch (currentToken.getType()) {
+                case LEFT_SHIFT:
+                case RIGHT_SHIFT:
+                    String operator = currentToken.getValue();
+                    TokenType type = currentToken.getType();
+                    consume(type);
+                    ExpressionNode right = parseT();
+                    if (right == null) return null;
+                    countNode();
+                    left = nodeFactory.binary(left, operator, right);
+                    break;
+                default:
+                    return left;
+            }
         }
+        return null;
     }
 
     // T → F T'
@@ -94,53 +258,86 @@ public class Parser {
 
     // T' → + F T' | - F T' | ε
     private ExpressionNode parseTPrime(ExpressionNode left) throws SyntaxError {
-        if (left == null) return null;
-
-        switch (currentToken.getType()) {
-            case PLUS:
-            case MINUS:
-                String operator = currentToken.getValue();
-                TokenType type = currentToken.getType();
-                consume(type);
-                ExpressionNode right = parseF();
-                if (right == null) return null;
-                ExpressionNode newLeft = new BinaryOperationNode(left, operator, right);
-                return parseTPrime(newLeft);
-            default:
-                return left;
+        while (left != null) {
+            switch (currentToken.getType()) {
+                case PLUS:
+                case MINUS:
+                    String operator = currentToken.getValue();
+                    TokenType type = currentToken.getType();
+                    consume(type);
+                    ExpressionNode right = parseF();
+                    if (right == null) return null;
+                    countNode();
+                    left = nodeFactory.binary(left, operator, right);
+                    break;
+                default:
+                    return left;
+            }
         }
+        return null;
     }
 
     // F → ( E ) | id
     private ExpressionNode parseF() throws SyntaxError {
         switch (currentToken.getType()) {
             case LPAREN:
+                if (depth == limits.getMaxDepth()) {
+                    throw new SyntaxError(DiagnosticCode.TOO_DEEP, 0);
+                }
                 consume(TokenType.LPAREN);
+                depth++;
                 ExpressionNode expr = parseE();
+                depth--;
                 if (expr == null) return null;
                 if (currentToken.getType() != TokenType.RPAREN) {
-                    throw new SyntaxError("Expected ')', found: " + currentToken.getValue());
+                    throw new SyntaxError(DiagnosticCode.UNCLOSED_PARENTHESIS,
+                            OPERATORS | Diagnostic.mask(TokenType.RPAREN));
                 }
                 consume(TokenType.RPAREN);
-                return new ParenthesizedExpressionNode(expr);
+                countNode();
+                return nodeFactory.parenthesized(expr);
             
             case ID:
                 String id = currentToken.getValue();
                 consume(TokenType.ID);
-                return new IdentifierNode(id);
+                countNode();
+                return nodeFactory.identifier(id);
             
             case ERROR:
-                throw new SyntaxError("Invalid token: " + currentToken.getValue());
+                throw new SyntaxError(DiagnosticCode.INVALID_TOKEN, OPERAND);
             
             default:
-                throw new SyntaxError("Expected '(' or identifier, found: " + currentToken.getValue());
+                throw new SyntaxError(DiagnosticCode.EXPECTED_OPERAND, OPERAND);
         }
     }
 
-    // Custom exception for syntax errors
+    // A parse can be cancelled by interrupting its thread or through the cancellation check
+    private void checkDeadline() throws SyntaxError {
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new SyntaxError(DiagnosticCode.DEADLINE_EXCEEDED, 0);
+        }
+        if (Thread.currentThread().isInterrupted() || (cancelled != null && cancelled.getAsBoolean())) {
+            throw new SyntaxError(DiagnosticCode.CANCELLED, 0);
+        }
+    }
+
+    private void countNode() throws SyntaxError {
+        if (nodeCount == limits.getMaxNodes()) {
+            throw new SyntaxError(DiagnosticCode.TOO_MANY_NODES, 0);
+        }
+        nodeCount++;
+    }
+
+    // Custom exception for syntax errors; carries no message and no stack trace,
+    // the diagnostic is built from the current token when it is caught
     private static class SyntaxError extends Exception {
-        public SyntaxError(String message) {
-            super(message);
+        private final DiagnosticCode code;
+        private final int expected;
+
+        public SyntaxError(DiagnosticCode code, int expected) {
+            super(null, null, false, false);
+            this.code = code;
+            this.expected = expected;
         }
     }
 } 
\ No newline at end of file
@@ -1,20 +1,55 @@
 package compiladores.GCOD.parser;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.parser.ast.CompactTreeFormat;
+import compiladores.GCOD.parser.ast.CompactTreeWriter;
+import compiladores.GCOD.parser.ast.TreeIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Controller
 public class ParserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Bounds for one request of the tree browsing API
+    private static final int MAX_TREE_DEPTH = 32;
+    private static final int MAX_TREE_NODES = 5000;
+
     private final ParserService parserService;
+    private final BulkParserService bulkParserService;
+    private final ObjectMapper objectMapper;
+    private final TreeHandleStore treeHandles;
+    private final int inlineTreeNodes;
 
     @Autowired
-    public ParserController(ParserService parserService) {
+    public ParserController(ParserService parserService, BulkParserService bulkParserService,
+                            ObjectMapper objectMapper, TreeHandleStore treeHandles,
+                            @Value("${gcod.trees.inline-max-nodes:2000}") int inlineTreeNodes) {
         this.parserService = parserService;
+        this.bulkParserService = bulkParserService;
+        this.objectMapper = objectMapper;
+        this.treeHandles = treeHandles;
+        this.inlineTreeNodes = inlineTreeNodes;
     }
 
     @GetMapping("/parser")
@@ -29,11 +64,170 @@ public class ParserController {
         ParserService.ParserResult result = parserService.parse(input);
         
         model.addAttribute("input", input);
-        model.addAttribute("syntaxTree", result.getSyntaxTree());
-        model.addAttribute("errors", result.getErrors());
+        // Large trees are browsed on demand instead of being rendered into the page
+        String treeHandle = null;
+        int treeTooLarge = 0;
+        // A tree the parser counted as small enough is rendered without being indexed
+        if (result.isSuccess() && (result.getNodeCount() < 0 || result.getNodeCount() > inlineTreeNodes)) {
+            TreeIndex index = TreeIndex.of(result.getAst());
+            if (index.size() > inlineTreeNodes) {
+                treeHandle = treeHandles.put(index);
+                if (treeHandle == null) {
+                    // Too large even to keep for browsing; never render it whole
+                    treeTooLarge = index.size();
+                }
+            }
+        }
+        model.addAttribute("treeHandle", treeHandle);
+        model.addAttribute("treeTooLarge", treeTooLarge);
+        model.addAttribute("syntaxTree", treeHandle == null && treeTooLarge == 0 ? result.getSyntaxTree() : null);
+        model.addAttribute("diagnostics", result.getDiagnostics());
         model.addAttribute("success", result.isSuccess());
         model.addAttribute("showResults", true);
         
         return "parser";
     }
+
+    /**
+     * Parses the input and returns the result as JSON. Diagnostics are returned in
+     * structured form; no error messages are formatted.
+     */
+    @PostMapping(value = "/api/parser", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ParserService.ParserResult parseJson(@RequestParam("input") String input) {
+        return parserService.parse(input);
+    }
+
+    /**
+     * Parses the input and streams the syntax tree in the compact binary format, for
+     * clients that send {@code Accept: application/x-gcod-ast}. If the input has
+     * errors, the JSON result with the diagnostics is returned with status 422.
+     */
+    @PostMapping(value = "/api/parser", produces = CompactTreeFormat.MEDIA_TYPE)
+    public void parseCompact(@RequestParam("input") String input, HttpServletResponse response) throws IOException {
+        ParserService.ParserResult result = parserService.parse(input);
+        if (!result.isSuccess()) {
+            response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), result);
+            return;
+        }
+        response.setContentType(CompactTreeFormat.MEDIA_TYPE);
+        CompactTreeWriter writer = new CompactTreeWriter(response.getOutputStream());
+        writer.write(result.getAst());
+        writer.flush();
+    }
+
+    /**
+     * Parses the request body as one expression while it is being received, so large
+     * inputs are never held in memory as text. The body is read as UTF-8 unless the
+     * request names another charset. Returns 415 if that charset is unknown.
+     */
+    @PostMapping(value = "/api/parser/stream", consumes = MediaType.TEXT_PLAIN_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<ParserService.ParserResult> parseStream(HttpServletRequest request) throws IOException {
+        Charset charset = StandardCharsets.UTF_8;
+        if (request.getCharacterEncoding() != null) {
+            try {
+                charset = Charset.forName(request.getCharacterEncoding());
+            } catch (IllegalArgumentException e) {
+                // Unsupported or illegal charset name
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+            }
+        }
+        return ResponseEntity.ok(parserService.parse(new InputStreamReader(request.getInputStream(), charset)));
+    }
+
+    /**
+     * Parses the input and keeps the syntax tree on the server for browsing with
+     * {@link #treeNodes}. Returns the handle of the tree, if the parse succeeded, with
+     * the root and the first levels below it.
+     */
+    @PostMapping(value = "/api/parser/trees", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public TreeHandleResult parseToHandle(@RequestParam("input") String input) {
+        ParserService.ParserResult result = parserService.parse(input);
+        if (!result.isSuccess()) {
+            return new TreeHandleResult(null, false, result.getDiagnostics(), null);
+        }
+        TreeIndex index = TreeIndex.of(result.getAst());
+        String handle = treeHandles.put(index);
+        TreeNodeView root = TreeNodeView.of(index, 0, 3, 200);
+        return new TreeHandleResult(handle, true, result.getDiagnostics(), root);
+    }
+
+    /**
+     * Returns one node of a stored tree with its descendants down to {@code depth}
+     * levels, and at most {@code limit} nodes. Returns 404 if the handle has expired
+     * or the node does not exist.
+     */
+    @GetMapping(value = "/api/parser/trees/{handle}/nodes/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<TreeNodeView> treeNodes(@PathVariable("handle") String handle, @PathVariable("id") int id,
+                                                  @RequestParam(value = "depth", defaultValue = "3") int depth,
+                                                  @RequestParam(value = "limit", defaultValue = "200") int limit) {
+        TreeIndex index = treeHandles.get(handle);
+        if (index == null || id < 0 || id >= index.size()) {
+            return ResponseEntity.notFound().build();
+        }
+        depth = Math.max(0, Math.min(depth, MAX_TREE_DEPTH));
+        limit = Math.max(1, Math.min(limit, MAX_TREE_NODES));
+        return ResponseEntity.ok(TreeNodeView.of(index, id, depth, limit));
+    }
+
+    /**
+     * Validates the input without building a syntax tree. Returns the first error, if any.
+     */
+    @PostMapping(value = "/api/parser/validate", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ParserService.ValidationResult validate(@RequestParam("input") String input) {
+        return parserService.validate(input);
+    }
+
+    /**
+     * Parses a newline-delimited stream of expressions and streams the results back
+     * as NDJSON, in input order.
+     */
+    @PostMapping(value = "/api/parser/bulk", consumes = {NDJSON, MediaType.TEXT_PLAIN_VALUE})
+    public void parseBulk(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        bulkParserService.parse(body, response.getOutputStream());
+    }
+
+    /**
+     * The result of {@link #parseToHandle}: the handle and root of the stored tree, or
+     * the diagnostics if the parse failed. The handle is null if the tree was too large
+     * to keep.
+     */
+    public static class TreeHandleResult {
+        private final String handle;
+        private final boolean success;
+        private final List<Diagnostic> diagnostics;
+        private final TreeNodeView root;
+
+        public TreeHandleResult(String handle, boolean success, List<Diagnostic> diagnostics, TreeNodeView root) {
+            this.handle = handle;
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.root = root;
+        }
+
+        public String getHandle() {
+            return handle;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public List<Diagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        public TreeNodeView getRoot() {
+            return root;
+        }
+    }
 } 
\ No newline at end of file
@@ -1,56 +1,294 @@
 package compiladores.GCOD.parser;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import compiladores.GCOD.metrics.GcodMetrics;
 import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.HashConsingNodeFactory;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 
 @Service
 public class ParserService {
-    
+
+    // Characters read from a stream at a time by parse(Reader)
+    private static final int STREAM_CHUNK = 8192;
+
+    // One parser per thread; it is reset for every input instead of being recreated
+    private final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(this::createParser);
+
+    // Inputs of at least this many characters are parsed with the ParallelParser
+    private final int parallelThreshold;
+    private final NodeFactory nodeFactory;
+    private final ParseResultCache cache;
+    private final GcodMetrics metrics;
+    private final ParseLimits limits;
+
+    public ParserService(int parallelThreshold, boolean hashConsing, ParseResultCache cache, GcodMetrics metrics) {
+        this(parallelThreshold, hashConsing, cache, metrics, ParseLimits.NONE);
+    }
+
+    @Autowired
+    public ParserService(@Value("${gcod.parser.parallel-threshold:1048576}") int parallelThreshold,
+                         @Value("${gcod.parser.hash-consing:false}") boolean hashConsing,
+                         ParseResultCache cache, GcodMetrics metrics, ParseLimits limits) {
+        this.parallelThreshold = parallelThreshold;
+        this.nodeFactory = hashConsing ? new HashConsingNodeFactory() : NodeFactory.DEFAULT;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.limits = limits;
+    }
+
+    private Parser createParser() {
+        Parser parser = new Parser();
+        parser.setNodeFactory(nodeFactory);
+        parser.setLimits(limits);
+        return parser;
+    }
+
     /**
      * Parse the input string and return the syntax tree.
-     * 
+     *
      * @param input The input string to parse
      * @return The result of the parsing operation
      */
     public ParserResult parse(String input) {
-        Parser parser = new Parser(input);
-        ExpressionNode ast = parser.parse();
-        
-        String syntaxTree = null;
-        if (ast != null) {
-            syntaxTree = ast.toTreeString();
-        }
-        
-        String errors = parser.getErrors();
-        boolean success = errors.isEmpty() && ast != null;
-        
-        return new ParserResult(success, syntaxTree, errors);
-    }
-    
+        return parse(input, null);
+    }
+
+    /**
+     * Parse the input string, stopping with a {@link DiagnosticCode#CANCELLED} result
+     * as soon as {@code cancelled} returns true. The check is polled by the parsing
+     * thread, unlike an interrupt, so the disk cache can still be used by it.
+     *
+     * @param input The input string to parse
+     * @param cancelled Whether the parse is no longer wanted, or null
+     * @return The result of the parsing operation
+     */
+    public ParserResult parse(String input, BooleanSupplier cancelled) {
+        if (!limits.acceptsInput(input)) {
+            return inputTooLarge();
+        }
+        if (!cache.accepts(input)) {
+            return parseUncached(input, cancelled);
+        }
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        ParserResult result = cache.get(input, limits, nodeFactory);
+        if (result == null) {
+            result = parseUncached(input, cancelled);
+            if (!result.isLimited()) {
+                cache.put(input, limits, result);
+            }
+        } else {
+            if (metrics.isEnabled()) {
+                metrics.recordParse(GcodMetrics.ParsePath.CACHE, System.nanoTime() - start, input.length(), -1,
+                        result.getAst(), result.getDiagnostics());
+            }
+            result = new ParserResult(result.isSuccess(), result.getAst(), result.getDiagnostics(), metrics,
+                    limits.getMaxTreeChars(), -1);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the result for an input rejected for its size, and counts the rejection.
+     */
+    ParserResult inputTooLarge() {
+        if (metrics.isEnabled()) {
+            metrics.recordRejected(GcodMetrics.Rejection.INPUT_TOO_LARGE);
+        }
+        return new ParserResult(false, null, List.of(limits.inputTooLarge()));
+    }
+
+    private ParserResult parseUncached(String input, BooleanSupplier cancelled) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        if (input.length() >= parallelThreshold) {
+            ParallelParser parallelParser = new ParallelParser(input, ForkJoinPool.commonPool());
+            parallelParser.setNodeFactory(nodeFactory);
+            parallelParser.setLimits(limits);
+            parallelParser.setCancellation(cancelled);
+            ExpressionNode ast = parallelParser.parse();
+            List<Diagnostic> diagnostics = parallelParser.getDiagnostics();
+            if (metrics.isEnabled()) {
+                metrics.recordParse(GcodMetrics.ParsePath.PARALLEL, System.nanoTime() - start, input.length(),
+                        -1, ast, diagnostics);
+            }
+            return new ParserResult(diagnostics.isEmpty() && ast != null, ast, diagnostics, metrics,
+                    limits.getMaxTreeChars(), -1);
+        }
+
+        Parser parser = parsers.get();
+        parser.reset(input);
+        parser.setCancellation(cancelled);
+        try {
+            ExpressionNode ast = parser.parse();
+
+            List<Diagnostic> diagnostics = List.copyOf(parser.getDiagnostics());
+            boolean success = diagnostics.isEmpty() && ast != null;
+            if (metrics.isEnabled()) {
+                metrics.recordParse(GcodMetrics.ParsePath.SEQUENTIAL, System.nanoTime() - start, input.length(),
+                        parser.getTokenCount(), ast, diagnostics);
+            }
+
+            return new ParserResult(success, ast, diagnostics, metrics, limits.getMaxTreeChars(),
+                    parser.getNodeCount());
+        } finally {
+            // Drop the reference to the input so a large request is not kept alive by the pool
+            parser.reset("");
+            parser.setCancellation(null);
+        }
+    }
+
+    /**
+     * Parse an input read from a stream, as it arrives, without holding the whole
+     * text in memory. Reading stops at the first error. The input size limit is
+     * applied to the characters read, since the bytes are not seen here.
+     *
+     * @param reader The input to parse
+     * @return The result of the parsing operation
+     */
+    public ParserResult parse(Reader reader) throws IOException {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        IncrementalParser parser = new IncrementalParser();
+        parser.setNodeFactory(nodeFactory);
+        parser.setLimits(limits);
+        CharBuffer buffer = CharBuffer.allocate(STREAM_CHUNK);
+        while (!parser.isFinished() && reader.read(buffer) >= 0) {
+            buffer.flip();
+            if (parser.getCharCount() + buffer.remaining() > limits.getMaxInputBytes()) {
+                return inputTooLarge();
+            }
+            parser.feed(buffer);
+            buffer.clear();
+        }
+        ExpressionNode ast = parser.endOfInput();
+        List<Diagnostic> diagnostics = List.copyOf(parser.getDiagnostics());
+        boolean success = diagnostics.isEmpty() && ast != null;
+        if (metrics.isEnabled()) {
+            metrics.recordParse(GcodMetrics.ParsePath.STREAM, System.nanoTime() - start, parser.getCharCount(),
+                    parser.getTokenCount(), ast, diagnostics);
+        }
+        return new ParserResult(success, ast, diagnostics, metrics, limits.getMaxTreeChars(),
+                parser.getNodeCount());
+    }
+
+    /**
+     * Check whether the input is a valid expression without building a syntax tree.
+     *
+     * @param input The input string to validate
+     * @return The result of the validation, with the first error if there is one
+     */
+    public ValidationResult validate(String input) {
+        if (!limits.acceptsInput(input)) {
+            return new ValidationResult(limits.inputTooLarge());
+        }
+        return new ValidationResult(Recognizer.recognize(input));
+    }
+
+    /**
+     * A class to hold the result of validating an input.
+     */
+    public static class ValidationResult {
+        private final Diagnostic error;
+
+        public ValidationResult(Diagnostic error) {
+            this.error = error;
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        public Diagnostic getError() {
+            return error;
+        }
+    }
+
     /**
      * A class to hold the results of parsing an input.
+     * The tree and error texts are only rendered when they are requested.
      */
     public static class ParserResult {
         private final boolean success;
-        private final String syntaxTree;
-        private final String errors;
-        
-        public ParserResult(boolean success, String syntaxTree, String errors) {
+        private final ExpressionNode ast;
+        private final List<Diagnostic> diagnostics;
+        private final GcodMetrics metrics;
+        private final int maxTreeChars;
+        private final int nodeCount;
+        private String syntaxTree;
+
+        public ParserResult(boolean success, ExpressionNode ast, List<Diagnostic> diagnostics) {
+            this(success, ast, diagnostics, GcodMetrics.disabled(), Integer.MAX_VALUE, -1);
+        }
+
+        ParserResult(boolean success, ExpressionNode ast, List<Diagnostic> diagnostics, GcodMetrics metrics,
+                     int maxTreeChars, int nodeCount) {
             this.success = success;
-            this.syntaxTree = syntaxTree;
-            this.errors = errors;
+            this.ast = ast;
+            this.diagnostics = diagnostics;
+            this.metrics = metrics;
+            this.maxTreeChars = maxTreeChars;
+            this.nodeCount = nodeCount;
         }
-        
+
         public boolean isSuccess() {
             return success;
         }
-        
+
+        @JsonIgnore
+        public ExpressionNode getAst() {
+            return ast;
+        }
+
         public String getSyntaxTree() {
+            if (syntaxTree == null && ast != null) {
+                long start = metrics.isEnabled() ? System.nanoTime() : 0;
+                syntaxTree = ast.toTreeString(maxTreeChars);
+                if (metrics.isEnabled()) {
+                    metrics.recordRender(System.nanoTime() - start);
+                }
+            }
             return syntaxTree;
         }
-        
+
+        public List<Diagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * Returns the number of nodes the parser created, which is the size of the tree
+         * of a successful parse, or -1 if it is not known, as for cached results and
+         * those of the {@link ParallelParser}.
+         */
+        @JsonIgnore
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Returns true if the parse was stopped by a {@link ParseLimits} limit rather
+         * than by a syntax error.
+         */
+        @JsonIgnore
+        public boolean isLimited() {
+            return !diagnostics.isEmpty() && diagnostics.get(0).getCode().isLimit();
+        }
+
+        @JsonIgnore
         public String getErrors() {
-            return errors;
+            StringBuilder sb = new StringBuilder();
+            for (Diagnostic diagnostic : diagnostics) {
+                sb.append(diagnostic.getMessage()).append('\n');
+            }
+            return sb.toString();
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package compiladores.GCOD.parser;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the admission control for the endpoints that parse, and the live parse
+ * WebSocket endpoint.
+ */
+@Configuration
+@EnableWebSocket
+public class ParserWebConfig implements WebMvcConfigurer, WebSocketConfigurer {
+
+    private final AdmissionInterceptor admissionInterceptor;
+    private final LiveParseHandler liveParseHandler;
+
+    public ParserWebConfig(AdmissionInterceptor admissionInterceptor, LiveParseHandler liveParseHandler) {
+        this.admissionInterceptor = admissionInterceptor;
+        this.liveParseHandler = liveParseHandler;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor).addPathPatterns("/parser", "/api/parser", "/api/parser/**");
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveParseHandler, "/ws/parser");
+    }
+}
@@ -0,0 +1,155 @@
+package compiladores.GCOD.parser;
+
+/**
+ * Validates an expression without building a syntax tree.
+ *
+ * The recognizer scans the characters once, using the same token rules as the
+ * {@link Lexer}, and drives a two-state machine (expecting an operand / after an
+ * operand) plus a parenthesis depth counter. For this grammar that is equivalent to
+ * the recursive descent {@link Parser}: an input is accepted exactly when the parser
+ * accepts it, and the first error is reported with the same diagnostic. Nothing is
+ * allocated unless there is an error.
+ */
+public final class Recognizer {
+    private static final int OPERATORS = Diagnostic.mask(
+            TokenType.PLUS, TokenType.MINUS, TokenType.LEFT_SHIFT, TokenType.RIGHT_SHIFT);
+    private static final int OPERAND = Diagnostic.mask(TokenType.LPAREN, TokenType.ID);
+
+    private Recognizer() {
+    }
+
+    /**
+     * Checks whether the input is a valid expression.
+     *
+     * @param input the text to validate
+     * @return null if the input is valid, otherwise the first error
+     */
+    public static Diagnostic recognize(CharSequence input) {
+        int length = input.length();
+        int position = 0;
+        int line = 1;
+        int lineStart = 0;
+        int depth = 0;
+        boolean expectOperand = true;
+
+        while (true) {
+            // Skip whitespace
+            while (position < length) {
+                char c = input.charAt(position);
+                if (c == ' ' || c == '\t') {
+                    position++;
+                } else if (c == '\n') {
+                    position++;
+                    line++;
+                    lineStart = position;
+                } else {
+                    break;
+                }
+            }
+
+            int start = position;
+            TokenType type;
+            if (position >= length) {
+                type = TokenType.EOF;
+            } else {
+                char c = input.charAt(position);
+                switch (c) {
+                    case '(':
+                        type = TokenType.LPAREN;
+                        position++;
+                        break;
+                    case ')':
+                        type = TokenType.RPAREN;
+                        position++;
+                        break;
+                    case '+':
+                        type = TokenType.PLUS;
+                        position++;
+                        break;
+                    case '-':
+                        type = TokenType.MINUS;
+                        position++;
+                        break;
+                    case '<':
+                    case '>':
+                        if (position + 1 < length && input.charAt(position + 1) == c) {
+                            type = c == '<' ? TokenType.LEFT_SHIFT : TokenType.RIGHT_SHIFT;
+                            position += 2;
+                        } else {
+                            type = TokenType.ERROR;
+                            position++;
+                        }
+                        break;
+                    default:
+                        if (Character.isLetter(c)) {
+                            type = TokenType.ID;
+                            position++;
+                            while (position < length
+                                    && (Character.isLetterOrDigit(input.charAt(position))
+                                        || input.charAt(position) == '_')) {
+                                position++;
+                            }
+                        } else {
+                            type = TokenType.ERROR;
+                            position++;
+                        }
+                        break;
+                }
+            }
+
+            if (expectOperand) {
+                switch (type) {
+                    case ID:
+                        expectOperand = false;
+                        break;
+                    case LPAREN:
+                        depth++;
+                        break;
+                    case ERROR:
+                        return error(input, DiagnosticCode.INVALID_TOKEN, OPERAND,
+                                type, start, position, line, lineStart);
+                    default:
+                        return error(input, DiagnosticCode.EXPECTED_OPERAND, OPERAND,
+                                type, start, position, line, lineStart);
+                }
+            } else {
+                switch (type) {
+                    case PLUS:
+                    case MINUS:
+                    case LEFT_SHIFT:
+                    case RIGHT_SHIFT:
+                        expectOperand = true;
+                        break;
+                    case RPAREN:
+                        if (depth == 0) {
+                            return error(input, DiagnosticCode.TRAILING_INPUT,
+                                    OPERATORS | Diagnostic.mask(TokenType.EOF),
+                                    type, start, position, line, lineStart);
+                        }
+                        depth--;
+                        break;
+                    case EOF:
+                        if (depth == 0) {
+                            return null;
+                        }
+                        // Fall through: the innermost parenthesis is not closed
+                    default:
+                        if (depth > 0) {
+                            return error(input, DiagnosticCode.UNCLOSED_PARENTHESIS,
+                                    OPERATORS | Diagnostic.mask(TokenType.RPAREN),
+                                    type, start, position, line, lineStart);
+                        }
+                        return error(input, DiagnosticCode.TRAILING_INPUT,
+                                OPERATORS | Diagnostic.mask(TokenType.EOF),
+                                type, start, position, line, lineStart);
+                }
+            }
+        }
+    }
+
+    private static Diagnostic error(CharSequence input, DiagnosticCode code, int expected, TokenType found,
+                                    int start, int end, int line, int lineStart) {
+        String text = input.subSequence(start, end).toString();
+        return new Diagnostic(code, start, end, expected, found, text, line, start - lineStart + 1);
+    }
+}
@@ -5,12 +5,14 @@ public class Token {
     private final String value;
     private final int line;
     private final int column;
+    private final int offset;
 
-    public Token(TokenType type, String value, int line, int column) {
+    public Token(TokenType type, String value, int line, int column, int offset) {
         this.type = type;
         this.value = value;
         this.line = line;
         this.column = column;
+        this.offset = offset;
     }
 
     public TokenType getType() {
@@ -29,6 +31,14 @@ public class Token {
         return column;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getEndOffset() {
+        return offset + value.length();
+    }
+
     @Override
     public String toString() {
         return String.format("Token(%s, '%s', line=%d, col=%d)", 
@@ -0,0 +1,49 @@
+package compiladores.GCOD.parser;
+
+import java.util.List;
+
+/**
+ * Token stream over a range of an already tokenized input. Reaching the end of the
+ * range yields an EOF token positioned at the first token after the range.
+ */
+public class TokenListStream implements TokenStream {
+    private final List<Token> tokens;
+    private final int end;
+    private final Token eof;
+    private int position;
+
+    public TokenListStream(List<Token> tokens) {
+        this(tokens, 0, tokens.size());
+    }
+
+    /**
+     * @param tokens the token list
+     * @param from index of the first token of the range
+     * @param to index just past the last token of the range
+     */
+    public TokenListStream(List<Token> tokens, int from, int to) {
+        this.tokens = tokens;
+        this.position = from;
+        this.end = to;
+        Token next = to < tokens.size() ? tokens.get(to) : tokens.get(tokens.size() - 1);
+        this.eof = next.getType() == TokenType.EOF
+                ? next
+                : new Token(TokenType.EOF, "", next.getLine(), next.getColumn(), next.getOffset());
+    }
+
+    @Override
+    public Token getCurrentToken() {
+        if (position >= end) {
+            return eof;
+        }
+        Token token = tokens.get(position);
+        return token.getType() == TokenType.EOF ? eof : token;
+    }
+
+    @Override
+    public void nextToken() {
+        if (position < end) {
+            position++;
+        }
+    }
+}
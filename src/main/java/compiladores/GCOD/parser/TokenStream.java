@@ -0,0 +1,16 @@
+package compiladores.GCOD.parser;
+
+/**
+ * A source of tokens for the {@link Parser}, read one token at a time.
+ */
+public interface TokenStream {
+    /**
+     * Returns the token under the cursor. Past the last token this is an EOF token.
+     */
+    Token getCurrentToken();
+
+    /**
+     * Moves the cursor to the next token.
+     */
+    void nextToken();
+}
@@ -0,0 +1,110 @@
+package compiladores.GCOD.parser;
+
+import compiladores.GCOD.parser.ast.TreeIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps parsed trees on the server under random handles, so clients can browse them
+ * a few nodes at a time.
+ *
+ * A handle expires {@code ttlMillis} after it was last used. The trees kept hold at
+ * most {@code maxNodes} nodes in total; when a new tree does not fit, the least
+ * recently used ones are dropped first. Expired handles are only removed when a tree
+ * is stored, which is when their memory is needed.
+ */
+@Component
+public class TreeHandleStore {
+
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlNanos;
+    private final long maxNodes;
+    // In access order, so the first entry is the least recently used and the first to expire
+    private final LinkedHashMap<String, Entry> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalNodes;
+
+    public TreeHandleStore(@Value("${gcod.trees.ttl-ms:600000}") long ttlMillis,
+                           @Value("${gcod.trees.max-nodes:10000000}") long maxNodes) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Stores a tree and returns its handle, or null if the tree alone is larger than
+     * the store.
+     */
+    public String put(TreeIndex index) {
+        if (index.size() > maxNodes) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String handle = HexFormat.of().formatHex(bytes);
+        long now = System.nanoTime();
+
+        synchronized (trees) {
+            Iterator<Entry> entries = trees.values().iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (!entry.isExpired(now) && totalNodes + index.size() <= maxNodes) {
+                    break;
+                }
+                totalNodes -= entry.index.size();
+                entries.remove();
+            }
+            trees.put(handle, new Entry(index, now + ttlNanos));
+            totalNodes += index.size();
+        }
+        return handle;
+    }
+
+    /**
+     * Returns the tree stored under {@code handle} and extends its lifetime, or null if
+     * the handle is unknown or has expired.
+     */
+    public TreeIndex get(String handle) {
+        long now = System.nanoTime();
+        synchronized (trees) {
+            Entry entry = trees.get(handle);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                trees.remove(handle);
+                totalNodes -= entry.index.size();
+                return null;
+            }
+            entry.expiresAt = now + ttlNanos;
+            return entry.index;
+        }
+    }
+
+    /**
+     * Returns the number of trees stored, including expired ones not yet removed.
+     */
+    public int size() {
+        synchronized (trees) {
+            return trees.size();
+        }
+    }
+
+    private static final class Entry {
+        private final TreeIndex index;
+        private long expiresAt;
+
+        Entry(TreeIndex index, long expiresAt) {
+            this.index = index;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
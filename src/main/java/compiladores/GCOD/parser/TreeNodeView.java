@@ -0,0 +1,79 @@
+package compiladores.GCOD.parser;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import compiladores.GCOD.parser.ast.TreeIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One node of a stored tree as returned by the tree browsing API, with the ids and
+ * subtree sizes a client needs to ask for more.
+ *
+ * Children are included down to a given depth and up to a given number of nodes in
+ * total; a node's children are either all included or not at all. A node whose
+ * {@code children} are missing but whose {@code childCount} is not zero can be
+ * expanded with another request for its id.
+ */
+public class TreeNodeView {
+    private final int id;
+    private final String label;
+    private final int childCount;
+    private final int subtreeSize;
+    private List<TreeNodeView> children;
+
+    private TreeNodeView(TreeIndex index, int id) {
+        this.id = id;
+        this.label = index.getLabel(id);
+        this.childCount = index.getChildCount(id);
+        this.subtreeSize = index.getSubtreeSize(id);
+    }
+
+    /**
+     * Returns node {@code id} with its descendants down to {@code depth} levels,
+     * taking at most {@code limit} nodes in pre-order, breadth first within a node.
+     */
+    public static TreeNodeView of(TreeIndex index, int id, int depth, int limit) {
+        TreeNodeView view = new TreeNodeView(index, id);
+        int[] budget = {limit - 1};
+        view.expand(index, depth, budget);
+        return view;
+    }
+
+    private void expand(TreeIndex index, int depth, int[] budget) {
+        if (depth == 0 || childCount == 0 || budget[0] < childCount) {
+            return;
+        }
+        budget[0] -= childCount;
+        children = new ArrayList<>(childCount);
+        int child = id + 1;
+        for (int i = 0; i < childCount; i++) {
+            children.add(new TreeNodeView(index, child));
+            child += index.getSubtreeSize(child);
+        }
+        for (TreeNodeView view : children) {
+            view.expand(index, depth - 1, budget);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public int getSubtreeSize() {
+        return subtreeSize;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<TreeNodeView> getChildren() {
+        return children;
+    }
+}
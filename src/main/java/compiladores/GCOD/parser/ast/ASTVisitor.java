@@ -0,0 +1,34 @@
+package compiladores.GCOD.parser.ast;
+
+/**
+ * Callbacks for a walk over a syntax tree with {@link ASTWalker}.
+ *
+ * {@link #enter} is called before the children of a node are visited (pre-order) and
+ * {@link #leave} after them (post-order). The depth of the root is 0.
+ */
+public interface ASTVisitor {
+
+    /**
+     * What the walker does after a callback.
+     */
+    enum Action {
+        /** Keep walking. */
+        CONTINUE,
+        /** Do not visit the children of the node just entered. */
+        SKIP_CHILDREN,
+        /** End the walk immediately. */
+        STOP
+    }
+
+    default Action enter(ExpressionNode node, int depth) {
+        return Action.CONTINUE;
+    }
+
+    /**
+     * Called once the children of the node have been visited, or skipped. Returning
+     * {@link Action#SKIP_CHILDREN} here has the same effect as {@link Action#CONTINUE}.
+     */
+    default Action leave(ExpressionNode node, int depth) {
+        return Action.CONTINUE;
+    }
+}
@@ -0,0 +1,64 @@
+package compiladores.GCOD.parser.ast;
+
+import java.util.Arrays;
+
+/**
+ * Walks a syntax tree depth-first without recursion.
+ *
+ * The path from the root to the current node is kept in arrays indexed by depth: the
+ * node and the index of its next child. Frames are overwritten as the walk moves on,
+ * so a walk allocates nothing once the arrays are as deep as the tree, and a walker
+ * can be reused for many trees. The thread stack used does not depend on the depth
+ * of the tree. A walker is not thread-safe.
+ */
+public final class ASTWalker {
+    private ExpressionNode[] nodes = new ExpressionNode[64];
+    private int[] nextChild = new int[64];
+
+    /**
+     * Walks the tree rooted at {@code root}, calling the visitor for every node.
+     *
+     * @param root the root of the tree
+     * @param visitor the callbacks
+     * @return false if the visitor stopped the walk, true otherwise
+     */
+    public boolean walk(ExpressionNode root, ASTVisitor visitor) {
+        int top = 0;
+        nodes[0] = root;
+        nextChild[0] = -1;
+
+        try {
+            while (top >= 0) {
+                ExpressionNode node = nodes[top];
+
+                if (nextChild[top] < 0) {
+                    ASTVisitor.Action action = visitor.enter(node, top);
+                    if (action == ASTVisitor.Action.STOP) {
+                        return false;
+                    }
+                    nextChild[top] = action == ASTVisitor.Action.SKIP_CHILDREN ? node.getChildCount() : 0;
+                }
+
+                if (nextChild[top] < node.getChildCount()) {
+                    ExpressionNode child = node.getChild(nextChild[top]++);
+                    if (++top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, top * 2);
+                        nextChild = Arrays.copyOf(nextChild, top * 2);
+                    }
+                    nodes[top] = child;
+                    nextChild[top] = -1;
+                    continue;
+                }
+
+                nodes[top] = null;
+                if (visitor.leave(node, top--) == ASTVisitor.Action.STOP) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            // Do not keep the tree reachable from the walker
+            Arrays.fill(nodes, 0, Math.max(top + 1, 0), null);
+        }
+    }
+}
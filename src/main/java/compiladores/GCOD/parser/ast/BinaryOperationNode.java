@@ -24,16 +24,24 @@ public class BinaryOperationNode extends ExpressionNode {
     }
 
     @Override
-    public String toTreeString(String indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent).append("BinaryOp(").append(operator).append(")\n");
-        
-        // Left child with increased indentation
-        sb.append(left.toTreeString(indent + "  ├─ "));
-        
-        // Right child with increased indentation
-        sb.append(right.toTreeString(indent + "  └─ "));
-        
-        return sb.toString();
+    public int getChildCount() {
+        return 2;
+    }
+
+    @Override
+    public ExpressionNode getChild(int index) {
+        switch (index) {
+            case 0:
+                return left;
+            case 1:
+                return right;
+            default:
+                throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    @Override
+    String label() {
+        return "BinaryOp(" + operator + ")";
     }
 } 
\ No newline at end of file
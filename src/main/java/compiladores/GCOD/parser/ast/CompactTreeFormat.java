@@ -0,0 +1,61 @@
+package compiladores.GCOD.parser.ast;
+
+/**
+ * Constants of the compact binary encoding of syntax trees, written by
+ * {@link CompactTreeWriter} and read by {@link CompactTreeReader}.
+ *
+ * A stream starts with the magic bytes {@code GAST} and a version byte, followed by
+ * any number of trees. Each tree is its nodes in post-order, one record per node,
+ * terminated by an {@link #END} record. A record starts with one byte whose high
+ * nibble is the opcode and whose low nibble is an argument:
+ *
+ * <pre>
+ *   END      0  -
+ *   ID_NEW   1  UTF-8 length of the name, then the name; the name gets the next table index
+ *   ID_REF   2  index of a name defined earlier in the same tree
+ *   BINARY   3  operator: 0 +, 1 -, 2 &lt;&lt;, 3 &gt;&gt;
+ *   PAREN    4  -
+ *   CONST    5  -, followed by the value as a zigzag varint
+ * </pre>
+ *
+ * An argument of 15 means the value is 15 plus an unsigned varint that follows the
+ * record byte. Varints are little-endian groups of 7 bits, with the high bit set on
+ * every byte but the last. Every tree has its own identifier table, so trees can be
+ * decoded independently. A name is at most {@link #MAX_NAME_BYTES} bytes long, so a
+ * corrupt length cannot make the reader allocate an arbitrary amount of memory.
+ */
+public final class CompactTreeFormat {
+    /**
+     * HTTP content type of the encoding.
+     */
+    public static final String MEDIA_TYPE = "application/x-gcod-ast";
+
+    static final byte[] MAGIC = {'G', 'A', 'S', 'T'};
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int ID_NEW = 1;
+    static final int ID_REF = 2;
+    static final int BINARY = 3;
+    static final int PAREN = 4;
+    static final int CONST = 5;
+
+    // Low nibble value meaning "15 plus a varint"
+    static final int EXTENDED = 15;
+
+    static final int MAX_NAME_BYTES = 1 << 24;
+
+    static final String[] OPERATORS = {"+", "-", "<<", ">>"};
+
+    private CompactTreeFormat() {
+    }
+
+    static int operatorCode(String operator) {
+        for (int i = 0; i < OPERATORS.length; i++) {
+            if (OPERATORS[i].equals(operator)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operator: " + operator);
+    }
+}
@@ -0,0 +1,285 @@
+package compiladores.GCOD.parser.ast;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads syntax trees in the {@link CompactTreeFormat} from a stream or a channel.
+ *
+ * A tree can be rebuilt with {@link #readTree} or visited with {@link #read}, which
+ * reports its nodes in post-order without creating any of them. The structure of
+ * every tree is checked while it is read, so a visitor only ever sees well-formed
+ * trees. A reader is not thread-safe.
+ */
+public class CompactTreeReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Receives the nodes of a tree in post-order: the operands of a node are always
+     * reported before the node itself.
+     */
+    public interface Visitor {
+        void identifier(String name);
+
+        void constant(long value);
+
+        void binary(String operator);
+
+        void parenthesized();
+    }
+
+    private final InputStream in;
+    private final ReadableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer channelBuffer;
+    private int position;
+    private int limit;
+    private boolean headerRead;
+
+    private final List<String> identifiers = new ArrayList<>();
+
+    public CompactTreeReader(InputStream in) {
+        this.in = in;
+        this.channel = null;
+        this.channelBuffer = null;
+    }
+
+    public CompactTreeReader(ReadableByteChannel channel) {
+        this.in = null;
+        this.channel = channel;
+        this.channelBuffer = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Decodes the first tree of a byte array.
+     */
+    public static ExpressionNode fromByteArray(byte[] bytes) {
+        try {
+            return new CompactTreeReader(new ByteArrayInputStream(bytes)).readTree();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next tree, creating its nodes with {@link NodeFactory#DEFAULT}.
+     *
+     * @return the tree, or null at the end of the input
+     */
+    public ExpressionNode readTree() throws IOException {
+        return readTree(NodeFactory.DEFAULT);
+    }
+
+    /**
+     * Reads the next tree.
+     *
+     * @param nodes the factory used to create the nodes
+     * @return the tree, or null at the end of the input
+     */
+    public ExpressionNode readTree(NodeFactory nodes) throws IOException {
+        TreeBuilder builder = new TreeBuilder(nodes);
+        return read(builder) ? builder.stack[0] : null;
+    }
+
+    /**
+     * Reads the next tree and reports its nodes to the visitor.
+     *
+     * @param visitor receives the nodes in post-order
+     * @return false at the end of the input, true if a tree was read
+     */
+    public boolean read(Visitor visitor) throws IOException {
+        if (!headerRead) {
+            if (!fill()) {
+                return false;
+            }
+            for (byte b : CompactTreeFormat.MAGIC) {
+                if (readByte() != (b & 0xFF)) {
+                    throw new IOException("Not a compact syntax tree stream");
+                }
+            }
+            int version = readByte();
+            if (version != CompactTreeFormat.VERSION) {
+                throw new IOException("Unsupported compact tree version: " + version);
+            }
+            headerRead = true;
+        }
+        if (!fill()) {
+            return false;
+        }
+
+        identifiers.clear();
+        // Number of complete subtrees read so far that are not yet operands of a node
+        long operands = 0;
+        while (true) {
+            int record = readByte();
+            int opcode = record >>> 4;
+            int argument = record & 0x0F;
+
+            switch (opcode) {
+                case CompactTreeFormat.END:
+                    if (operands != 1) {
+                        throw new IOException("Malformed tree: " + operands + " roots");
+                    }
+                    return true;
+                case CompactTreeFormat.ID_NEW: {
+                    int length = readArgument(argument);
+                    if (length > CompactTreeFormat.MAX_NAME_BYTES) {
+                        throw new IOException("Malformed tree: identifier of " + length + " bytes");
+                    }
+                    byte[] name = readBytes(length);
+                    String identifier = new String(name, StandardCharsets.UTF_8);
+                    identifiers.add(identifier);
+                    visitor.identifier(identifier);
+                    operands++;
+                    break;
+                }
+                case CompactTreeFormat.ID_REF: {
+                    int index = readArgument(argument);
+                    if (index >= identifiers.size()) {
+                        throw new IOException("Malformed tree: undefined identifier " + index);
+                    }
+                    visitor.identifier(identifiers.get(index));
+                    operands++;
+                    break;
+                }
+                case CompactTreeFormat.BINARY:
+                    if (operands < 2 || argument >= CompactTreeFormat.OPERATORS.length) {
+                        throw new IOException("Malformed tree: invalid binary operation");
+                    }
+                    visitor.binary(CompactTreeFormat.OPERATORS[argument]);
+                    operands--;
+                    break;
+                case CompactTreeFormat.PAREN:
+                    if (operands < 1) {
+                        throw new IOException("Malformed tree: parentheses without an expression");
+                    }
+                    visitor.parenthesized();
+                    break;
+                case CompactTreeFormat.CONST: {
+                    long zigzag = readVarint();
+                    visitor.constant((zigzag >>> 1) ^ -(zigzag & 1));
+                    operands++;
+                    break;
+                }
+                default:
+                    throw new IOException("Malformed tree: unknown opcode " + opcode);
+            }
+        }
+    }
+
+    private int readArgument(int argument) throws IOException {
+        if (argument < CompactTreeFormat.EXTENDED) {
+            return argument;
+        }
+        long value = readVarint() + CompactTreeFormat.EXTENDED;
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Malformed tree: argument too large");
+        }
+        return (int) value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed tree: varint too long");
+    }
+
+    private int readByte() throws IOException {
+        if (!fill()) {
+            throw new EOFException("Unexpected end of compact tree");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of compact tree");
+            }
+            int count = Math.min(length - offset, limit - position);
+            System.arraycopy(buffer, position, bytes, offset, count);
+            position += count;
+            offset += count;
+        }
+        return bytes;
+    }
+
+    /**
+     * Makes sure at least one byte is buffered. Returns false at the end of the input.
+     */
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            int count;
+            if (in != null) {
+                count = in.read(buffer, 0, buffer.length);
+            } else {
+                channelBuffer.clear();
+                count = channel.read(channelBuffer);
+            }
+            if (count < 0) {
+                return false;
+            }
+            position = 0;
+            limit = count;
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the tree on an explicit operand stack.
+     */
+    private static class TreeBuilder implements Visitor {
+        private final NodeFactory nodes;
+        private ExpressionNode[] stack = new ExpressionNode[64];
+        private int top = -1;
+
+        TreeBuilder(NodeFactory nodes) {
+            this.nodes = nodes;
+        }
+
+        private void push(ExpressionNode node) {
+            if (++top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top] = node;
+        }
+
+        @Override
+        public void identifier(String name) {
+            push(nodes.identifier(name));
+        }
+
+        @Override
+        public void constant(long value) {
+            push(nodes.constant(value));
+        }
+
+        @Override
+        public void binary(String operator) {
+            ExpressionNode right = stack[top--];
+            stack[top] = nodes.binary(stack[top], operator, right);
+        }
+
+        @Override
+        public void parenthesized() {
+            stack[top] = nodes.parenthesized(stack[top]);
+        }
+    }
+}
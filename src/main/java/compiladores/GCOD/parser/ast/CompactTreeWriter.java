@@ -0,0 +1,183 @@
+package compiladores.GCOD.parser.ast;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes syntax trees in the {@link CompactTreeFormat} to a stream or a channel.
+ *
+ * Records are produced by an {@link ASTWalker} and collected in a fixed-size buffer
+ * that is written out whenever it fills up, so neither the encoded tree nor any
+ * intermediate text is held in memory. Call {@link #flush()} after the last tree.
+ * A writer is not thread-safe.
+ */
+public class CompactTreeWriter implements Flushable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer channelBuffer;
+    private int position;
+    private boolean headerWritten;
+
+    private final ASTWalker walker = new ASTWalker();
+    private final Map<String, Integer> identifiers = new HashMap<>();
+
+    public CompactTreeWriter(OutputStream out) {
+        this.out = out;
+        this.channel = null;
+        this.channelBuffer = null;
+    }
+
+    public CompactTreeWriter(WritableByteChannel channel) {
+        this.out = null;
+        this.channel = channel;
+        this.channelBuffer = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Encodes a tree into a new byte array.
+     */
+    public static byte[] toByteArray(ExpressionNode root) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompactTreeWriter writer = new CompactTreeWriter(bytes);
+        try {
+            writer.write(root);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends one tree to the output. The stream header is written before the first tree.
+     *
+     * @param root the root of the tree
+     */
+    public void write(ExpressionNode root) throws IOException {
+        if (!headerWritten) {
+            for (byte b : CompactTreeFormat.MAGIC) {
+                writeByte(b);
+            }
+            writeByte(CompactTreeFormat.VERSION);
+            headerWritten = true;
+        }
+
+        identifiers.clear();
+        try {
+            walker.walk(root, new ASTVisitor() {
+                @Override
+                public Action leave(ExpressionNode node, int depth) {
+                    try {
+                        writeNode(node);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return Action.CONTINUE;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writeByte(CompactTreeFormat.END << 4);
+    }
+
+    private void writeNode(ExpressionNode node) throws IOException {
+        if (node instanceof IdentifierNode) {
+            String name = ((IdentifierNode) node).getName();
+            Integer index = identifiers.get(name);
+            if (index != null) {
+                writeRecord(CompactTreeFormat.ID_REF, index);
+                return;
+            }
+            identifiers.put(name, identifiers.size());
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > CompactTreeFormat.MAX_NAME_BYTES) {
+                throw new IOException("Identifier of " + bytes.length + " bytes is too long for the compact format");
+            }
+            writeRecord(CompactTreeFormat.ID_NEW, bytes.length);
+            writeBytes(bytes);
+        } else if (node instanceof BinaryOperationNode) {
+            String operator = ((BinaryOperationNode) node).getOperator();
+            writeByte(CompactTreeFormat.BINARY << 4 | CompactTreeFormat.operatorCode(operator));
+        } else if (node instanceof ParenthesizedExpressionNode) {
+            writeByte(CompactTreeFormat.PAREN << 4);
+        } else if (node instanceof ConstantNode) {
+            long value = ((ConstantNode) node).getValue();
+            writeByte(CompactTreeFormat.CONST << 4);
+            writeVarint((value << 1) ^ (value >> 63));
+        } else {
+            throw new IllegalArgumentException("Unsupported node: " + node.getClass().getSimpleName());
+        }
+    }
+
+    private void writeRecord(int opcode, int argument) throws IOException {
+        if (argument < CompactTreeFormat.EXTENDED) {
+            writeByte(opcode << 4 | argument);
+        } else {
+            writeByte(opcode << 4 | CompactTreeFormat.EXTENDED);
+            writeVarint(argument - CompactTreeFormat.EXTENDED);
+        }
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int count = Math.min(bytes.length - offset, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void drain() throws IOException {
+        if (out != null) {
+            out.write(buffer, 0, position);
+        } else {
+            channelBuffer.clear().limit(position);
+            while (channelBuffer.hasRemaining()) {
+                channel.write(channelBuffer);
+            }
+        }
+        position = 0;
+    }
+
+    /**
+     * Writes out the buffered records and flushes the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (out != null) {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package compiladores.GCOD.parser.ast;
+
+/**
+ * A known integer value. The parser never produces constants; they are introduced by
+ * rewrites that substitute or fold values.
+ */
+public class ConstantNode extends ExpressionNode {
+    private final long value;
+
+    public ConstantNode(long value) {
+        this.value = value;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    String label() {
+        return "Const(" + value + ")";
+    }
+}
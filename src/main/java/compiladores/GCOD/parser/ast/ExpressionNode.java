@@ -5,4 +5,38 @@ public abstract class ExpressionNode implements ASTNode {
     public String toTreeString() {
         return toTreeString("");
     }
-} 
\ No newline at end of file
+
+    @Override
+    public String toTreeString(String indent) {
+        return TreeRenderer.render(this, indent, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Renders the tree like {@link #toTreeString()}, but stops once the text would
+     * be longer than {@code maxLength} and ends it with a {@code "... (truncated)"} line.
+     *
+     * @param maxLength the maximum length of the text, not counting the last line
+     */
+    public String toTreeString(int maxLength) {
+        return TreeRenderer.render(this, "", maxLength);
+    }
+
+    /**
+     * Returns the number of child expressions, used by {@link ASTWalker}.
+     */
+    public int getChildCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the child expression at {@code index}, from left to right.
+     */
+    public ExpressionNode getChild(int index) {
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * The text of this node's line in {@link #toTreeString()}.
+     */
+    abstract String label();
+}
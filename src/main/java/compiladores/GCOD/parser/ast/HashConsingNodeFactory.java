@@ -0,0 +1,129 @@
+package compiladores.GCOD.parser.ast;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node factory that shares structurally identical subtrees.
+ *
+ * Every node is interned in a concurrent table keyed by its operator or name and the
+ * identity of its children. Because children are interned first, two subtrees built
+ * by the same factory are structurally equal exactly when they are the same instance,
+ * so equality checks are a reference comparison and repeated subexpressions are
+ * stored once. Table values are weak references: a node that is no longer used by any
+ * tree can be collected, and its entry is removed the next time the factory is used.
+ *
+ * Safe for concurrent use by several parsers.
+ */
+public class HashConsingNodeFactory implements NodeFactory {
+    private final ConcurrentHashMap<Object, Entry> table = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ExpressionNode> queue = new ReferenceQueue<>();
+
+    @Override
+    public IdentifierNode identifier(String name) {
+        return (IdentifierNode) intern(name, null, name, null);
+    }
+
+    @Override
+    public BinaryOperationNode binary(ExpressionNode left, String operator, ExpressionNode right) {
+        return (BinaryOperationNode) intern(new Key(operator, left, right), left, operator, right);
+    }
+
+    @Override
+    public ParenthesizedExpressionNode parenthesized(ExpressionNode expression) {
+        return (ParenthesizedExpressionNode) intern(new Key("()", expression, null), expression, null, null);
+    }
+
+    @Override
+    public ConstantNode constant(long value) {
+        return (ConstantNode) intern(value, null, null, null);
+    }
+
+    /**
+     * Returns the number of live entries in the table.
+     */
+    public int size() {
+        expunge();
+        return table.size();
+    }
+
+    private ExpressionNode intern(Object key, ExpressionNode left, String label, ExpressionNode right) {
+        expunge();
+        ExpressionNode created = null;
+        while (true) {
+            Entry entry = table.get(key);
+            ExpressionNode existing = entry == null ? null : entry.get();
+            if (existing != null) {
+                return existing;
+            }
+            if (created == null) {
+                created = create(key, left, label, right);
+            }
+            Entry fresh = new Entry(key, created, queue);
+            if (entry == null ? table.putIfAbsent(key, fresh) == null : table.replace(key, entry, fresh)) {
+                return created;
+            }
+        }
+    }
+
+    private static ExpressionNode create(Object key, ExpressionNode left, String label, ExpressionNode right) {
+        if (key instanceof String) {
+            return new IdentifierNode(label);
+        }
+        if (key instanceof Long) {
+            return new ConstantNode((Long) key);
+        }
+        if (label == null) {
+            return new ParenthesizedExpressionNode(left);
+        }
+        return new BinaryOperationNode(left, label, right);
+    }
+
+    private void expunge() {
+        Object reference;
+        while ((reference = queue.poll()) != null) {
+            Entry entry = (Entry) reference;
+            table.remove(entry.key, entry);
+        }
+    }
+
+    private static final class Entry extends WeakReference<ExpressionNode> {
+        private final Object key;
+
+        Entry(Object key, ExpressionNode node, ReferenceQueue<ExpressionNode> queue) {
+            super(node, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Key of a binary or parenthesized node: its label plus the identity of its children.
+     */
+    private static final class Key {
+        private final String label;
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+        private final int hash;
+
+        Key(String label, ExpressionNode left, ExpressionNode right) {
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.hash = (label.hashCode() * 31 + System.identityHashCode(left)) * 31 + System.identityHashCode(right);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return left == other.left && right == other.right && label.equals(other.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -12,7 +12,7 @@ public class IdentifierNode extends ExpressionNode {
     }
 
     @Override
-    public String toTreeString(String indent) {
-        return indent + "ID(" + name + ")\n";
+    String label() {
+        return "ID(" + name + ")";
     }
 } 
\ No newline at end of file
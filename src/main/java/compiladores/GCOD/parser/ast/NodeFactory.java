@@ -0,0 +1,37 @@
+package compiladores.GCOD.parser.ast;
+
+/**
+ * Creates the nodes of a syntax tree. The parser builds every node through a factory,
+ * so callers can choose how nodes are allocated.
+ */
+public interface NodeFactory {
+    /**
+     * Factory that creates a new node on every call.
+     */
+    NodeFactory DEFAULT = new NodeFactory() {
+        @Override
+        public IdentifierNode identifier(String name) {
+            return new IdentifierNode(name);
+        }
+
+        @Override
+        public BinaryOperationNode binary(ExpressionNode left, String operator, ExpressionNode right) {
+            return new BinaryOperationNode(left, operator, right);
+        }
+
+        @Override
+        public ParenthesizedExpressionNode parenthesized(ExpressionNode expression) {
+            return new ParenthesizedExpressionNode(expression);
+        }
+    };
+
+    IdentifierNode identifier(String name);
+
+    BinaryOperationNode binary(ExpressionNode left, String operator, ExpressionNode right);
+
+    ParenthesizedExpressionNode parenthesized(ExpressionNode expression);
+
+    default ConstantNode constant(long value) {
+        return new ConstantNode(value);
+    }
+}
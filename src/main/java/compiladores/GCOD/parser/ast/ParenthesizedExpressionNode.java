@@ -12,10 +12,20 @@ public class ParenthesizedExpressionNode extends ExpressionNode {
     }
 
     @Override
-    public String toTreeString(String indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent).append("Parenthesized\n");
-        sb.append(expression.toTreeString(indent + "  └─ "));
-        return sb.toString();
+    public int getChildCount() {
+        return 1;
+    }
+
+    @Override
+    public ExpressionNode getChild(int index) {
+        if (index != 0) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return expression;
+    }
+
+    @Override
+    String label() {
+        return "Parenthesized";
     }
 } 
\ No newline at end of file
@@ -0,0 +1,105 @@
+package compiladores.GCOD.parser.ast;
+
+import java.util.Arrays;
+
+/**
+ * Numbers the nodes of a syntax tree so they can be looked up by id.
+ *
+ * Ids are pre-order positions: the root is 0 and the subtree of node {@code id}
+ * covers ids {@code id} to {@code id + getSubtreeSize(id) - 1}. The first child of a
+ * node is therefore {@code id + 1} and each further child follows the subtree of the
+ * one before, so only the nodes and the subtree sizes are stored. A node shared by
+ * a hash-consed tree gets one id per position it appears at.
+ */
+public final class TreeIndex {
+    private final ExpressionNode[] nodes;
+    private final int[] subtreeSize;
+
+    private TreeIndex(ExpressionNode[] nodes, int[] subtreeSize) {
+        this.nodes = nodes;
+        this.subtreeSize = subtreeSize;
+    }
+
+    /**
+     * Numbers the nodes of the tree rooted at {@code root}.
+     */
+    public static TreeIndex of(ExpressionNode root) {
+        Builder builder = new Builder();
+        new ASTWalker().walk(root, builder);
+        return new TreeIndex(Arrays.copyOf(builder.nodes, builder.count),
+                Arrays.copyOf(builder.subtreeSize, builder.count));
+    }
+
+    /**
+     * Returns the number of nodes.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    public ExpressionNode getNode(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * Returns the text of the node's line in {@link ASTNode#toTreeString()}, e.g.
+     * {@code BinaryOp(+)}.
+     */
+    public String getLabel(int id) {
+        return nodes[id].label();
+    }
+
+    /**
+     * Returns the number of nodes in the subtree of {@code id}, including itself.
+     */
+    public int getSubtreeSize(int id) {
+        return subtreeSize[id];
+    }
+
+    public int getChildCount(int id) {
+        return nodes[id].getChildCount();
+    }
+
+    /**
+     * Returns the id of the {@code index}-th child of {@code id}.
+     */
+    public int getChild(int id, int index) {
+        if (index < 0 || index >= nodes[id].getChildCount()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int child = id + 1;
+        for (int i = 0; i < index; i++) {
+            child += subtreeSize[child];
+        }
+        return child;
+    }
+
+    private static final class Builder implements ASTVisitor {
+        private ExpressionNode[] nodes = new ExpressionNode[64];
+        private int[] subtreeSize = new int[64];
+        // Id of the node entered at each depth
+        private int[] ids = new int[64];
+        private int count;
+
+        @Override
+        public Action enter(ExpressionNode node, int depth) {
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+                subtreeSize = Arrays.copyOf(subtreeSize, count * 2);
+            }
+            if (depth == ids.length) {
+                ids = Arrays.copyOf(ids, depth * 2);
+            }
+            ids[depth] = count;
+            nodes[count++] = node;
+            return Action.CONTINUE;
+        }
+
+        @Override
+        public Action leave(ExpressionNode node, int depth) {
+            int id = ids[depth];
+            subtreeSize[id] = count - id;
+            return Action.CONTINUE;
+        }
+    }
+}
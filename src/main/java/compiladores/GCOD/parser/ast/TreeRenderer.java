@@ -0,0 +1,75 @@
+package compiladores.GCOD.parser.ast;
+
+import compiladores.GCOD.jfr.RenderEvent;
+
+import java.util.Arrays;
+
+/**
+ * Renders the indented text of {@link ASTNode#toTreeString()} with an
+ * {@link ASTWalker}, so deep trees neither overflow the stack nor copy every subtree's
+ * text into its parent's.
+ *
+ * The indent of a node is the indent of its parent plus {@code "  ├─ "} for the left
+ * operand of a binary operation and {@code "  └─ "} for any other child.
+ *
+ * The text of a deep tree grows with the square of its depth, so rendering can be
+ * capped: once a line would go past the maximum length, the walk stops and a
+ * {@link #TRUNCATED} line is appended instead.
+ */
+final class TreeRenderer implements ASTVisitor {
+    static final String TRUNCATED = "... (truncated)\n";
+
+    private final StringBuilder out = new StringBuilder();
+    private final StringBuilder indent = new StringBuilder();
+    // Per depth: the length of the indent, the number of children and how many were entered
+    private int[] indentLength = new int[64];
+    private int[] childCount = new int[64];
+    private int[] childrenSeen = new int[64];
+
+    private final int maxLength;
+    private int nodeCount;
+
+    static String render(ExpressionNode root, String indent, int maxLength) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        TreeRenderer renderer = new TreeRenderer(indent, maxLength);
+        new ASTWalker().walk(root, renderer);
+        String text = renderer.out.toString();
+        if (event.shouldCommit()) {
+            event.nodeCount = renderer.nodeCount;
+            event.outputLength = text.length();
+            event.commit();
+        }
+        return text;
+    }
+
+    private TreeRenderer(String initialIndent, int maxLength) {
+        indent.append(initialIndent);
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public Action enter(ExpressionNode node, int depth) {
+        if (depth == indentLength.length) {
+            indentLength = Arrays.copyOf(indentLength, depth * 2);
+            childCount = Arrays.copyOf(childCount, depth * 2);
+            childrenSeen = Arrays.copyOf(childrenSeen, depth * 2);
+        }
+        if (depth > 0) {
+            indent.setLength(indentLength[depth - 1]);
+            boolean leftOperand = childrenSeen[depth - 1]++ == 0 && childCount[depth - 1] == 2;
+            indent.append(leftOperand ? "  ├─ " : "  └─ ");
+        }
+        indentLength[depth] = indent.length();
+        childCount[depth] = node.getChildCount();
+        childrenSeen[depth] = 0;
+        String label = node.label();
+        if ((long) out.length() + indent.length() + label.length() + 1 > maxLength) {
+            out.append(TRUNCATED);
+            return Action.STOP;
+        }
+        out.append(indent).append(label).append('\n');
+        nodeCount++;
+        return Action.CONTINUE;
+    }
+}
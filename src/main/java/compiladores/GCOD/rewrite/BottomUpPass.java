@@ -0,0 +1,107 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import compiladores.GCOD.parser.ast.ParenthesizedExpressionNode;
+
+import java.util.Arrays;
+
+/**
+ * Base class for passes that rewrite each node after its children.
+ *
+ * The tree is walked in post-order with explicit stacks, so the depth of the tree is
+ * not limited by the thread stack. A node whose children were not changed is kept as
+ * it is; otherwise it is rebuilt through the node factory before being handed to
+ * {@link #rewrite}.
+ */
+public abstract class BottomUpPass implements RewritePass {
+
+    @Override
+    public ExpressionNode apply(ExpressionNode root, NodeFactory nodes) {
+        ExpressionNode[] pending = new ExpressionNode[64];
+        ExpressionNode[] parents = new ExpressionNode[64];
+        boolean[] expanded = new boolean[64];
+        ExpressionNode[] results = new ExpressionNode[64];
+        int top = 0;
+        int resultTop = -1;
+        pending[0] = root;
+
+        while (top >= 0) {
+            ExpressionNode node = pending[top];
+
+            if (!expanded[top]) {
+                expanded[top] = true;
+                if (top + 2 >= pending.length) {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                    parents = Arrays.copyOf(parents, pending.length);
+                    expanded = Arrays.copyOf(expanded, pending.length);
+                }
+                // Children are pushed right first so the left result is produced first
+                if (node instanceof BinaryOperationNode) {
+                    BinaryOperationNode binary = (BinaryOperationNode) node;
+                    top = push(pending, parents, expanded, top, binary.getRight(), node);
+                    top = push(pending, parents, expanded, top, binary.getLeft(), node);
+                } else if (node instanceof ParenthesizedExpressionNode) {
+                    top = push(pending, parents, expanded, top, ((ParenthesizedExpressionNode) node).getExpression(), node);
+                }
+                continue;
+            }
+
+            ExpressionNode parent = parents[top];
+            pending[top] = null;
+            parents[top] = null;
+            top--;
+
+            ExpressionNode rebuilt = node;
+            if (node instanceof BinaryOperationNode) {
+                BinaryOperationNode binary = (BinaryOperationNode) node;
+                ExpressionNode right = results[resultTop--];
+                ExpressionNode left = results[resultTop--];
+                if (left != binary.getLeft() || right != binary.getRight()) {
+                    rebuilt = nodes.binary(left, binary.getOperator(), right);
+                }
+            } else if (node instanceof ParenthesizedExpressionNode) {
+                ExpressionNode expression = results[resultTop--];
+                if (expression != ((ParenthesizedExpressionNode) node).getExpression()) {
+                    rebuilt = nodes.parenthesized(expression);
+                }
+            }
+
+            if (resultTop + 1 == results.length) {
+                results = Arrays.copyOf(results, results.length * 2);
+            }
+            results[++resultTop] = rewrite(rebuilt, parent, nodes);
+        }
+        return results[0];
+    }
+
+    private static int push(ExpressionNode[] pending, ExpressionNode[] parents, boolean[] expanded,
+                            int top, ExpressionNode node, ExpressionNode parent) {
+        top++;
+        pending[top] = node;
+        parents[top] = parent;
+        expanded[top] = false;
+        return top;
+    }
+
+    /**
+     * Rewrites one node whose children have already been rewritten.
+     *
+     * @param node the node, rebuilt with its rewritten children
+     * @param parent the parent of the node in the original tree, or null for the root
+     * @param nodes the factory for new nodes
+     * @return the replacement, or {@code node} to keep it
+     */
+    protected abstract ExpressionNode rewrite(ExpressionNode node, ExpressionNode parent, NodeFactory nodes);
+
+    /**
+     * Skips parentheses around a node.
+     */
+    protected static ExpressionNode unwrap(ExpressionNode node) {
+        while (node instanceof ParenthesizedExpressionNode) {
+            node = ((ParenthesizedExpressionNode) node).getExpression();
+        }
+        return node;
+    }
+}
@@ -0,0 +1,51 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+/**
+ * Cancels an operand that is added and then subtracted again:
+ * {@code x + y - y} and {@code x - y + y} become {@code x}, and {@code x + y - x}
+ * becomes {@code y}, and {@code y - y} becomes {@code 0}. This holds for wrapping
+ * {@code long} arithmetic.
+ */
+public class CancellationPass extends BottomUpPass {
+
+    @Override
+    public String getName() {
+        return "cancellation";
+    }
+
+    @Override
+    protected ExpressionNode rewrite(ExpressionNode node, ExpressionNode parent, NodeFactory nodes) {
+        if (!(node instanceof BinaryOperationNode)) {
+            return node;
+        }
+        BinaryOperationNode binary = (BinaryOperationNode) node;
+        if (binary.getOperator().equals("-") && Trees.equal(binary.getLeft(), binary.getRight())) {
+            return nodes.constant(0);
+        }
+        ExpressionNode left = unwrap(binary.getLeft());
+        if (!(left instanceof BinaryOperationNode)) {
+            return node;
+        }
+        BinaryOperationNode inner = (BinaryOperationNode) left;
+        String outer = binary.getOperator();
+        String operator = inner.getOperator();
+
+        if (outer.equals("-") && operator.equals("+")) {
+            if (Trees.equal(inner.getRight(), binary.getRight())) {
+                return inner.getLeft();
+            }
+            if (Trees.equal(inner.getLeft(), binary.getRight())) {
+                return inner.getRight();
+            }
+        } else if (outer.equals("+") && operator.equals("-")) {
+            if (Trees.equal(inner.getRight(), binary.getRight())) {
+                return inner.getLeft();
+            }
+        }
+        return node;
+    }
+}
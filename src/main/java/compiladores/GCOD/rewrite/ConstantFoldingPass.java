@@ -0,0 +1,104 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ConstantNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.IdentifierNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.util.Map;
+
+/**
+ * Replaces identifiers with known values and folds what becomes constant.
+ *
+ * Besides evaluating operations on two constants, the pass removes shifts by zero and
+ * additions or subtractions of zero, and merges shift chains with constant distances:
+ * {@code (x << a) << b} becomes {@code x << (a + b)} when the total stays below 64,
+ * and {@code (x >> a) >> b} becomes {@code x >> min(a + b, 63)}. Arithmetic follows
+ * Java {@code long} semantics, so shift distances are taken modulo 64.
+ */
+public class ConstantFoldingPass extends BottomUpPass {
+    private final Map<String, Long> constants;
+
+    /**
+     * @param constants values of the identifiers that are known ahead of evaluation
+     */
+    public ConstantFoldingPass(Map<String, Long> constants) {
+        this.constants = constants;
+    }
+
+    @Override
+    public String getName() {
+        return "constant-folding";
+    }
+
+    @Override
+    protected ExpressionNode rewrite(ExpressionNode node, ExpressionNode parent, NodeFactory nodes) {
+        if (node instanceof IdentifierNode) {
+            Long value = constants.get(((IdentifierNode) node).getName());
+            return value == null ? node : nodes.constant(value);
+        }
+        if (!(node instanceof BinaryOperationNode)) {
+            return node;
+        }
+
+        BinaryOperationNode binary = (BinaryOperationNode) node;
+        String operator = binary.getOperator();
+        ExpressionNode left = unwrap(binary.getLeft());
+        ExpressionNode right = unwrap(binary.getRight());
+
+        if (left instanceof ConstantNode && right instanceof ConstantNode) {
+            return nodes.constant(apply(operator, ((ConstantNode) left).getValue(), ((ConstantNode) right).getValue()));
+        }
+        if (right instanceof ConstantNode) {
+            long value = ((ConstantNode) right).getValue();
+            boolean shift = operator.equals("<<") || operator.equals(">>");
+            if (shift ? (value & 63) == 0 : value == 0) {
+                return binary.getLeft();
+            }
+            if (shift) {
+                return foldShiftChain(binary, left, value & 63, nodes);
+            }
+        }
+        if (left instanceof ConstantNode && operator.equals("+") && ((ConstantNode) left).getValue() == 0) {
+            return binary.getRight();
+        }
+        return node;
+    }
+
+    private static ExpressionNode foldShiftChain(BinaryOperationNode node, ExpressionNode left,
+                                                 long distance, NodeFactory nodes) {
+        if (!(left instanceof BinaryOperationNode)) {
+            return node;
+        }
+        BinaryOperationNode inner = (BinaryOperationNode) left;
+        ExpressionNode innerDistance = unwrap(inner.getRight());
+        if (!inner.getOperator().equals(node.getOperator()) || !(innerDistance instanceof ConstantNode)) {
+            return node;
+        }
+
+        long total = (((ConstantNode) innerDistance).getValue() & 63) + distance;
+        if (node.getOperator().equals(">>")) {
+            // An arithmetic shift by 63 or more leaves only the sign
+            total = Math.min(total, 63);
+        } else if (total > 63) {
+            return node;
+        }
+        return nodes.binary(inner.getLeft(), node.getOperator(), nodes.constant(total));
+    }
+
+    private static long apply(String operator, long left, long right) {
+        switch (operator) {
+            case "+":
+                return left + right;
+            case "-":
+                return left - right;
+            case "<<":
+                return left << right;
+            case ">>":
+                return left >> right;
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + operator);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Puts the operands of additive chains in a canonical order, so that expressions such
+ * as {@code a + b - c} and {@code b - c + a} produce the same tree and share cache
+ * entries.
+ *
+ * Each maximal chain of {@code +} and {@code -} is flattened into signed terms, the
+ * terms are sorted by their structural hash, and the chain is rebuilt left-deep,
+ * starting with the first added term. Shift operands are never reordered.
+ */
+public class OperandOrderPass extends BottomUpPass {
+
+    @Override
+    public String getName() {
+        return "operand-order";
+    }
+
+    private static boolean isAdditive(ExpressionNode node) {
+        if (!(node instanceof BinaryOperationNode)) {
+            return false;
+        }
+        String operator = ((BinaryOperationNode) node).getOperator();
+        return operator.equals("+") || operator.equals("-");
+    }
+
+    @Override
+    protected ExpressionNode rewrite(ExpressionNode node, ExpressionNode parent, NodeFactory nodes) {
+        // Only the root of a chain reorders it; the inner nodes are flattened along with it
+        if (!isAdditive(node) || isAdditive(parent)) {
+            return node;
+        }
+
+        List<Term> terms = new ArrayList<>();
+        boolean leftDeep = true;
+        Deque<Term> stack = new ArrayDeque<>();
+        stack.push(new Term(node, true));
+        while (!stack.isEmpty()) {
+            Term term = stack.pop();
+            ExpressionNode current = unwrap(term.node);
+            if (isAdditive(current)) {
+                BinaryOperationNode binary = (BinaryOperationNode) current;
+                boolean subtract = binary.getOperator().equals("-");
+                leftDeep &= !isAdditive(unwrap(binary.getRight()));
+                stack.push(new Term(binary.getRight(), subtract ? !term.positive : term.positive));
+                stack.push(new Term(binary.getLeft(), term.positive));
+            } else {
+                term.hash = Trees.hash(term.node);
+                terms.add(term);
+            }
+        }
+
+        List<Term> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparingInt((Term term) -> term.hash).thenComparing(term -> !term.positive));
+        int head = 0;
+        while (!sorted.get(head).positive) {
+            head++;
+        }
+        sorted.add(0, sorted.remove(head));
+
+        if (leftDeep && sorted.equals(terms)) {
+            return node;
+        }
+
+        ExpressionNode result = sorted.get(0).node;
+        for (int i = 1; i < sorted.size(); i++) {
+            Term term = sorted.get(i);
+            result = nodes.binary(result, term.positive ? "+" : "-", term.node);
+        }
+        return result;
+    }
+
+    private static final class Term {
+        private final ExpressionNode node;
+        private final boolean positive;
+        private int hash;
+
+        Term(ExpressionNode node, boolean positive) {
+            this.node = node;
+            this.positive = positive;
+        }
+    }
+}
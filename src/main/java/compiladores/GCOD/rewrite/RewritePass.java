@@ -0,0 +1,23 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+/**
+ * A transformation of a syntax tree that preserves its value.
+ */
+public interface RewritePass {
+    /**
+     * Returns the name shown in pipeline reports.
+     */
+    String getName();
+
+    /**
+     * Rewrites a tree.
+     *
+     * @param root the tree to rewrite
+     * @param nodes the factory used for every node the pass creates
+     * @return the rewritten tree, or {@code root} itself if nothing changed
+     */
+    ExpressionNode apply(ExpressionNode root, NodeFactory nodes);
+}
@@ -0,0 +1,89 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a sequence of rewrite passes over a tree until none of them changes it.
+ *
+ * Every pass run is timed and the node count before and after it is recorded, so the
+ * returned {@link RewriteReport} shows where the time went and how much each pass
+ * shrank the tree.
+ */
+public class RewritePipeline {
+    private static final int DEFAULT_MAX_ITERATIONS = 8;
+
+    private final List<RewritePass> passes;
+    private final NodeFactory nodes;
+    private final int maxIterations;
+
+    public RewritePipeline(List<RewritePass> passes) {
+        this(passes, NodeFactory.DEFAULT, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * @param passes the passes, in the order they run in each iteration
+     * @param nodes the factory used for every node the passes create
+     * @param maxIterations the maximum number of times the passes are repeated
+     */
+    public RewritePipeline(List<RewritePass> passes, NodeFactory nodes, int maxIterations) {
+        this.passes = List.copyOf(passes);
+        this.nodes = nodes;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Creates the standard pipeline: strip parentheses, fold constants, cancel
+     * operands and normalise operand order.
+     *
+     * @param constants values of the identifiers that are known ahead of evaluation
+     */
+    public static RewritePipeline standard(Map<String, Long> constants) {
+        return new RewritePipeline(List.of(
+                new StripParenthesesPass(),
+                new ConstantFoldingPass(constants),
+                new CancellationPass(),
+                new OperandOrderPass()));
+    }
+
+    /**
+     * Rewrites the tree.
+     *
+     * @param root the tree to rewrite
+     * @return the rewritten tree with per-pass statistics
+     */
+    public RewriteReport run(ExpressionNode root) {
+        List<RewriteReport.PassStatistics> statistics = new ArrayList<>();
+        for (RewritePass pass : passes) {
+            statistics.add(new RewriteReport.PassStatistics(pass.getName()));
+        }
+
+        int nodesBefore = Trees.count(root);
+        int count = nodesBefore;
+        ExpressionNode tree = root;
+        int iterations = 0;
+        boolean changed = true;
+
+        while (changed && iterations < maxIterations) {
+            changed = false;
+            iterations++;
+            for (int i = 0; i < passes.size(); i++) {
+                long start = System.nanoTime();
+                ExpressionNode rewritten = passes.get(i).apply(tree, nodes);
+                long elapsed = System.nanoTime() - start;
+
+                int rewrittenCount = rewritten == tree ? count : Trees.count(rewritten);
+                statistics.get(i).record(elapsed, count, rewrittenCount, rewritten != tree);
+                changed |= rewritten != tree;
+                tree = rewritten;
+                count = rewrittenCount;
+            }
+        }
+
+        return new RewriteReport(tree, iterations, nodesBefore, count, statistics);
+    }
+}
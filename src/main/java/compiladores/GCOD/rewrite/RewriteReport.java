@@ -0,0 +1,105 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+
+import java.util.List;
+
+/**
+ * The outcome of a {@link RewritePipeline} run.
+ */
+public class RewriteReport {
+    private final ExpressionNode tree;
+    private final int iterations;
+    private final int nodesBefore;
+    private final int nodesAfter;
+    private final List<PassStatistics> passes;
+
+    RewriteReport(ExpressionNode tree, int iterations, int nodesBefore, int nodesAfter,
+                  List<PassStatistics> passes) {
+        this.tree = tree;
+        this.iterations = iterations;
+        this.nodesBefore = nodesBefore;
+        this.nodesAfter = nodesAfter;
+        this.passes = passes;
+    }
+
+    public ExpressionNode getTree() {
+        return tree;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getNodesBefore() {
+        return nodesBefore;
+    }
+
+    public int getNodesAfter() {
+        return nodesAfter;
+    }
+
+    public List<PassStatistics> getPasses() {
+        return passes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d -> %d nodes in %d iterations%n", nodesBefore, nodesAfter, iterations));
+        for (PassStatistics pass : passes) {
+            sb.append(pass).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Totals for one pass over all iterations.
+     */
+    public static class PassStatistics {
+        private final String name;
+        private int runs;
+        private int changes;
+        private long nanos;
+        private long nodesRemoved;
+
+        PassStatistics(String name) {
+            this.name = name;
+        }
+
+        void record(long elapsed, int nodesBefore, int nodesAfter, boolean changed) {
+            runs++;
+            nanos += elapsed;
+            nodesRemoved += nodesBefore - nodesAfter;
+            if (changed) {
+                changes++;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getChanges() {
+            return changes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getNodesRemoved() {
+            return nodesRemoved;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("  %-18s %3d runs %3d changed %10.3f ms %8d nodes removed",
+                    name, runs, changes, nanos / 1e6, nodesRemoved);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import compiladores.GCOD.parser.ast.ParenthesizedExpressionNode;
+
+/**
+ * Removes parenthesized wrappers. The tree shape already encodes the grouping the
+ * parentheses expressed, so they carry no meaning after parsing.
+ */
+public class StripParenthesesPass extends BottomUpPass {
+
+    @Override
+    public String getName() {
+        return "strip-parentheses";
+    }
+
+    @Override
+    protected ExpressionNode rewrite(ExpressionNode node, ExpressionNode parent, NodeFactory nodes) {
+        if (node instanceof ParenthesizedExpressionNode) {
+            return ((ParenthesizedExpressionNode) node).getExpression();
+        }
+        return node;
+    }
+}
@@ -0,0 +1,114 @@
+package compiladores.GCOD.rewrite;
+
+import compiladores.GCOD.parser.ast.ASTVisitor;
+import compiladores.GCOD.parser.ast.ASTWalker;
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.ConstantNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.IdentifierNode;
+import compiladores.GCOD.parser.ast.ParenthesizedExpressionNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Structural helpers for syntax trees. None of them recurse on the thread stack.
+ *
+ * Equality and hashing look through parentheses, since a parenthesized expression
+ * has the same value as the expression inside it.
+ */
+public final class Trees {
+
+    private Trees() {
+    }
+
+    /**
+     * Returns the number of nodes in the tree, parentheses included.
+     */
+    public static int count(ExpressionNode root) {
+        int[] count = new int[1];
+        new ASTWalker().walk(root, new ASTVisitor() {
+            @Override
+            public Action enter(ExpressionNode node, int depth) {
+                count[0]++;
+                return Action.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns true if both trees have the same structure, ignoring parentheses.
+     */
+    public static boolean equal(ExpressionNode a, ExpressionNode b) {
+        Deque<ExpressionNode> stack = new ArrayDeque<>();
+        stack.push(a);
+        stack.push(b);
+        while (!stack.isEmpty()) {
+            ExpressionNode y = BottomUpPass.unwrap(stack.pop());
+            ExpressionNode x = BottomUpPass.unwrap(stack.pop());
+            if (x == y) {
+                continue;
+            }
+            if (x instanceof BinaryOperationNode && y instanceof BinaryOperationNode) {
+                BinaryOperationNode bx = (BinaryOperationNode) x;
+                BinaryOperationNode by = (BinaryOperationNode) y;
+                if (!bx.getOperator().equals(by.getOperator())) {
+                    return false;
+                }
+                stack.push(bx.getLeft());
+                stack.push(by.getLeft());
+                stack.push(bx.getRight());
+                stack.push(by.getRight());
+            } else if (x instanceof IdentifierNode && y instanceof IdentifierNode) {
+                if (!((IdentifierNode) x).getName().equals(((IdentifierNode) y).getName())) {
+                    return false;
+                }
+            } else if (x instanceof ConstantNode && y instanceof ConstantNode) {
+                if (((ConstantNode) x).getValue() != ((ConstantNode) y).getValue()) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a structural hash, consistent with {@link #equal}.
+     */
+    public static int hash(ExpressionNode root) {
+        Map<ExpressionNode, Integer> hashes = new IdentityHashMap<>();
+        Deque<ExpressionNode> stack = new ArrayDeque<>();
+        stack.push(BottomUpPass.unwrap(root));
+        while (!stack.isEmpty()) {
+            ExpressionNode node = stack.peek();
+            if (node instanceof BinaryOperationNode) {
+                BinaryOperationNode binary = (BinaryOperationNode) node;
+                ExpressionNode left = BottomUpPass.unwrap(binary.getLeft());
+                ExpressionNode right = BottomUpPass.unwrap(binary.getRight());
+                Integer leftHash = hashes.get(left);
+                Integer rightHash = hashes.get(right);
+                if (leftHash == null || rightHash == null) {
+                    if (rightHash == null) {
+                        stack.push(right);
+                    }
+                    if (leftHash == null) {
+                        stack.push(left);
+                    }
+                    continue;
+                }
+                hashes.put(node, (binary.getOperator().hashCode() * 31 + leftHash) * 31 + rightHash);
+            } else if (node instanceof IdentifierNode) {
+                hashes.put(node, ((IdentifierNode) node).getName().hashCode());
+            } else if (node instanceof ConstantNode) {
+                hashes.put(node, Long.hashCode(((ConstantNode) node).getValue()) * 17 + 1);
+            }
+            stack.pop();
+        }
+        return hashes.get(BottomUpPass.unwrap(root));
+    }
+}
@@ -0,0 +1,110 @@
+package compiladores.GCOD.FirstFollow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.GrammarService;
+import compiladores.GCOD.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Random;
+
+@SpringBootTest
+public class SentenceGeneratorTests {
+
+    @Autowired
+    private GrammarService grammarService;
+
+    private static int depth(String text) {
+        int depth = 0;
+        int max = 0;
+        for (char c : text.toCharArray()) {
+            if (c == '(') {
+                max = Math.max(max, ++depth);
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        return max;
+    }
+
+    @Test
+    public void testParseRules() {
+        Grammar grammar = Grammar.parse(grammarService.getGrammarString());
+        assertEquals("E", grammar.getStartSymbol().getName());
+        assertEquals(3, grammar.getNonTerminal("E").getProductions().size());
+        assertEquals(7, grammar.getTerminals().size());
+        assertEquals("( E )", grammar.getNonTerminal("F").getProductions().get(0).toString());
+
+        Grammar alternatives = Grammar.parse(List.of("S -> a S b | ε"));
+        assertEquals(2, alternatives.getStartSymbol().getProductions().size());
+        assertTrue(alternatives.getStartSymbol().getProductions().get(1).getSymbols().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> Grammar.parse(List.of("S a b")));
+    }
+
+    @Test
+    public void testValidSentencesParse() {
+        SentenceGenerator generator = new SentenceGenerator(grammarService.getGrammar());
+        assertEquals(1, generator.getMinLength());
+        assertEquals(3, generator.getMinDepth());
+
+        Random random = new Random(42);
+        int longest = 0;
+        for (int i = 0; i < 500; i++) {
+            List<Symbol> sentence = generator.generate(random, 1 + random.nextInt(60), 12);
+            String text = SentenceGenerator.toText(sentence);
+            Parser parser = new Parser(text);
+            parser.parse();
+            assertTrue(parser.getDiagnostics().isEmpty(), text);
+            assertTrue(sentence.size() <= 60, text);
+            // Every level of parentheses takes three derivation levels: F, E and T
+            assertTrue(depth(text) <= 3, text);
+            longest = Math.max(longest, sentence.size());
+        }
+        assertTrue(longest > 40);
+    }
+
+    @Test
+    public void testLengthIsCloseToTarget() {
+        SentenceGenerator generator = new SentenceGenerator(grammarService.getGrammar());
+        Random random = new Random(7);
+        int total = 0;
+        for (int i = 0; i < 100; i++) {
+            total += generator.generate(random, 200, 1000).size();
+        }
+        assertTrue(total / 100 > 150, "mean length " + total / 100);
+    }
+
+    @Test
+    public void testMutatedSentencesFail() {
+        SentenceGenerator generator = new SentenceGenerator(grammarService.getGrammar());
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            List<Symbol> sentence = generator.generate(random, 1 + random.nextInt(30), 15);
+            String text = SentenceGenerator.toText(generator.mutate(random, sentence));
+            Parser parser = new Parser(text);
+            parser.parse();
+            assertFalse(parser.getDiagnostics().isEmpty(), text);
+        }
+    }
+
+    @Test
+    public void testNullableAndUnproductiveSymbols() {
+        // Balanced a/b pairs; D never derives a sentence and must be avoided
+        SentenceGenerator generator = new SentenceGenerator(Grammar.parse(List.of(
+                "S → a S b | D | ε",
+                "D → D c")));
+        assertEquals(0, generator.getMinLength());
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            String text = SentenceGenerator.toText(generator.generate(random, 20, 30)).replace(" ", "");
+            int half = text.length() / 2;
+            assertEquals("a".repeat(half) + "b".repeat(half), text);
+        }
+        assertEquals("", SentenceGenerator.toText(generator.generate(random, 0, 30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SentenceGenerator(Grammar.parse(List.of("S → S a"))));
+    }
+}
@@ -0,0 +1,68 @@
+package compiladores.GCOD;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GrammarIndexTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    private ResponseEntity<String> get(String path, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private static Set<String> names(JsonNode array) {
+        Set<String> names = new HashSet<>();
+        array.forEach(name -> names.add(name.asText()));
+        return names;
+    }
+
+    @Test
+    public void testIndexPageIsConditional() {
+        ResponseEntity<String> page = get("/", null);
+        assertEquals(HttpStatus.OK, page.getStatusCode());
+        assertTrue(page.getBody().contains("FIRST(E) = {"));
+        assertTrue(page.getBody().contains("/parser"));
+        String eTag = page.getHeaders().getETag();
+        assertNotNull(eTag);
+        assertFalse(eTag.startsWith("W/"));
+
+        ResponseEntity<String> again = get("/", eTag);
+        assertEquals(HttpStatus.NOT_MODIFIED, again.getStatusCode());
+        assertNull(again.getBody());
+
+        assertEquals(HttpStatus.OK, get("/", "\"stale\"").getStatusCode());
+    }
+
+    @Test
+    public void testJsonVariant() throws Exception {
+        ResponseEntity<JsonNode> response = rest.getForEntity("/api/grammar", JsonNode.class);
+        JsonNode analysis = response.getBody();
+        assertEquals(8, analysis.get("grammar").size());
+        assertEquals(Set.of("(", "id"), names(analysis.get("first").get("E")));
+        assertEquals(Set.of("$", ")", "<<", ">>", "+", "-"), names(analysis.get("follow").get("F")));
+
+        String eTag = response.getHeaders().getETag();
+        assertNotEquals(get("/", null).getHeaders().getETag(), eTag);
+        assertEquals(HttpStatus.NOT_MODIFIED, get("/api/grammar", eTag).getStatusCode());
+    }
+}
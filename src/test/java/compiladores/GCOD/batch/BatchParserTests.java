@@ -0,0 +1,81 @@
+package compiladores.GCOD.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@SpringBootTest
+public class BatchParserTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRunWritesResultsPerFile() throws Exception {
+        Path input = directory.resolve("in");
+        Files.createDirectories(input.resolve("nested"));
+        Files.writeString(input.resolve("first.txt"), "a + b\n\na + (b\n  \nx << y @\n", StandardCharsets.UTF_8);
+        Files.writeString(input.resolve("nested/second.txt"), "(a - b) >> c\n", StandardCharsets.UTF_8);
+        Path output = directory.resolve("out");
+
+        BatchParser.Summary summary = new BatchParser(output, false)
+                .run(List.of(input), ForkJoinPool.commonPool());
+        assertEquals(2, summary.getFiles());
+        assertEquals(4, summary.getExpressions());
+        assertEquals(2, summary.getErrors());
+        assertEquals(Files.size(input.resolve("first.txt")) + Files.size(input.resolve("nested/second.txt")),
+                summary.getBytes());
+
+        List<String> first = Files.readAllLines(output.resolve("first.txt.out"), StandardCharsets.UTF_8);
+        String tree = new Parser("a + b").parse().toTreeString();
+        List<String> treeLines = tree.lines().toList();
+        assertEquals("line 1: OK", first.get(0));
+        assertEquals(treeLines, first.subList(1, 1 + treeLines.size()));
+        List<String> errors = first.subList(1 + treeLines.size(), first.size());
+        assertEquals(4, errors.size());
+        assertEquals("line 3: ERROR", errors.get(0));
+        // Positions are those in the file, not in the line parsed on its own
+        assertTrue(errors.get(1).startsWith("Error at line 3, column 7:"), errors.get(1));
+        assertEquals("line 5: ERROR", errors.get(2));
+        assertTrue(errors.get(3).startsWith("Error at line 5, column 8:"), errors.get(3));
+
+        String second = Files.readString(output.resolve("nested/second.txt.out"), StandardCharsets.UTF_8);
+        assertEquals("line 1: OK\n" + new Parser("(a - b) >> c").parse().toTreeString(), second);
+
+        BatchParser.Summary errorsOnly = new BatchParser(output, true)
+                .run(List.of(input), ForkJoinPool.commonPool());
+        assertEquals(2, errorsOnly.getErrors());
+        assertEquals(String.join("\n", errors) + "\n",
+                Files.readString(output.resolve("first.txt.out"), StandardCharsets.UTF_8));
+        assertEquals("", Files.readString(output.resolve("nested/second.txt.out"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUnreadableFilesDoNotStopTheRun() throws Exception {
+        Path input = directory.resolve("in");
+        Files.createDirectories(input);
+        Files.writeString(input.resolve("a.txt"), "a + b\n", StandardCharsets.UTF_8);
+        Files.write(input.resolve("b.txt"), new byte[] {'a', ' ', '+', ' ', (byte) 0xC3, (byte) 0x28, '\n'});
+        Files.writeString(input.resolve("c.txt"), "c - d\nc @\n", StandardCharsets.UTF_8);
+        Path output = directory.resolve("out");
+
+        BatchParser.Summary summary = new BatchParser(output, false)
+                .run(List.of(input), ForkJoinPool.commonPool());
+        assertEquals(2, summary.getFiles());
+        assertEquals(1, summary.getFailedFiles());
+        assertEquals(3, summary.getExpressions());
+        assertEquals(1, summary.getErrors());
+        assertTrue(Files.exists(output.resolve("a.txt.out")));
+        assertFalse(Files.exists(output.resolve("b.txt.out")));
+        assertTrue(Files.exists(output.resolve("c.txt.out")));
+    }
+}
@@ -0,0 +1,99 @@
+package compiladores.GCOD.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@SpringBootTest
+public class SegmentLogCacheTests {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] key(int i) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(("key" + i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] value(int i) {
+        return ("value of " + i + " ").repeat(i % 13 + 1).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSurvivesRestart() throws Exception {
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 30, 4096)) {
+            for (int i = 0; i < 10_000; i++) {
+                cache.put(key(i), value(i));
+            }
+            assertEquals(10_000, cache.size());
+            assertArrayEquals(value(42), cache.get(key(42)));
+            assertNull(cache.get(key(-1)));
+        }
+
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 30, 4096)) {
+            assertEquals(10_000, cache.size());
+            for (int i = 0; i < 10_000; i++) {
+                assertArrayEquals(value(i), cache.get(key(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testRebuildsIndexAndDropsTornRecords() throws Exception {
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 30, 1 << 20)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(key(i), value(i));
+            }
+        }
+        Files.delete(directory.resolve("index.bin"));
+        // Half of a record, as if the process died while appending it
+        try (FileChannel segment = FileChannel.open(directory.resolve("segment-00000001.log"), StandardOpenOption.APPEND)) {
+            segment.write(ByteBuffer.wrap(new byte[] {0x47, 0x43, 0x52, 0x45, 1, 2, 3}));
+        }
+
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 30, 1 << 20)) {
+            assertEquals(100, cache.size());
+            assertArrayEquals(value(7), cache.get(key(7)));
+            cache.put(key(100), value(100));
+        }
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 30, 1 << 20)) {
+            assertArrayEquals(value(100), cache.get(key(100)));
+            assertArrayEquals(value(99), cache.get(key(99)));
+        }
+    }
+
+    @Test
+    public void testCompactionBoundsSize() throws Exception {
+        long maxBytes = 64 * 1024;
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, maxBytes, 8 * 1024)) {
+            for (int i = 0; i < 5_000; i++) {
+                cache.put(key(i), value(i));
+                assertTrue(cache.getTotalBytes() <= maxBytes + 8 * 1024);
+            }
+            assertNull(cache.get(key(0)));
+            assertArrayEquals(value(4_999), cache.get(key(4_999)));
+            assertTrue(cache.size() < 5_000);
+        }
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, maxBytes, 8 * 1024)) {
+            assertArrayEquals(value(4_999), cache.get(key(4_999)));
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidKeys() throws IOException {
+        try (SegmentLogCache cache = SegmentLogCache.open(directory, 1 << 20, 1 << 16)) {
+            assertThrows(IllegalArgumentException.class, () -> cache.put(new byte[16], new byte[1]));
+        }
+    }
+}
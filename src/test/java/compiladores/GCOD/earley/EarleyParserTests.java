@@ -0,0 +1,195 @@
+package compiladores.GCOD.earley;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.FirstFollow.Grammar;
+import compiladores.GCOD.FirstFollow.SentenceGenerator;
+import compiladores.GCOD.FirstFollow.Symbol;
+import compiladores.GCOD.GrammarService;
+import compiladores.GCOD.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@SpringBootTest
+public class EarleyParserTests {
+
+    @Autowired
+    private GrammarService grammarService;
+
+    private static List<String> tokens(String input) {
+        return input.isEmpty() ? List.of() : Arrays.asList(input.split(" "));
+    }
+
+    private static List<String> names(List<Symbol> symbols) {
+        List<String> names = new ArrayList<>();
+        for (Symbol symbol : symbols) {
+            names.add(symbol.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testAmbiguityIsShared() {
+        EarleyParser parser = new EarleyParser(Grammar.parse(List.of("E → E + E | a")));
+        assertEquals(1, parser.parse(tokens("a")).countTrees());
+        assertEquals(2, parser.parse(tokens("a + a + a")).countTrees());
+        // Catalan numbers
+        assertEquals(5, parser.parse(tokens("a + a + a + a")).countTrees());
+        assertEquals(42, parser.parse(tokens("a + a + a + a + a + a")).countTrees());
+
+        ParseForest root = parser.parse(tokens("a + a + a"));
+        assertTrue(root.getRoot().isAmbiguous());
+        assertEquals("(E, 0, 5)", root.getRoot().toString());
+
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 0; i < 60; i++) {
+            input.append(" + a");
+        }
+        ParseForest forest = parser.parse(tokens(input.toString()));
+        assertEquals(Long.MAX_VALUE, forest.countTrees());
+        // One node per symbol and span, not per tree
+        assertTrue(forest.getNodeCount() < 121 * 121 * 3, "nodes " + forest.getNodeCount());
+        // One packed node per split of the span, however many times each is derived
+        assertEquals(60, forest.getRoot().getPackedNodes().size());
+        Set<String> splits = new HashSet<>();
+        for (PackedNode packed : forest.getRoot().getPackedNodes()) {
+            assertTrue(splits.add(packed.getLeft() + " " + packed.getRight()), packed.getRight().toString());
+        }
+    }
+
+    @Test
+    public void testAgreesWithParser() {
+        EarleyParser earley = new EarleyParser(grammarService.getGrammar());
+        SentenceGenerator generator = new SentenceGenerator(grammarService.getGrammar());
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            List<Symbol> sentence = generator.generate(random, 1 + random.nextInt(40), 15);
+            if (i % 3 == 0) {
+                sentence = generator.mutate(random, sentence);
+            }
+            String text = SentenceGenerator.toText(sentence);
+            Parser parser = new Parser(text);
+            parser.parse();
+            ParseForest forest = earley.parse(names(sentence));
+            assertEquals(parser.getDiagnostics().isEmpty(), forest.isSuccess(), text);
+            if (forest.isSuccess()) {
+                assertEquals(1, forest.countTrees(), text);
+            }
+        }
+
+        ForestNode root = earley.parse(tokens("id + id << id")).getRoot();
+        assertEquals("E", root.getSymbol().getName());
+        PackedNode top = root.getPackedNodes().get(0);
+        assertEquals("E << T", top.getProduction().toString());
+        assertTrue(top.getLeft().isIntermediate());
+        assertEquals("(E << • T, 0, 4)", top.getLeft().toString());
+        assertEquals("(E, 0, 3)", top.getLeft().getPackedNodes().get(0).getLeft().toString());
+        assertTrue(top.getLeft().getPackedNodes().get(0).getRight().isTerminal());
+        assertEquals("(T, 4, 5)", top.getRight().toString());
+    }
+
+    @Test
+    public void testErrors() {
+        EarleyParser parser = new EarleyParser(grammarService.getGrammar());
+        ParseForest forest = parser.parse(tokens("id + + id"));
+        assertFalse(forest.isSuccess());
+        assertEquals(2, forest.getErrorPosition());
+        assertEquals(List.of("(", "id"), names(forest.getExpected()).stream().sorted().toList());
+        assertEquals(0, forest.countTrees());
+
+        ParseForest early = parser.parse(tokens("( id"));
+        assertEquals(2, early.getErrorPosition());
+        assertTrue(names(early.getExpected()).contains(")"));
+
+        assertEquals(1, parser.parse(tokens("id unknown")).getErrorPosition());
+        assertEquals(0, parser.parse(tokens("")).getErrorPosition());
+        assertTrue(parser.parse(tokens("id")).getExpected().isEmpty());
+    }
+
+    @Test
+    public void testEmptyProductions() {
+        EarleyParser parser = new EarleyParser(Grammar.parse(List.of(
+                "S → A B c",
+                "A → a | ε",
+                "B → A A | b")));
+        assertEquals(1, parser.parse(tokens("c")).countTrees());
+        assertTrue(parser.parse(tokens("a c")).isSuccess());
+        assertTrue(parser.parse(tokens("a a a c")).isSuccess());
+        assertTrue(parser.parse(tokens("b c")).isSuccess());
+        assertFalse(parser.parse(tokens("a a a a c")).isSuccess());
+        // "a c": the a is either A, the first A of B or the second one
+        assertEquals(3, parser.parse(tokens("a c")).countTrees());
+
+        EarleyParser balanced = new EarleyParser(Grammar.parse(List.of("S → a S b | ε")));
+        assertTrue(balanced.parse(tokens("")).isSuccess());
+        assertEquals(1, balanced.parse(tokens("a a b b")).countTrees());
+        assertFalse(balanced.parse(tokens("a b b")).isSuccess());
+
+        // Infinitely many derivations through S → S
+        EarleyParser cyclic = new EarleyParser(Grammar.parse(List.of("S → S | a")));
+        assertEquals(Long.MAX_VALUE, cyclic.parse(tokens("a")).countTrees());
+    }
+
+    @Test
+    public void testLeoChainsThroughTheStartSymbol() {
+        // Completing S from position 0 could be skipped by a chain going on up to A → S
+        EarleyParser parser = new EarleyParser(Grammar.parse(List.of(
+                "S → B",
+                "A → S | c",
+                "B → A b | c")));
+        assertTrue(parser.parse(tokens("c")).isSuccess());
+        assertTrue(parser.parse(tokens("c b")).isSuccess());
+        // The first c is A → c or A → S → B → c
+        assertEquals(2, parser.parse(tokens("c b b")).countTrees());
+
+        EarleyParser nullable = new EarleyParser(Grammar.parse(List.of(
+                "S → ε | A B",
+                "A → S",
+                "B → b")));
+        assertTrue(nullable.parse(tokens("b")).isSuccess());
+        assertTrue(nullable.parse(tokens("b b")).isSuccess());
+
+        // The cycle S → B → S must be in the forest
+        EarleyParser cyclic = new EarleyParser(Grammar.parse(List.of(
+                "S → B | a",
+                "B → S")));
+        assertEquals(Long.MAX_VALUE, cyclic.parse(tokens("a")).countTrees());
+    }
+
+    @Test
+    public void testLongInputs() {
+        int count = 30_000;
+        EarleyParser expressions = new EarleyParser(grammarService.getGrammar());
+        List<String> input = new ArrayList<>();
+        input.add("id");
+        for (int i = 0; i < count; i++) {
+            input.addAll(List.of(i % 2 == 0 ? "+" : "<<", "(", "id", "-", "id", ")"));
+        }
+        ParseForest forest = expressions.parse(input);
+        assertTrue(forest.isSuccess());
+        assertEquals(1, forest.countTrees());
+
+        // Right recursion stays linear thanks to the Leo chains
+        EarleyParser right = new EarleyParser(Grammar.parse(List.of("S → a S | a T", "T → b T | b")));
+        List<String> letters = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            letters.add("a");
+        }
+        for (int i = 0; i < count; i++) {
+            letters.add("b");
+        }
+        ParseForest chain = right.parse(letters);
+        assertTrue(chain.isSuccess());
+        assertEquals(1, chain.countTrees());
+        assertTrue(chain.getChartSize() < 20 * letters.size(), "chart " + chain.getChartSize());
+        assertTrue(chain.getNodeCount() < 10 * letters.size());
+    }
+}
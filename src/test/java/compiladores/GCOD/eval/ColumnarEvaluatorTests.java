@@ -0,0 +1,70 @@
+package compiladores.GCOD.eval;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.Parser;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@SpringBootTest
+public class ColumnarEvaluatorTests {
+
+    private static ExpressionNode parse(String input) {
+        return new Parser(input).parse();
+    }
+
+    private static long[][] randomColumns(int count, int rows, Random random) {
+        long[][] columns = new long[count][rows];
+        for (long[] column : columns) {
+            for (int r = 0; r < rows; r++) {
+                column[r] = random.nextLong();
+            }
+        }
+        return columns;
+    }
+
+    @Test
+    public void testMatchesRowByRowEvaluation() {
+        ExpressionNode expression = parse("(a + b) << c - (a >> d) + b");
+        ColumnarEvaluator evaluator = new ColumnarEvaluator(expression);
+        CompiledFormula formula = new FormulaCompiler().compile(expression);
+        assertEquals(formula.getVariables(), evaluator.getVariables());
+
+        int rows = 3 * ColumnarEvaluator.BLOCK_ROWS + 17;
+        long[][] columns = randomColumns(4, rows, new Random(1));
+        long[] out = new long[rows];
+        evaluator.evaluate(columns, out);
+
+        for (int r = 0; r < rows; r++) {
+            assertEquals(formula.evaluate(columns[0][r], columns[1][r], columns[2][r], columns[3][r]), out[r]);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        ColumnarEvaluator evaluator = new ColumnarEvaluator(parse("x << y + z - x >> z"));
+        int rows = 1_000_003;
+        long[][] columns = randomColumns(3, rows, new Random(2));
+
+        long[] sequential = new long[rows];
+        long[] parallel = new long[rows];
+        evaluator.evaluate(columns, sequential);
+        evaluator.evaluateParallel(columns, parallel, ForkJoinPool.commonPool());
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testColumnsByName() {
+        ColumnarEvaluator evaluator = new ColumnarEvaluator(parse("(id)"));
+        long[] out = new long[3];
+        evaluator.evaluate(Map.of("id", new long[] {1, 2, 3}), out);
+        assertArrayEquals(new long[] {1, 2, 3}, out);
+
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate(Map.of("other", new long[3]), out));
+    }
+}
@@ -0,0 +1,61 @@
+package compiladores.GCOD.eval;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+@SpringBootTest
+public class FormulaCompilerTests {
+
+    private final FormulaCompiler compiler = new FormulaCompiler();
+
+    @Test
+    public void testEvaluatesWithLongSemantics() {
+        CompiledFormula formula = compiler.compile("(a + b) << c - d >> e");
+        assertTrue(formula.isCompiled());
+        assertEquals(List.of("a", "b", "c", "d", "e"), formula.getVariables());
+
+        long a = 7, b = -3, c = 70, d = 2, e = 1;
+        assertEquals(((a + b) << (c - d)) >> e, formula.evaluate(a, b, c, d, e));
+        assertEquals(Long.MAX_VALUE + 1, compiler.compile("x + y").evaluate(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    public void testRepeatedVariablesShareASlot() {
+        CompiledFormula formula = compiler.compile("x + y - x << y");
+        assertEquals(List.of("x", "y"), formula.getVariables());
+        assertEquals(((5L + 2L) - 5L) << 2L, formula.evaluate(Map.of("x", 5L, "y", 2L)));
+    }
+
+    @Test
+    public void testEquivalentTextIsCachedOnce() {
+        CompiledFormula first = compiler.compile("(a + b) << c");
+        CompiledFormula second = compiler.compile("((a+b))   <<   (c)");
+        assertSame(first, second);
+        assertEquals("a b + c <<", first.getKey());
+    }
+
+    @Test
+    public void testLargeExpressionsAreInterpreted() {
+        StringBuilder sb = new StringBuilder("v0");
+        long expected = 0;
+        long[] values = new long[FormulaCompiler.MAX_COMPILED_NODES];
+        for (int i = 1; i < values.length; i++) {
+            values[i] = i;
+            sb.append(i % 2 == 0 ? " + v" : " - v").append(i);
+            expected = i % 2 == 0 ? expected + i : expected - i;
+        }
+        CompiledFormula formula = compiler.compile(sb.toString());
+        assertFalse(formula.isCompiled());
+        assertEquals(expected, formula.evaluate(values));
+    }
+
+    @Test
+    public void testInvalidExpressionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("a +"));
+    }
+}
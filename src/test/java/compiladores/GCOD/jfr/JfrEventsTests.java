@@ -0,0 +1,89 @@
+package compiladores.GCOD.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.GrammarService;
+import compiladores.GCOD.metrics.GcodMetrics;
+import compiladores.GCOD.parser.Parser;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class JfrEventsTests {
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(Runnable work) throws Exception {
+        Path file = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("compiladores.GCOD.Parse").withThreshold(Duration.ZERO);
+            recording.enable("compiladores.GCOD.Render").withThreshold(Duration.ZERO);
+            recording.enable("compiladores.GCOD.GrammarAnalysis").withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("compiladores.GCOD."))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParseAndRenderEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            ExpressionNode ast = new Parser("a + (b << c)").parse();
+            ast.toTreeString();
+            new Parser("a + ").parse();
+        });
+
+        List<RecordedEvent> parses = ofType(events, "compiladores.GCOD.Parse");
+        assertEquals(2, parses.size());
+        RecordedEvent ok = parses.get(0);
+        assertTrue(ok.getBoolean("success"));
+        assertEquals(7, ok.getInt("tokenCount"));
+        assertEquals(6, ok.getInt("nodeCount"));
+        assertEquals(12, ok.getInt("inputLength"));
+        assertNull(ok.getString("error"));
+        RecordedEvent failed = parses.get(1);
+        assertFalse(failed.getBoolean("success"));
+        assertEquals("EXPECTED_OPERAND", failed.getString("error"));
+
+        List<RecordedEvent> renders = ofType(events, "compiladores.GCOD.Render");
+        assertEquals(1, renders.size());
+        assertEquals(6, renders.get(0).getInt("nodeCount"));
+        assertEquals(new Parser("a + (b << c)").parse().toTreeString().length(),
+                renders.get(0).getInt("outputLength"));
+    }
+
+    @Test
+    public void testGrammarAnalysisEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> new GrammarService(GcodMetrics.disabled()).init());
+
+        List<RecordedEvent> steps = ofType(events, "compiladores.GCOD.GrammarAnalysis");
+        assertEquals(2, steps.size());
+        assertEquals("first-follow", steps.get(0).getString("step"));
+        assertEquals(3, steps.get(0).getInt("nonTerminalCount"));
+        assertEquals("resolve-follow", steps.get(1).getString("step"));
+        assertTrue(steps.get(1).getInt("iterations") >= 1);
+    }
+}
@@ -0,0 +1,70 @@
+package compiladores.GCOD.load;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LoadHarnessTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 100L);
+        }
+        long[] counts = LatencyHistogram.newCounts();
+        histogram.drainInto(counts);
+        assertEquals(1000, LatencyHistogram.total(counts));
+        assertEquals(50_000, LatencyHistogram.percentile(counts, 50), 50_000 / 32.0);
+        assertEquals(99_000, LatencyHistogram.percentile(counts, 99), 99_000 / 32.0);
+        assertTrue(LatencyHistogram.percentile(counts, 100) >= 100_000);
+
+        // Draining leaves the histogram empty
+        long[] again = LatencyHistogram.newCounts();
+        histogram.drainInto(again);
+        assertEquals(0, LatencyHistogram.total(again));
+        assertEquals(0, LatencyHistogram.percentile(again, 99));
+
+        for (long value : new long[] {0, 63, 64, 65, 1000, 123_456_789}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestIn(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestIn(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    public void testRunAgainstServer() throws Exception {
+        String url = "http://localhost:" + port;
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+        LoadHarness api = new LoadHarness(url, LoadHarness.Endpoint.API, LoadHarness.fetchGrammar(url),
+                1, 30, 15, 0.2, 11);
+        LoadHarness.Summary summary = api.run(2, 200, Duration.ofMillis(200), Duration.ofSeconds(1),
+                Duration.ofMillis(500), new PrintStream(report, true, StandardCharsets.UTF_8));
+        assertTrue(summary.getRequests() > 100, summary.toString());
+        assertEquals(0, summary.getErrors());
+        assertEquals(0, summary.getMismatches());
+        assertTrue(summary.getLatencyMicros(99.9) >= summary.getLatencyMicros(50));
+        assertEquals(2, report.toString(StandardCharsets.UTF_8).lines().count());
+
+        LoadHarness bulk = new LoadHarness(url, LoadHarness.Endpoint.BULK, LoadHarness.fetchGrammar(url),
+                50, 30, 15, 0.2, 12);
+        summary = bulk.run(2, 0, Duration.ZERO, Duration.ofMillis(500), Duration.ofSeconds(1),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        assertTrue(summary.getRequests() > 0);
+        assertEquals(50 * summary.getRequests(), summary.getExpressions());
+        assertEquals(0, summary.getErrors());
+        assertEquals(0, summary.getMismatches());
+    }
+}
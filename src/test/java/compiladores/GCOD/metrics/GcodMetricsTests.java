@@ -0,0 +1,77 @@
+package compiladores.GCOD.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.GrammarService;
+import compiladores.GCOD.parser.ParseResultCache;
+import compiladores.GCOD.parser.ParserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.support.StaticApplicationContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+public class GcodMetricsTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    private static GcodMetrics metrics(MeterRegistry registry, boolean enabled) {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("registry", registry);
+        ObjectProvider<MeterRegistry> provider = context.getBeanProvider(MeterRegistry.class);
+        return new GcodMetrics(provider, enabled);
+    }
+
+    private static ParserService service(GcodMetrics metrics) throws Exception {
+        return new ParserService(Integer.MAX_VALUE, false, new ParseResultCache(false, "", 0, 1, 0), metrics);
+    }
+
+    @Test
+    public void testRecordsParses() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ParserService service = service(metrics(registry, true));
+
+        service.parse("a + (b << c)").getSyntaxTree();
+        service.parse("a + ");
+        service.parse("a + @");
+
+        assertEquals(3, registry.get("gcod.parser.parse").tag("path", "sequential").timer().count());
+        assertEquals(1, registry.get("gcod.parser.results").tag("outcome", "success").counter().count());
+        assertEquals(2, registry.get("gcod.parser.results").tag("outcome", "error").counter().count());
+        assertEquals(1, registry.get("gcod.parser.diagnostics").tag("code", "EXPECTED_OPERAND").counter().count());
+        assertEquals(1, registry.get("gcod.parser.diagnostics").tag("code", "INVALID_TOKEN").counter().count());
+        assertEquals(7, registry.get("gcod.parser.tokens").summary().max());
+        assertEquals(6, registry.get("gcod.parser.ast.nodes").summary().totalAmount());
+        assertEquals(4, registry.get("gcod.parser.ast.depth").summary().max());
+        assertEquals(1, registry.get("gcod.parser.render").timer().count());
+
+        GrammarService grammar = new GrammarService(metrics(registry, true));
+        grammar.init();
+        assertTrue(registry.get("gcod.grammar.follow.iterations").summary().max() >= 1);
+        assertEquals(1, registry.get("gcod.grammar.analysis").tag("phase", "initial").timer().count());
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GcodMetrics metrics = metrics(registry, false);
+        assertFalse(metrics.isEnabled());
+        service(metrics).parse("a + b").getSyntaxTree();
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void testExposesPrometheusEndpoint() {
+        rest.postForObject("/api/parser?input={input}", null, String.class, "a + b");
+        String scrape = rest.getForObject("/actuator/prometheus", String.class);
+        assertTrue(scrape.contains("gcod_parser_parse_seconds_bucket"), scrape);
+        assertTrue(scrape.contains("gcod_grammar_follow_iterations"));
+    }
+}
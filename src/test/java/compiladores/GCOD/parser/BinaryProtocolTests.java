@@ -0,0 +1,148 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.metrics.GcodMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.EOFException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = {"gcod.binary.port=0", "gcod.binary.max-in-flight=4"})
+public class BinaryProtocolTests {
+
+    @Autowired
+    private BinaryParserServer server;
+
+    @Test
+    public void testPipelinedRequests() throws Exception {
+        int count = 500;
+        Map<Integer, String> inputs = new HashMap<>();
+        try (BinaryParserClient client = new BinaryParserClient("localhost", server.getPort())) {
+            // Far more requests than may be in flight; the server reads them as responses go out
+            Thread sender = new Thread(() -> {
+                try {
+                    for (int id = 0; id < count; id++) {
+                        client.send(id, id % 5 == 0 ? "a + (b" : "a << (b" + id + " - c)", id % 2 == 0);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            sender.start();
+
+            Map<Integer, BinaryParserClient.Response> responses = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                BinaryParserClient.Response response = client.receive();
+                assertNull(responses.put(response.getId(), response));
+            }
+            sender.join();
+            assertEquals(count, responses.size());
+
+            BinaryParserClient.Response error = responses.get(10);
+            assertEquals(BinaryProtocol.SYNTAX_ERROR, error.getStatus());
+            assertEquals(1, error.getDiagnostics().size());
+            assertEquals(DiagnosticCode.UNCLOSED_PARENTHESIS, error.getDiagnostics().get(0).getCode());
+            assertEquals(TokenType.EOF, error.getDiagnostics().get(0).getFound());
+            assertNull(error.getTree());
+
+            BinaryParserClient.Response withTree = responses.get(12);
+            assertEquals(BinaryProtocol.OK, withTree.getStatus());
+            assertTrue(withTree.getDiagnostics().isEmpty());
+            assertEquals(new Parser("a << (b12 - c)").parse().toTreeString(), withTree.readTree().toTreeString());
+            assertNull(responses.get(13).getTree());
+        }
+    }
+
+    @Test
+    public void testBadFrameClosesConnection() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+             BinaryParserClient client = new BinaryParserClient("localhost", server.getPort())) {
+            channel.write(ByteBuffer.allocate(8).putInt(Integer.MAX_VALUE).putInt(1).flip());
+            assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+
+            // Other connections are not affected
+            client.send(7, "", false);
+            BinaryParserClient.Response response = client.receive();
+            assertEquals(7, response.getId());
+            assertEquals(DiagnosticCode.EXPECTED_OPERAND, response.getDiagnostics().get(0).getCode());
+        }
+    }
+
+    @Test
+    public void testFinishesRequestsAfterClientShutsDownOutput() throws Exception {
+        try (BinaryParserClient client = new BinaryParserClient("localhost", server.getPort())) {
+            StringBuilder large = new StringBuilder("a");
+            for (int i = 0; i < 20_000; i++) {
+                large.append(" + b");
+            }
+            client.send(1, large.toString(), true);
+            client.send(2, "x", false);
+            client.shutdownOutput();
+            int seen = 0;
+            for (int i = 0; i < 2; i++) {
+                BinaryParserClient.Response response = client.receive();
+                assertEquals(BinaryProtocol.OK, response.getStatus());
+                seen |= response.getId();
+            }
+            assertEquals(3, seen);
+            assertThrows(EOFException.class, client::receive);
+        }
+    }
+
+    @Test
+    public void testInFlightBoundAndFailingRequests() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        ParserService parserService = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled()) {
+            @Override
+            public ParserResult parse(String input) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    if (input.equals("fail")) {
+                        throw new IllegalStateException("Failing on purpose");
+                    }
+                    return super.parse(input);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        };
+        AdmissionControl admissionControl = new AdmissionControl(false, 0, 0, 0, GcodMetrics.disabled());
+        BinaryParserServer limited = new BinaryParserServer(parserService, admissionControl, 0, 1 << 16, 2, 8);
+        limited.start();
+        try (BinaryParserClient client = new BinaryParserClient("localhost", limited.getPort())) {
+            int count = 40;
+            // Frames sent while two requests are in flight pile up and are read in one go
+            for (int id = 0; id < count; id++) {
+                client.send(id, id % 3 == 0 ? "fail" : "a + b" + id, false);
+            }
+            Map<Integer, Integer> statuses = new HashMap<>();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (int i = 0; i < count; i++) {
+                    BinaryParserClient.Response response = client.receive();
+                    statuses.put(response.getId(), response.getStatus());
+                }
+            });
+            assertEquals(count, statuses.size());
+            for (int id = 0; id < count; id++) {
+                assertEquals(id % 3 == 0 ? BinaryProtocol.INTERNAL_ERROR : BinaryProtocol.OK, statuses.get(id));
+            }
+            assertTrue(maxActive.get() <= 2, "parsed at once " + maxActive.get());
+        } finally {
+            limited.stop();
+        }
+    }
+}
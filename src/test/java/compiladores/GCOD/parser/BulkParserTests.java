@@ -0,0 +1,210 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.metrics.GcodMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BulkParserTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testOneResultPerLineInOrder() throws Exception {
+        StringBuilder body = new StringBuilder();
+        List<String> inputs = new ArrayList<>();
+        List<Long> lines = new ArrayList<>();
+        long lineNumber = 0;
+        for (int i = 0; i < 400; i++) {
+            String input = i % 7 == 0 ? "a + (b" + i : "a << (b" + i + " - c)";
+            switch (i % 4) {
+                case 0:
+                    body.append(objectMapper.writeValueAsString(input));
+                    break;
+                case 1:
+                    body.append(objectMapper.writeValueAsString(objectMapper.createObjectNode().put("input", input)));
+                    break;
+                case 2:
+                    body.append(input);
+                    break;
+                default:
+                    // A blank line before the input gets no result but still counts
+                    body.append(i % 8 == 3 ? "\n" : "   \n").append(input);
+                    lineNumber++;
+                    break;
+            }
+            body.append('\n');
+            inputs.add(input);
+            lines.add(++lineNumber);
+        }
+        body.append("\n\n");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        ResponseEntity<String> response = rest.postForEntity("/api/parser/bulk",
+                new HttpEntity<>(body.toString(), headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        String[] results = response.getBody().split("\n");
+        assertEquals(inputs.size(), results.length);
+        for (int i = 0; i < results.length; i++) {
+            JsonNode result = objectMapper.readTree(results[i]);
+            assertEquals((long) lines.get(i), result.get("line").asLong(), results[i]);
+            Parser parser = new Parser(inputs.get(i));
+            parser.parse();
+            assertEquals(parser.getDiagnostics().isEmpty(), result.get("success").asBoolean(), results[i]);
+            if (!parser.getDiagnostics().isEmpty()) {
+                assertEquals(parser.getDiagnostics().get(0).getCode().name(),
+                        result.get("diagnostics").get(0).get("code").asText());
+            }
+        }
+    }
+
+    @Test
+    public void testParsesStayWithinAdmission() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        ParserService parserService = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled()) {
+            @Override
+            public ParserResult parse(String input) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                    return super.parse(input);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        };
+        AdmissionControl admissionControl = new AdmissionControl(true, 2, 0, 0, GcodMetrics.disabled());
+        BulkParserService bulk = new BulkParserService(parserService, admissionControl, ParseLimits.NONE, objectMapper, 64, 8);
+        try {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                body.append("a + b").append(i).append('\n');
+            }
+            // The permit the interceptor would have taken
+            assertEquals(AdmissionControl.Admission.ADMITTED, admissionControl.enter());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bulk.parse(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), out);
+            assertEquals(200, out.toString(StandardCharsets.UTF_8).split("\n").length);
+            assertTrue(maxActive.get() <= 2, "parsed at once " + maxActive.get());
+
+            // Every permit taken for the request was given back: only the caller's is held
+            assertTrue(admissionControl.tryEnter());
+            assertFalse(admissionControl.tryEnter());
+            admissionControl.exit();
+            admissionControl.exit();
+        } finally {
+            bulk.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownEndsRequestsInProgress() throws Exception {
+        ParserService parserService = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled()) {
+            @Override
+            public ParserResult parse(String input) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.parse(input);
+            }
+        };
+        AdmissionControl admissionControl = new AdmissionControl(false, 0, 0, 0, GcodMetrics.disabled());
+        BulkParserService bulk = new BulkParserService(parserService, admissionControl, ParseLimits.NONE, objectMapper, 16, 2);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            body.append("a + b").append(i).append('\n');
+        }
+        // More requests than threads, so some parses wait in the executor's queue
+        Thread[] requests = new Thread[3];
+        ByteArrayOutputStream[] outs = new ByteArrayOutputStream[requests.length];
+        List<AtomicReference<Exception>> failures = new ArrayList<>();
+        for (int i = 0; i < requests.length; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            outs[i] = out;
+            failures.add(failure);
+            requests[i] = new Thread(() -> {
+                try {
+                    bulk.parse(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), out);
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            });
+            requests[i].start();
+        }
+        Thread.sleep(200);
+        bulk.shutdown();
+        for (int i = 0; i < requests.length; i++) {
+            requests[i].join(15_000);
+            assertFalse(requests[i].isAlive());
+            assertInstanceOf(IOException.class, failures.get(i).get());
+            // The results written before the shutdown are whole lines
+            String written = outs[i].toString(StandardCharsets.UTF_8);
+            assertTrue(written.isEmpty() || written.endsWith("\n"));
+        }
+    }
+
+    @Test
+    public void testLinesOverTheSizeLimit() throws Exception {
+        ParseLimits limits = new ParseLimits(100, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 0,
+                Integer.MAX_VALUE);
+        ParserService parserService = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled(), limits);
+        AdmissionControl admissionControl = new AdmissionControl(false, 0, 0, 0, GcodMetrics.disabled());
+        BulkParserService bulk = new BulkParserService(parserService, admissionControl, limits, objectMapper, 4, 2);
+        try {
+            String body = "a + b\r\n" + "x".repeat(20_000) + "\n" + " ".repeat(101) + "\r"
+                    + "\"" + "y".repeat(98) + "\"\n\nc - d";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bulk.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+            String[] results = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(5, results.length);
+            long[] lines = {1, 2, 3, 4, 6};
+            String[] codes = {null, "INPUT_TOO_LARGE", "INPUT_TOO_LARGE", null, null};
+            for (int i = 0; i < results.length; i++) {
+                JsonNode result = objectMapper.readTree(results[i]);
+                assertEquals(lines[i], result.get("line").asLong(), results[i]);
+                assertEquals(codes[i] == null, result.get("success").asBoolean(), results[i]);
+                if (codes[i] != null) {
+                    assertEquals(codes[i], result.get("diagnostics").get(0).get("code").asText());
+                }
+            }
+        } finally {
+            bulk.shutdown();
+        }
+    }
+}
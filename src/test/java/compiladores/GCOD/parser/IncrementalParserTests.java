@@ -0,0 +1,188 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class IncrementalParserTests {
+
+    private static final String[] INPUTS = {
+            "a << b", "ab >> cd + e", "a<<b>>c", "x1_y - (z_2 + w)", "((a))",
+            "a\n+\tb\n<< c", "", "   ", "a b", "(a", "a)", "a + ", "a < b", "a >", ">",
+            "a + é_ñ", "a + @", "(a << (b - c)) >> d e", "a\r+ b"
+    };
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private ParserController controller;
+
+    private static void assertSameAsParser(String input, IncrementalParser incremental, ExpressionNode actual) {
+        assertSameAsParser(input, new Parser(input), incremental, actual);
+    }
+
+    private static void assertSameAsParser(String input, Parser parser, IncrementalParser incremental,
+                                           ExpressionNode actual) {
+        ExpressionNode expected = parser.parse();
+        assertEquals(parser.getDiagnostics(), incremental.getDiagnostics(), input);
+        if (expected == null) {
+            assertNull(actual, input);
+        } else {
+            assertEquals(expected.toTreeString(), actual.toTreeString(), input);
+            assertEquals(parser.getTokenCount(), incremental.getTokenCount());
+            assertEquals(parser.getNodeCount(), incremental.getNodeCount());
+        }
+    }
+
+    @Test
+    public void testEverySplitMatchesParser() {
+        for (String input : INPUTS) {
+            for (int split = 0; split <= input.length(); split++) {
+                IncrementalParser parser = new IncrementalParser();
+                parser.feed(CharBuffer.wrap(input, 0, split));
+                parser.feed(CharBuffer.wrap(input, split, input.length()));
+                assertSameAsParser(input, parser, parser.endOfInput());
+            }
+        }
+    }
+
+    @Test
+    public void testOneCharacterAtATime() {
+        Random random = new Random(7);
+        CharBuffer buffer = CharBuffer.allocate(1);
+        for (int i = 0; i < 300; i++) {
+            String input = randomInput(random, 4);
+            IncrementalParser parser = new IncrementalParser();
+            for (int j = 0; j < input.length() && !parser.isFinished(); j++) {
+                buffer.clear();
+                buffer.put(input.charAt(j)).flip();
+                parser.feed(buffer);
+                assertFalse(buffer.hasRemaining());
+            }
+            assertSameAsParser(input, parser, parser.endOfInput());
+        }
+    }
+
+    @Test
+    public void testLimitsMatchParser() {
+        String input = "a + (b << (c - d)) >> (e + f) - g";
+        for (int limit = 0; limit < 20; limit++) {
+            ParseLimits[] all = {
+                    new ParseLimits(Integer.MAX_VALUE, limit, Integer.MAX_VALUE, Integer.MAX_VALUE, 0, Integer.MAX_VALUE),
+                    new ParseLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, limit % 3, Integer.MAX_VALUE, 0, Integer.MAX_VALUE),
+                    new ParseLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, limit, 0, Integer.MAX_VALUE)
+            };
+            for (ParseLimits limits : all) {
+                Parser parser = new Parser(input);
+                parser.setLimits(limits);
+                IncrementalParser incremental = new IncrementalParser();
+                incremental.setLimits(limits);
+                incremental.feed(CharBuffer.wrap(input, 0, 11));
+                incremental.feed(CharBuffer.wrap(input, 11, input.length()));
+                assertSameAsParser(input, parser, incremental, incremental.endOfInput());
+            }
+        }
+    }
+
+    @Test
+    public void testDeepNestingAndStopAtFirstError() throws Exception {
+        String nested = "(".repeat(50_000) + "a" + ")".repeat(50_000);
+        IncrementalParser parser = new IncrementalParser();
+        ExpressionNode ast = parser.parse(new StringReader(nested));
+        assertNotNull(ast);
+        assertEquals(50_001, parser.getNodeCount());
+
+        // An endless input is read only up to its first error
+        Reader endless = new Reader() {
+            private long read;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                for (int i = 0; i < length; i++) {
+                    buffer[offset + i] = " a b".charAt((int) (read++ % 4));
+                }
+                return length;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        IncrementalParser failing = new IncrementalParser();
+        assertNull(failing.parse(endless));
+        assertEquals(DiagnosticCode.TRAILING_INPUT, failing.getDiagnostics().get(0).getCode());
+        assertEquals(3, failing.getDiagnostics().get(0).getStart());
+        assertThrows(IllegalStateException.class, () -> {
+            IncrementalParser done = new IncrementalParser();
+            done.endOfInput();
+            done.feed(CharBuffer.wrap("a"));
+        });
+    }
+
+    @Test
+    public void testStreamEndpoint() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "plain", StandardCharsets.UTF_8));
+
+        JsonNode valid = rest.postForObject("/api/parser/stream",
+                new HttpEntity<>("a + b << (c - é)", headers), JsonNode.class);
+        assertTrue(valid.get("success").asBoolean());
+
+        JsonNode invalid = rest.postForObject("/api/parser/stream",
+                new HttpEntity<>("a + <", headers), JsonNode.class);
+        assertFalse(invalid.get("success").asBoolean());
+        assertEquals("INVALID_TOKEN", invalid.get("diagnostics").get(0).get("code").asText());
+        assertEquals(4, invalid.get("diagnostics").get(0).get("start").asInt());
+
+        // Spring refuses unknown charsets of the Content-Type itself, but the encoding can
+        // also be set on the request elsewhere, such as by a filter
+        for (String charset : new String[]{"x-no-such-charset", "bad~name"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/parser/stream");
+            request.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            request.setCharacterEncoding(charset);
+            request.setContent("a + b".getBytes(StandardCharsets.UTF_8));
+            assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, controller.parseStream(request).getStatusCode(), charset);
+        }
+    }
+
+    private static String randomInput(Random random, int depth) {
+        String[] pieces = {"+", "-", "<<", ">>", "<", ">", "(", ")", "ab", "x_1", "c", "@", " ", "\n", "\t"};
+        StringBuilder sb = new StringBuilder();
+        int operands = 1 + random.nextInt(5);
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                sb.append(random.nextBoolean() ? " " : "")
+                        .append(new String[]{"+", "-", "<<", ">>"}[random.nextInt(4)])
+                        .append(random.nextBoolean() ? " " : "");
+            }
+            if (depth > 0 && random.nextInt(3) == 0) {
+                sb.append('(').append(randomInput(random, depth - 1)).append(')');
+            } else {
+                sb.append("v").append(random.nextInt(1000));
+            }
+        }
+        // Some inputs get a stray piece somewhere, to cover the errors
+        if (random.nextInt(3) == 0) {
+            sb.insert(random.nextInt(sb.length() + 1), pieces[random.nextInt(pieces.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LiveParseDiskCacheTests {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("gcod.cache.disk.enabled", () -> "true");
+        registry.add("gcod.cache.disk.directory", () -> directory.toString());
+        registry.add("gcod.cache.disk.min-input-length", () -> "16");
+        registry.add("gcod.live.debounce-ms", () -> "0");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParserService parserService;
+
+    @Autowired
+    private ParseResultCache cache;
+
+    @Autowired
+    private ParseLimits limits;
+
+    private static String input(int operands, String name) {
+        StringBuilder sb = new StringBuilder(name);
+        for (int i = 1; i < operands; i++) {
+            sb.append(i % 2 == 0 ? " + " : " << ").append(name);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCancelledParsesKeepTheCacheUsable() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        TextWebSocketHandler handler = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                received.add(message.getPayload());
+            }
+        };
+        WebSocketSession session = new StandardWebSocketClient()
+                .execute(handler, "ws://localhost:" + port + "/ws/parser")
+                .get(5, TimeUnit.SECONDS);
+        int revisions = 300;
+        try {
+            // Every revision supersedes the one being parsed or written to the cache. The
+            // inputs end with an error to keep the replies small
+            for (int revision = 1; revision <= revisions; revision++) {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                        .put("revision", revision).put("input", input(3000, "r" + revision) + " )"))));
+            }
+            JsonNode result;
+            do {
+                result = objectMapper.readTree(received.poll(10, TimeUnit.SECONDS));
+            } while (result.get("revision").asLong() < revisions);
+            assertEquals("TRAILING_INPUT", result.get("diagnostics").get(0).get("code").asText());
+        } finally {
+            session.close();
+        }
+
+        String fresh = input(100, "fresh");
+        assertTrue(parserService.parse(fresh).isSuccess());
+        ParserService.ParserResult cached = cache.get(fresh, limits, NodeFactory.DEFAULT);
+        assertNotNull(cached);
+        assertTrue(cached.isSuccess());
+    }
+
+    @Test
+    public void testCancellationCheck() {
+        String input = input(5000, "a");
+        ParserService.ParserResult result = parserService.parse(input + " @", () -> true);
+        assertFalse(result.isSuccess());
+        assertEquals(DiagnosticCode.CANCELLED, result.getDiagnostics().get(0).getCode());
+        // A cancelled result is not cached, and the pooled parser forgets the check
+        assertNull(cache.get(input + " @", limits, NodeFactory.DEFAULT));
+        assertTrue(parserService.parse(input).isSuccess());
+    }
+}
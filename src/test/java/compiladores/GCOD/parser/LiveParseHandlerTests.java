@@ -0,0 +1,89 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LiveParseHandlerTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebSocketSession connect(BlockingQueue<String> received) throws Exception {
+        TextWebSocketHandler handler = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                received.add(message.getPayload());
+            }
+        };
+        return new StandardWebSocketClient()
+                .execute(handler, "ws://localhost:" + port + "/ws/parser")
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private void send(WebSocketSession session, long revision, String input) throws Exception {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                objectMapper.createObjectNode().put("revision", revision).put("input", input))));
+    }
+
+    @Test
+    public void testAnswersOnlyTheLatestRevision() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        WebSocketSession session = connect(received);
+        try {
+            String[] edits = {"a", "a +", "a + (", "a + (b", "a + (b)"};
+            for (int i = 0; i < edits.length; i++) {
+                send(session, i + 1, edits[i]);
+            }
+            // A stale revision is ignored
+            send(session, 2, "a +");
+
+            JsonNode result = objectMapper.readTree(received.poll(5, TimeUnit.SECONDS));
+            assertEquals(5, result.get("revision").asLong());
+            assertTrue(result.get("success").asBoolean());
+            assertEquals(new Parser("a + (b)").parse().toTreeString(), result.get("syntaxTree").asText());
+            assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+
+            send(session, 6, "a + ");
+            result = objectMapper.readTree(received.poll(5, TimeUnit.SECONDS));
+            assertEquals(6, result.get("revision").asLong());
+            assertFalse(result.get("success").asBoolean());
+            assertEquals("EXPECTED_OPERAND", result.get("diagnostics").get(0).get("code").asText());
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    public void testInterruptCancelsParse() {
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 0; i < 5000; i++) {
+            input.append(" + a");
+        }
+        Parser parser = new Parser(input);
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(parser.parse());
+            assertEquals(DiagnosticCode.CANCELLED, parser.getDiagnostics().get(0).getCode());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
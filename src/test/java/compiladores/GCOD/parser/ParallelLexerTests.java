@@ -0,0 +1,75 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@SpringBootTest
+public class ParallelLexerTests {
+
+    private static final String[] PIECES = {
+            "a", "bc_1", "x9", "é", "+", "-", "<<", ">>", "<", ">", "(", ")", "@", "\r",
+            " ", " ", "  ", "\t", "\n", "\n\n"
+    };
+
+    private static String randomInput(Random random, int pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            sb.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameAsLexer(String input, int chunkChars) {
+        List<Token> expected = new Lexer(input).tokenize();
+        PackedTokens actual = new ParallelLexer(input, ForkJoinPool.commonPool(), chunkChars).tokenize();
+        assertEquals(expected.size(), actual.size(), input);
+        for (int i = 0; i < expected.size(); i++) {
+            Token token = actual.get(i);
+            assertEquals(expected.get(i).toString(), token.toString(), input);
+            assertEquals(expected.get(i).getOffset(), token.getOffset(), input);
+            assertEquals(expected.get(i).getType(), actual.getType(i));
+        }
+    }
+
+    @Test
+    public void testSameTokensAsLexer() {
+        Random random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            String input = randomInput(random, random.nextInt(60));
+            for (int chunkChars : new int[]{1, 3, 8, 1000}) {
+                assertSameAsLexer(input, chunkChars);
+            }
+        }
+        assertSameAsLexer("", 1);
+        assertSameAsLexer(" \n\t", 1);
+        assertSameAsLexer("a<<b>>(c+d)-e", 1);
+        assertSameAsLexer("\n\nab  <<\n  cd >\n", 2);
+    }
+
+    @Test
+    public void testParserReadsPackedTokens() {
+        StringBuilder sb = new StringBuilder("v0");
+        String[] operators = {" + ", "\n- ", " <<\t", " >> "};
+        for (int i = 1; i < 1500; i++) {
+            sb.append(operators[i % operators.length]).append(i % 7 == 0 ? "(w" + i + " - z)" : "v" + i);
+        }
+        String input = sb.toString();
+        PackedTokens tokens = new ParallelLexer(input, ForkJoinPool.commonPool(), 256).tokenize();
+        assertEquals(new Parser(input).parse().toTreeString(),
+                new Parser(new TokenListStream(tokens)).parse().toTreeString());
+
+        String invalid = input + " + (a b)";
+        Parser sequential = new Parser(invalid);
+        sequential.parse();
+        Parser packed = new Parser(new TokenListStream(
+                new ParallelLexer(invalid, ForkJoinPool.commonPool(), 256).tokenize()));
+        assertNull(packed.parse());
+        assertEquals(sequential.getDiagnostics(), packed.getDiagnostics());
+    }
+}
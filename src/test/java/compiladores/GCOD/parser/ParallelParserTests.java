@@ -0,0 +1,75 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@SpringBootTest
+public class ParallelParserTests {
+
+    private static final String[] OPERATORS = {" + ", " - ", " << ", " >> "};
+
+    private static String randomExpression(Random random, int depth) {
+        StringBuilder sb = new StringBuilder();
+        int operands = 1 + random.nextInt(6);
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                sb.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            }
+            if (depth > 0 && random.nextInt(3) == 0) {
+                sb.append('(').append(randomExpression(random, depth - 1)).append(')');
+            } else {
+                sb.append("id").append(random.nextInt(100));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameAsSequential(String input) {
+        Parser sequential = new Parser(input);
+        ExpressionNode expected = sequential.parse();
+
+        ParallelParser parallel = new ParallelParser(input, ForkJoinPool.commonPool(), 4);
+        ExpressionNode actual = parallel.parse();
+
+        if (expected == null) {
+            assertNull(actual);
+            assertEquals(sequential.getDiagnostics(), parallel.getDiagnostics());
+        } else {
+            assertEquals(expected.toTreeString(), actual.toTreeString());
+            assertTrue(parallel.getDiagnostics().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRandomExpressionsMatchSequentialParser() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            assertSameAsSequential(randomExpression(random, 4));
+        }
+    }
+
+    @Test
+    public void testLongChainMatchesSequentialParser() {
+        StringBuilder sb = new StringBuilder("a");
+        for (int i = 0; i < 200; i++) {
+            sb.append(OPERATORS[i % OPERATORS.length]).append("(b").append(i).append(" - c)");
+        }
+        assertSameAsSequential(sb.toString());
+        assertSameAsSequential("(" + sb + ")");
+    }
+
+    @Test
+    public void testInvalidInputsReportSequentialDiagnostics() {
+        assertSameAsSequential("a + b << c - (d >> e + f) + g h");
+        assertSameAsSequential("a + b << c - (d >> e + f + g");
+        assertSameAsSequential("a + b << c - (d >> ) + f + g");
+        assertSameAsSequential("a + b << c - (d >> e) + f @ g");
+        assertSameAsSequential("a + b << c - (d e) + f + g + h");
+    }
+}
@@ -0,0 +1,153 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.metrics.GcodMetrics;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+@SpringBootTest
+public class ParseLimitsTests {
+
+    private static ParseLimits limits(int maxInputBytes, int maxTokens, int maxDepth, int maxNodes) {
+        return new ParseLimits(maxInputBytes, maxTokens, maxDepth, maxNodes, 0, Integer.MAX_VALUE);
+    }
+
+    private static Diagnostic parseWith(ParseLimits limits, String input) {
+        Parser parser = new Parser(input);
+        parser.setLimits(limits);
+        assertNull(parser.parse());
+        assertEquals(1, parser.getDiagnostics().size());
+        return parser.getDiagnostics().get(0);
+    }
+
+    private static String chain(int operands) {
+        StringBuilder sb = new StringBuilder("a");
+        for (int i = 1; i < operands; i++) {
+            sb.append(i % 2 == 0 ? " + a" : " << a");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testStopsAtTheLimits() {
+        Diagnostic tokens = parseWith(limits(100, 3, 10, 10), "a + b - c");
+        assertEquals(DiagnosticCode.TOO_MANY_TOKENS, tokens.getCode());
+        assertEquals(6, tokens.getStart());
+
+        Diagnostic depth = parseWith(limits(100, 100, 2, 100), "((a)) + (((b)))");
+        assertEquals(DiagnosticCode.TOO_DEEP, depth.getCode());
+        assertEquals(10, depth.getStart());
+
+        assertEquals(DiagnosticCode.TOO_MANY_NODES, parseWith(limits(100, 100, 10, 4), "a + (b) + c").getCode());
+
+        Parser parser = new Parser("((a)) + (b)");
+        parser.setLimits(limits(100, 9, 2, 6));
+        assertNotNull(parser.parse());
+    }
+
+    @Test
+    public void testDeadline() {
+        Parser parser = new Parser(chain(5000));
+        parser.setLimits(limits(Integer.MAX_VALUE, Integer.MAX_VALUE, 10, Integer.MAX_VALUE));
+        parser.setDeadline(System.nanoTime() - 1);
+        assertNull(parser.parse());
+        assertEquals(DiagnosticCode.DEADLINE_EXCEEDED, parser.getDiagnostics().get(0).getCode());
+        assertEquals(ParseLimits.DEADLINE_CHECK_INTERVAL, parser.getTokenCount());
+
+        // The deadline only applies to the parse it was set for
+        parser.reset(chain(5000));
+        assertNotNull(parser.parse());
+    }
+
+    @Test
+    public void testLongChainsDoNotUseStack() {
+        Parser parser = new Parser(chain(500_000));
+        ExpressionNode ast = parser.parse();
+        assertNotNull(ast);
+        assertEquals(999_999, parser.getNodeCount());
+    }
+
+    @Test
+    public void testInputBytes() throws Exception {
+        ParseLimits limits = limits(8, 100, 10, 100);
+        assertTrue(limits.acceptsInput("a + b"));
+        assertTrue(limits.acceptsInput("ação"));
+        assertFalse(limits.acceptsInput("ação + b"));
+        assertFalse(limits.acceptsInput("a + b + c"));
+
+        ParserService service = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled(), limits);
+        ParserService.ParserResult result = service.parse("a + b + c");
+        assertFalse(result.isSuccess());
+        assertTrue(result.isLimited());
+        assertEquals(DiagnosticCode.INPUT_TOO_LARGE, result.getDiagnostics().get(0).getCode());
+        assertEquals(DiagnosticCode.INPUT_TOO_LARGE, service.validate("a + b + c").getError().getCode());
+    }
+
+    @Test
+    public void testTruncatesTreeText() throws Exception {
+        ParserService service = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled(),
+                new ParseLimits(Integer.MAX_VALUE, 1000, 10, 1000, 0, 45));
+        String tree = service.parse("a + b + c").getSyntaxTree();
+        assertEquals("BinaryOp(+)\n  ├─ BinaryOp(+)\n  ├─   ├─ ID(a)\n... (truncated)\n", tree);
+        assertEquals(new Parser("a + b").parse().toTreeString(), service.parse("a + b").getSyntaxTree());
+    }
+
+    @Test
+    public void testParallelParser() {
+        String input = chain(100);
+        ParallelParser parallel = new ParallelParser(input, ForkJoinPool.commonPool(), 4);
+        parallel.setLimits(limits(Integer.MAX_VALUE, 150, 10, 1000));
+        assertNull(parallel.parse());
+        assertEquals(DiagnosticCode.TOO_MANY_TOKENS, parallel.getDiagnostics().get(0).getCode());
+
+        parallel = new ParallelParser("(" + input + ") + ((a))", ForkJoinPool.commonPool(), 4);
+        parallel.setLimits(limits(Integer.MAX_VALUE, 1000, 1, 1000));
+        assertNull(parallel.parse());
+        assertEquals(DiagnosticCode.TOO_DEEP, parallel.getDiagnostics().get(0).getCode());
+
+        parallel = new ParallelParser(input, ForkJoinPool.commonPool(), 4);
+        parallel.setLimits(limits(Integer.MAX_VALUE, 1000, 10, 150));
+        assertNull(parallel.parse());
+        assertEquals(DiagnosticCode.TOO_MANY_NODES, parallel.getDiagnostics().get(0).getCode());
+    }
+
+    @Test
+    public void testAdmissionControl() {
+        AdmissionControl admission = new AdmissionControl(true, 1, 0, 0, GcodMetrics.disabled());
+        assertEquals(AdmissionControl.Admission.ADMITTED, admission.enter());
+        assertEquals(AdmissionControl.Admission.QUEUE_FULL, admission.enter());
+        admission.exit();
+        assertEquals(AdmissionControl.Admission.ADMITTED, admission.enter());
+
+        admission = new AdmissionControl(true, 1, 1, 10, GcodMetrics.disabled());
+        assertEquals(AdmissionControl.Admission.ADMITTED, admission.enter());
+        assertEquals(AdmissionControl.Admission.QUEUE_TIMEOUT, admission.enter());
+        assertEquals(0, admission.getQueued());
+    }
+
+    @Test
+    public void testAdmissionInArrivalOrder() throws Exception {
+        AdmissionControl admission = new AdmissionControl(true, 1, 2, 500, GcodMetrics.disabled());
+        assertEquals(AdmissionControl.Admission.ADMITTED, admission.enter());
+        AtomicReference<AdmissionControl.Admission> waiter = new AtomicReference<>();
+        Thread queued = new Thread(() -> waiter.set(admission.enter()));
+        queued.start();
+        while (admission.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(100);
+
+        // The freed permit belongs to the queued request, not to a newcomer
+        admission.exit();
+        assertEquals(AdmissionControl.Admission.QUEUE_TIMEOUT, admission.enter());
+        queued.join();
+        assertEquals(AdmissionControl.Admission.ADMITTED, waiter.get());
+    }
+}
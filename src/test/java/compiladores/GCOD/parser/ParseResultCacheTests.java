@@ -0,0 +1,65 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.metrics.GcodMetrics;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+
+@SpringBootTest
+public class ParseResultCacheTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testCachedResultsMatchAcrossRestarts() throws Exception {
+        String[] inputs = {"a + (b << c) - a", "a + (b", "x @ y"};
+
+        ParseResultCache cache = new ParseResultCache(true, directory.toString(), 1 << 20, 1 << 16, 0);
+        ParserService service = new ParserService(Integer.MAX_VALUE, false, cache, GcodMetrics.disabled());
+        for (String input : inputs) {
+            service.parse(input);
+        }
+        cache.close();
+
+        ParseResultCache reopened = new ParseResultCache(true, directory.toString(), 1 << 20, 1 << 16, 0);
+        ParserService uncached = new ParserService(Integer.MAX_VALUE, false,
+                new ParseResultCache(false, "", 0, 1, 0), GcodMetrics.disabled());
+        for (String input : inputs) {
+            ParserService.ParserResult expected = uncached.parse(input);
+            ParserService.ParserResult cached = reopened.get(input, ParseLimits.NONE, NodeFactory.DEFAULT);
+            assertNotNull(cached, input);
+            assertEquals(expected.isSuccess(), cached.isSuccess());
+            assertEquals(expected.getDiagnostics(), cached.getDiagnostics());
+            assertEquals(expected.getSyntaxTree(), cached.getSyntaxTree());
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void testTighterLimitsMissTheCache() throws Exception {
+        String input = "((((a + b) << c) - d) >> e)";
+
+        ParseResultCache cache = new ParseResultCache(true, directory.toString(), 1 << 20, 1 << 16, 0);
+        ParserService service = new ParserService(Integer.MAX_VALUE, false, cache, GcodMetrics.disabled());
+        assertTrue(service.parse(input).isSuccess());
+        cache.close();
+
+        // The limits changed across the restart: the result cached under the old ones is not used
+        ParseLimits tight = new ParseLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, 2, Integer.MAX_VALUE, 0,
+                Integer.MAX_VALUE);
+        ParseResultCache reopened = new ParseResultCache(true, directory.toString(), 1 << 20, 1 << 16, 0);
+        assertNotNull(reopened.get(input, ParseLimits.NONE, NodeFactory.DEFAULT));
+        assertNull(reopened.get(input, tight, NodeFactory.DEFAULT));
+        ParserService limited = new ParserService(Integer.MAX_VALUE, false, reopened, GcodMetrics.disabled(), tight);
+        ParserService.ParserResult result = limited.parse(input);
+        assertFalse(result.isSuccess());
+        assertEquals(DiagnosticCode.TOO_DEEP, result.getDiagnostics().get(0).getCode());
+        reopened.close();
+    }
+}
@@ -1,6 +1,10 @@
 package compiladores.GCOD.parser;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.ast.BinaryOperationNode;
+import compiladores.GCOD.parser.ast.HashConsingNodeFactory;
+import compiladores.GCOD.parser.ast.ParenthesizedExpressionNode;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -125,4 +129,63 @@ public class ParserTests {
         assertNull(parser.parse());
         assertFalse(parser.getErrors().isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testDiagnosticForUnclosedParenthesis() {
+        Parser parser = new Parser("(id");
+        assertNull(parser.parse());
+        assertEquals(1, parser.getDiagnostics().size());
+        Diagnostic diagnostic = parser.getDiagnostics().get(0);
+        assertEquals(DiagnosticCode.UNCLOSED_PARENTHESIS, diagnostic.getCode());
+        assertEquals(TokenType.EOF, diagnostic.getFound());
+        assertEquals(3, diagnostic.getStart());
+        assertTrue(diagnostic.getExpected().contains(TokenType.RPAREN));
+        assertEquals("Error at line 1, column 4: Expected ')', found: \n", parser.getErrors());
+    }
+
+    @Test
+    public void testDiagnosticForInvalidToken() {
+        Parser parser = new Parser("id + @");
+        assertNull(parser.parse());
+        Diagnostic diagnostic = parser.getDiagnostics().get(0);
+        assertEquals(DiagnosticCode.INVALID_TOKEN, diagnostic.getCode());
+        assertEquals(5, diagnostic.getStart());
+        assertEquals(6, diagnostic.getEnd());
+        assertEquals("Error at line 1, column 6: Invalid token: @", diagnostic.getMessage());
+    }
+
+    @Test
+    public void testResetReusesParser() {
+        Parser parser = new Parser("id +");
+        assertNull(parser.parse());
+        assertFalse(parser.getDiagnostics().isEmpty());
+
+        parser.reset("(id << id)");
+        assertNotNull(parser.parse());
+        assertTrue(parser.getDiagnostics().isEmpty());
+
+        parser.reset(new StringBuilder("id >> "));
+        assertNull(parser.parse());
+        assertEquals(DiagnosticCode.EXPECTED_OPERAND, parser.getDiagnostics().get(0).getCode());
+    }
+
+    @Test
+    public void testHashConsingSharesRepeatedSubtrees() {
+        HashConsingNodeFactory factory = new HashConsingNodeFactory();
+        Parser parser = new Parser("(a + b) << c - ((a + b) << c)");
+        parser.setNodeFactory(factory);
+        BinaryOperationNode root = (BinaryOperationNode) parser.parse();
+        assertNotNull(root);
+
+        // Root is "(a + b) << (c - ((a + b) << c))"
+        BinaryOperationNode right = (BinaryOperationNode) root.getRight();
+        ParenthesizedExpressionNode group = (ParenthesizedExpressionNode) right.getRight();
+        BinaryOperationNode repeated = (BinaryOperationNode) group.getExpression();
+        assertSame(root.getLeft(), repeated.getLeft());
+        assertSame(factory.identifier("c"), repeated.getRight());
+
+        Parser other = new Parser("((a+b))");
+        other.setNodeFactory(factory);
+        assertSame(root.getLeft(), ((ParenthesizedExpressionNode) other.parse()).getExpression());
+    }
+}
@@ -0,0 +1,59 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Random;
+
+@SpringBootTest
+public class RecognizerTests {
+
+    private static final String[] PIECES = {"id", "x_1", "(", ")", "+", "-", "<<", ">>", "<", ">", "@", " ", "\n", "\t"};
+
+    private static void assertSameAsParser(String input) {
+        Parser parser = new Parser(input);
+        boolean accepted = parser.parse() != null;
+        Diagnostic error = Recognizer.recognize(input);
+
+        assertEquals(accepted, error == null, input);
+        if (!accepted) {
+            List<Diagnostic> diagnostics = parser.getDiagnostics();
+            assertEquals(diagnostics.get(0), error, input);
+            assertEquals(diagnostics.get(0).getMessage(), error.getMessage(), input);
+        }
+    }
+
+    @Test
+    public void testValidExpressions() {
+        assertNull(Recognizer.recognize("id"));
+        assertNull(Recognizer.recognize("(id + id) << (id - id)"));
+        assertNull(Recognizer.recognize("id + id << id - id >> id + id"));
+        assertNull(Recognizer.recognize("((id))\n+ id"));
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        assertEquals(DiagnosticCode.EXPECTED_OPERAND, Recognizer.recognize("").getCode());
+        assertEquals(DiagnosticCode.EXPECTED_OPERAND, Recognizer.recognize("()").getCode());
+        assertEquals(DiagnosticCode.UNCLOSED_PARENTHESIS, Recognizer.recognize("(id").getCode());
+        assertEquals(DiagnosticCode.TRAILING_INPUT, Recognizer.recognize("id)").getCode());
+        assertEquals(DiagnosticCode.INVALID_TOKEN, Recognizer.recognize("id + <").getCode());
+        assertEquals(4, Recognizer.recognize("id +").getStart());
+    }
+
+    @Test
+    public void testRandomInputsMatchParser() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                sb.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertSameAsParser(sb.toString());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package compiladores.GCOD.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import compiladores.GCOD.parser.ast.TreeIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TreeBrowsingTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private ParserService parserService;
+
+    @Autowired
+    private BulkParserService bulkParserService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static String sum(int operands) {
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 1; i < operands; i++) {
+            input.append(" + b");
+        }
+        return input.toString();
+    }
+
+    @Test
+    public void testPreOrderIds() {
+        // BinaryOp(<<), BinaryOp(+), a, Parenthesized, b, c
+        TreeIndex index = TreeIndex.of(new Parser("a + (b) << c").parse());
+        assertEquals(6, index.size());
+        assertEquals("BinaryOp(<<)", index.getLabel(0));
+        assertEquals(6, index.getSubtreeSize(0));
+        assertEquals(1, index.getChild(0, 0));
+        assertEquals(5, index.getChild(0, 1));
+        assertEquals(4, index.getSubtreeSize(1));
+        assertEquals(3, index.getChild(1, 1));
+        assertEquals("Parenthesized", index.getLabel(3));
+        assertEquals("ID(b)", index.getLabel(index.getChild(3, 0)));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getChild(2, 0));
+    }
+
+    @Test
+    public void testViewDepthAndLimit() {
+        TreeIndex index = TreeIndex.of(new Parser("a + (b) << c").parse());
+
+        TreeNodeView root = TreeNodeView.of(index, 0, 1, 100);
+        assertEquals(2, root.getChildren().size());
+        assertNull(root.getChildren().get(0).getChildren());
+        assertEquals(2, root.getChildren().get(0).getChildCount());
+
+        TreeNodeView all = TreeNodeView.of(index, 0, 10, 100);
+        assertEquals("ID(b)", all.getChildren().get(0).getChildren().get(1).getChildren().get(0).getLabel());
+
+        // Root, its two children and the two children of the first; the rest does not fit
+        TreeNodeView limited = TreeNodeView.of(index, 0, 10, 5);
+        assertEquals(2, limited.getChildren().get(0).getChildren().size());
+        assertNull(limited.getChildren().get(0).getChildren().get(1).getChildren());
+    }
+
+    @Test
+    public void testStoreExpiresAndEvicts() throws Exception {
+        TreeIndex small = TreeIndex.of(new Parser("a + b").parse());
+        TreeHandleStore store = new TreeHandleStore(60_000, 7);
+        String first = store.put(small);
+        String second = store.put(small);
+        assertSame(small, store.get(first));
+        // The least recently used tree makes room
+        String third = store.put(small);
+        assertNull(store.get(second));
+        assertSame(small, store.get(first));
+        assertSame(small, store.get(third));
+        assertNull(store.put(TreeIndex.of(new Parser("a + b + c + d + e").parse())));
+
+        TreeHandleStore shortLived = new TreeHandleStore(20, 100);
+        String handle = shortLived.put(small);
+        Thread.sleep(50);
+        assertNull(shortLived.get(handle));
+    }
+
+    @Test
+    public void testBrowsingApi() {
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 0; i < 1000; i++) {
+            input.append(" + (b << c)");
+        }
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("input", input.toString());
+        JsonNode result = rest.postForObject("/api/parser/trees", form, JsonNode.class);
+        assertTrue(result.get("success").asBoolean());
+        String handle = result.get("handle").asText();
+        JsonNode root = result.get("root");
+        assertEquals(5001, root.get("subtreeSize").asInt());
+        assertEquals(2, root.get("children").size());
+
+        JsonNode right = root.get("children").get(1);
+        JsonNode node = rest.getForObject("/api/parser/trees/{handle}/nodes/{id}?depth=1",
+                JsonNode.class, handle, right.get("id").asInt());
+        assertEquals("Parenthesized", node.get("label").asText());
+        assertEquals("BinaryOp(<<)", node.get("children").get(0).get("label").asText());
+        assertFalse(node.get("children").get(0).has("children"));
+
+        ResponseEntity<String> missing = rest.getForEntity("/api/parser/trees/{handle}/nodes/0", String.class, "nope");
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+
+        JsonNode failed = rest.postForObject("/api/parser/trees?input={input}", null, JsonNode.class, "a +");
+        assertFalse(failed.get("success").asBoolean());
+        assertTrue(failed.get("handle").isNull());
+    }
+
+    @Test
+    public void testFormTreeSizes() throws IOException {
+        for (String input : new String[]{"a", "(a)", "a + (b) << c", sum(300)}) {
+            int size = TreeIndex.of(new Parser(input).parse()).size();
+            assertEquals(size, parserService.parse(input).getNodeCount(), input);
+            assertEquals(size, parserService.parse(new StringReader(input)).getNodeCount(), input);
+        }
+
+        // Trees of up to 10 nodes are rendered, up to 100 stored for browsing
+        ParserController controller = new ParserController(parserService, bulkParserService, objectMapper,
+                new TreeHandleStore(60_000, 100), 10);
+
+        ExtendedModelMap small = new ExtendedModelMap();
+        controller.parseInput(sum(5), small);
+        assertNull(small.get("treeHandle"));
+        assertEquals(0, small.get("treeTooLarge"));
+        assertEquals(new Parser(sum(5)).parse().toTreeString(), small.get("syntaxTree"));
+
+        ExtendedModelMap browsed = new ExtendedModelMap();
+        controller.parseInput(sum(20), browsed);
+        assertNotNull(browsed.get("treeHandle"));
+        assertNull(browsed.get("syntaxTree"));
+
+        ExtendedModelMap tooLarge = new ExtendedModelMap();
+        controller.parseInput(sum(60), tooLarge);
+        assertNull(tooLarge.get("treeHandle"));
+        assertEquals(119, tooLarge.get("treeTooLarge"));
+        assertNull(tooLarge.get("syntaxTree"));
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("input", sum(60));
+        assertTrue(rest.postForObject("/parser", form, String.class).contains("<pre class=\"syntax-tree\">"));
+    }
+}
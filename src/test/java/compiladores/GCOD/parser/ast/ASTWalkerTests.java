@@ -0,0 +1,102 @@
+package compiladores.GCOD.parser.ast;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+public class ASTWalkerTests {
+
+    private static class Recorder implements ASTVisitor {
+        private final List<String> events = new ArrayList<>();
+        private final String skip;
+        private final String stop;
+
+        Recorder(String skip, String stop) {
+            this.skip = skip;
+            this.stop = stop;
+        }
+
+        @Override
+        public Action enter(ExpressionNode node, int depth) {
+            events.add("enter " + node.label() + "@" + depth);
+            if (node.label().equals(stop)) {
+                return Action.STOP;
+            }
+            return node.label().equals(skip) ? Action.SKIP_CHILDREN : Action.CONTINUE;
+        }
+
+        @Override
+        public Action leave(ExpressionNode node, int depth) {
+            events.add("leave " + node.label());
+            return Action.CONTINUE;
+        }
+    }
+
+    @Test
+    public void testVisitsInPreAndPostOrder() {
+        Recorder recorder = new Recorder(null, null);
+        assertTrue(new ASTWalker().walk(new Parser("a + (b << c)").parse(), recorder));
+        assertEquals(List.of(
+                "enter BinaryOp(+)@0", "enter ID(a)@1", "leave ID(a)",
+                "enter Parenthesized@1", "enter BinaryOp(<<)@2", "enter ID(b)@3", "leave ID(b)",
+                "enter ID(c)@3", "leave ID(c)", "leave BinaryOp(<<)", "leave Parenthesized",
+                "leave BinaryOp(+)"), recorder.events);
+    }
+
+    @Test
+    public void testSkipsChildrenAndStops() {
+        ExpressionNode tree = new Parser("a + (b << c) - d").parse();
+
+        Recorder skipping = new Recorder("Parenthesized", null);
+        assertTrue(new ASTWalker().walk(tree, skipping));
+        assertFalse(skipping.events.contains("enter ID(b)@4"));
+        assertTrue(skipping.events.contains("leave Parenthesized"));
+        assertTrue(skipping.events.contains("enter ID(d)@1"));
+
+        Recorder stopping = new Recorder(null, "ID(b)");
+        assertFalse(new ASTWalker().walk(tree, stopping));
+        assertEquals("enter ID(b)@4", stopping.events.get(stopping.events.size() - 1));
+    }
+
+    @Test
+    public void testRendersTreeText() {
+        String expected = "BinaryOp(-)\n"
+                + "  ├─ ID(a)\n"
+                + "  └─ Parenthesized\n"
+                + "  └─   └─ BinaryOp(>>)\n"
+                + "  └─   └─   ├─ ID(b)\n"
+                + "  └─   └─   └─ ID(c)\n";
+        assertEquals(expected, new Parser("a - (b >> c)").parse().toTreeString());
+    }
+
+    @Test
+    public void testDeepTreesUseConstantStack() {
+        ExpressionNode tree = new IdentifierNode("x");
+        for (int i = 0; i < 1_000_000; i++) {
+            tree = new ParenthesizedExpressionNode(tree);
+        }
+
+        int[] maxDepth = new int[1];
+        ASTWalker walker = new ASTWalker();
+        walker.walk(tree, new ASTVisitor() {
+            @Override
+            public Action enter(ExpressionNode node, int depth) {
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+                return Action.CONTINUE;
+            }
+        });
+        assertEquals(1_000_000, maxDepth[0]);
+
+        ExpressionNode chain = new IdentifierNode("x0");
+        for (int i = 1; i < 1000; i++) {
+            chain = new BinaryOperationNode(chain, "+", new IdentifierNode("x" + i));
+        }
+        assertTrue(chain.toTreeString().endsWith("  └─ ID(x999)\n"));
+    }
+}
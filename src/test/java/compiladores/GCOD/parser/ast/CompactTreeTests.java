@@ -0,0 +1,123 @@
+package compiladores.GCOD.parser.ast;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+@SpringBootTest
+public class CompactTreeTests {
+
+    @Test
+    public void testRoundTrip() {
+        String[] inputs = {
+                "a",
+                "a + (b << a) - c",
+                "((x)) >> (y - x) << z",
+                "v0 + v1 + v2 + v3 + v4 + v5 + v6 + v7 + v8 + v9 + v10 + v11 + v12 + v13 + v14 + v15 + v16 + v0",
+                "açúcar_com_um_nome_bastante_longo_para_o_comprimento_estendido - b",
+        };
+        for (String input : inputs) {
+            ExpressionNode tree = new Parser(input).parse();
+            byte[] bytes = CompactTreeWriter.toByteArray(tree);
+            assertEquals(tree.toTreeString(), CompactTreeReader.fromByteArray(bytes).toTreeString(), input);
+            assertTrue(bytes.length < input.getBytes(StandardCharsets.UTF_8).length + 8, input);
+        }
+
+        NodeFactory nodes = NodeFactory.DEFAULT;
+        ExpressionNode constants = nodes.binary(nodes.constant(-1), "<<",
+                nodes.binary(nodes.constant(Long.MIN_VALUE), "-", nodes.constant(Long.MAX_VALUE)));
+        assertEquals(constants.toTreeString(),
+                CompactTreeReader.fromByteArray(CompactTreeWriter.toByteArray(constants)).toTreeString());
+    }
+
+    @Test
+    public void testStreamsSeveralTreesThroughChannels() throws IOException {
+        String[] inputs = {"a + b", "(c)", "a << b >> c"};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompactTreeWriter writer = new CompactTreeWriter(Channels.newChannel(bytes));
+        for (String input : inputs) {
+            writer.write(new Parser(input).parse());
+        }
+        writer.flush();
+
+        CompactTreeReader reader = new CompactTreeReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        for (String input : inputs) {
+            assertEquals(new Parser(input).parse().toTreeString(), reader.readTree().toTreeString());
+        }
+        assertNull(reader.readTree());
+    }
+
+    @Test
+    public void testVisitsWithoutBuilding() throws IOException {
+        ExpressionNode tree = new Parser("a + (b << a) - c").parse();
+        StringBuilder events = new StringBuilder();
+        CompactTreeReader reader = new CompactTreeReader(new ByteArrayInputStream(CompactTreeWriter.toByteArray(tree)));
+        assertTrue(reader.read(new CompactTreeReader.Visitor() {
+            @Override
+            public void identifier(String name) {
+                events.append(name).append(' ');
+            }
+
+            @Override
+            public void constant(long value) {
+                events.append(value).append(' ');
+            }
+
+            @Override
+            public void binary(String operator) {
+                events.append(operator).append(' ');
+            }
+
+            @Override
+            public void parenthesized() {
+                events.append("() ");
+            }
+        }));
+        assertEquals("a b a << () + c - ", events.toString());
+    }
+
+    @Test
+    public void testRejectsMalformedInput() {
+        byte[] bytes = CompactTreeWriter.toByteArray(new Parser("a + b").parse());
+        // Drop the second operand: the binary operation has only one
+        byte[] missingOperand = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 0, missingOperand, 0, 7);
+        System.arraycopy(bytes, 9, missingOperand, 7, bytes.length - 9);
+        assertThrows(IOException.class, () -> new CompactTreeReader(new ByteArrayInputStream(missingOperand)).readTree());
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IOException.class, () -> new CompactTreeReader(new ByteArrayInputStream(truncated)).readTree());
+
+        assertThrows(IOException.class, () -> new CompactTreeReader(new ByteArrayInputStream("{}".getBytes())).readTree());
+
+        // A name length near Integer.MAX_VALUE is rejected before anything is allocated
+        byte[] hugeName = {'G', 'A', 'S', 'T', 1, 0x1F, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        IOException e = assertThrows(IOException.class,
+                () -> new CompactTreeReader(new ByteArrayInputStream(hugeName)).readTree());
+        assertTrue(e.getMessage().startsWith("Malformed tree"), e.getMessage());
+    }
+
+    @Test
+    public void testDeepTrees() {
+        ExpressionNode tree = new IdentifierNode("x");
+        for (int i = 0; i < 1_000_000; i++) {
+            tree = i % 2 == 0 ? new ParenthesizedExpressionNode(tree)
+                    : new BinaryOperationNode(tree, "-", new IdentifierNode("y"));
+        }
+        byte[] bytes = CompactTreeWriter.toByteArray(tree);
+        // Header, two new identifiers, one byte per parenthesis, two per subtraction and the end
+        assertEquals(5 + 2 + 2 + 500_000 + 2 * 500_000 - 1 + 1, bytes.length);
+
+        ExpressionNode read = CompactTreeReader.fromByteArray(bytes);
+        assertEquals(Arrays.toString(CompactTreeWriter.toByteArray(read)), Arrays.toString(bytes));
+    }
+}
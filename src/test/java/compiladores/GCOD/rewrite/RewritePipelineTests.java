@@ -0,0 +1,93 @@
+package compiladores.GCOD.rewrite;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import compiladores.GCOD.eval.CompiledFormula;
+import compiladores.GCOD.eval.FormulaCompiler;
+import compiladores.GCOD.parser.Parser;
+import compiladores.GCOD.parser.ast.ConstantNode;
+import compiladores.GCOD.parser.ast.ExpressionNode;
+import compiladores.GCOD.parser.ast.NodeFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@SpringBootTest
+public class RewritePipelineTests {
+
+    private final FormulaCompiler compiler = new FormulaCompiler();
+
+    private static ExpressionNode parse(String input) {
+        return new Parser(input).parse();
+    }
+
+    private String rewrittenKey(String input, Map<String, Long> constants) {
+        return compiler.compile(RewritePipeline.standard(constants).run(parse(input)).getTree()).getKey();
+    }
+
+    private void assertSameValue(String input, Map<String, Long> constants) {
+        ExpressionNode original = parse(input);
+        RewriteReport report = RewritePipeline.standard(constants).run(original);
+        CompiledFormula before = compiler.compile(original);
+        CompiledFormula after = compiler.compile(report.getTree());
+
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            Map<String, Long> values = new HashMap<>(constants);
+            for (String variable : before.getVariables()) {
+                values.putIfAbsent(variable, (long) random.nextInt(1 << 20) - (1 << 19));
+            }
+            assertEquals(before.evaluate(values), after.evaluate(values), input);
+        }
+    }
+
+    @Test
+    public void testStripsParentheses() {
+        RewriteReport report = new RewritePipeline(List.of(new StripParenthesesPass())).run(parse("((a)) + (b)"));
+        assertEquals(3, report.getNodesAfter());
+        assertEquals(6, report.getNodesBefore());
+    }
+
+    @Test
+    public void testFoldsShiftChains() {
+        assertEquals("x 5 <<", rewrittenKey("(x << a) << b", Map.of("a", 2L, "b", 3L)));
+        assertEquals("x 63 >>", rewrittenKey("(x >> a) >> b", Map.of("a", 40L, "b", 40L)));
+        assertEquals("x 40 << 40 <<", rewrittenKey("(x << a) << b", Map.of("a", 40L, "b", 40L)));
+        assertEquals("x", rewrittenKey("x << z + y - y", Map.of("z", 0L)));
+        assertSameValue("(x << a) << b >> c >> a", Map.of("a", 7L, "b", 60L, "c", 3L));
+    }
+
+    @Test
+    public void testCancelsOperands() {
+        assertEquals("x", rewrittenKey("x + y - y", Map.of()));
+        assertEquals("x", rewrittenKey("x - (y << z) + (y << z)", Map.of()));
+        assertEquals("y", rewrittenKey("x + y - x", Map.of()));
+    }
+
+    @Test
+    public void testNormalisesOperandOrder() {
+        assertEquals(rewrittenKey("a + b - c", Map.of()), rewrittenKey("b - c + a", Map.of()));
+        assertEquals(rewrittenKey("(a + b) << (c - d)", Map.of()), rewrittenKey("(b + a) << (c - d)", Map.of()));
+        assertNotEquals(rewrittenKey("a << b", Map.of()), rewrittenKey("b << a", Map.of()));
+        assertSameValue("a - (b - c) + (d + a) - (e << f)", Map.of());
+    }
+
+    @Test
+    public void testDeepTreesDoNotUseTheThreadStack() {
+        NodeFactory nodes = NodeFactory.DEFAULT;
+        ExpressionNode tree = nodes.identifier("v0");
+        for (int i = 1; i < 200_000; i++) {
+            tree = nodes.binary(nodes.parenthesized(tree), i % 2 == 0 ? "+" : "-", nodes.identifier("v" + (i % 7)));
+        }
+        tree = nodes.binary(tree, "<<", nodes.identifier("zero"));
+
+        RewriteReport report = RewritePipeline.standard(Map.of("zero", 0L)).run(tree);
+        assertTrue(report.getNodesAfter() < report.getNodesBefore());
+        assertFalse(report.getTree() instanceof ConstantNode);
+        assertEquals(4, report.getPasses().size());
+    }
+}